@@ -126,7 +126,7 @@ class InventoryService {
 
   Future<List<InventoryPayload>> getExpiringItems(int days) async {
     String? token = await storage.read(key: 'jwt_token');
-    final response = await http.get(Uri.parse('$baseUrl/item/v1/getExpiringItems/$days'), // TODO: fix backend for item
+    final response = await http.get(Uri.parse('$baseUrl/inv/v1/expiryAlerts?days=$days'),
       headers: {
         'Authorization': 'Bearer $token'
       });
@@ -71,6 +71,40 @@ class StockLocatorService {
     }
   }
 
+  // Completions of a description as it is typed, served by the backend from memory
+  Future<List<String>> suggestDescriptions(String prefix, {String? brand, int limit = 10}) async {
+    final String? token = await storage.read(key: 'jwt_token');
+    if (token == null) {
+      throw Exception('JWT token not found in secure storage');
+    }
+
+    final queryParameters = <String, String>{
+      'prefix': prefix,
+      'limit': limit.toString(),
+    };
+    if (brand != null && brand.isNotEmpty) {
+      queryParameters['brand'] = brand;
+    }
+
+    final uri = Uri.parse('$baseUrl/stock-locator/suggest').replace(queryParameters: queryParameters);
+
+    final response = await http.get(
+      uri,
+      headers: {
+        'Content-Type': 'application/json',
+        'Accept': 'application/json',
+        'Authorization': 'Bearer $token',
+      },
+    );
+
+    if (response.statusCode == 200) {
+      final List<dynamic> jsonBody = json.decode(response.body);
+      return jsonBody.cast<String>();
+    } else {
+      throw Exception('Failed to fetch description suggestions: ${response.statusCode} ${response.body}');
+    }
+  }
+
   Future<StockLocator?> updateStockLocator(StockLocator stockLocator) async {
     final String? token = await storage.read(key: 'jwt_token');
     if (token == null) {
@@ -113,7 +147,8 @@ class StockLocatorService {
       },
     );
 
-    if (response.statusCode != 200) {
+    // the sync runs in the background on the server and is accepted with 202
+    if (response.statusCode != 200 && response.statusCode != 202) {
       throw Exception('Failed to sync stock data: ${response.statusCode} ${response.body}');
     }
   }
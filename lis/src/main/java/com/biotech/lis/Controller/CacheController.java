@@ -0,0 +1,43 @@
+package com.biotech.lis.Controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.biotech.lis.DTO.CacheStatsDTO;
+import com.biotech.lis.Service.BrandService;
+import com.biotech.lis.Service.LocationService;
+import com.biotech.lis.Service.UserService;
+import com.biotech.lis.config.JwtService;
+
+@RestController
+@RequestMapping("/cache/v1")
+public class CacheController {
+
+    private final BrandService brandService;
+    private final LocationService locationService;
+    private final UserService userService;
+    private final JwtService jwtService;
+
+    public CacheController(BrandService brandService, LocationService locationService,
+                           UserService userService, JwtService jwtService) {
+        this.brandService = brandService;
+        this.locationService = locationService;
+        this.userService = userService;
+        this.jwtService = jwtService;
+    }
+
+    // hit/miss counters for the in-process caches
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(List.of(
+            brandService.getCacheStats(),
+            locationService.getCacheStats(),
+            userService.getCacheStats(),
+            jwtService.getCacheStats()
+        ));
+    }
+}
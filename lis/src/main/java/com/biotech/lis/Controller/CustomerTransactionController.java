@@ -1,5 +1,6 @@
 package com.biotech.lis.Controller;
 
+import com.biotech.lis.DTO.PickListDTO;
 import com.biotech.lis.Entity.CustomerTransaction;
 import com.biotech.lis.Service.CustomerTransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,14 +21,15 @@ public class CustomerTransactionController {
     }
 
     @PostMapping("/createTransaction")
-    public ResponseEntity<CustomerTransaction> createTransaction(@RequestBody CustomerTransaction transaction) {
+    public ResponseEntity<CustomerTransaction> createTransaction(@RequestBody CustomerTransaction transaction,
+                                                                 @RequestParam(defaultValue = "false") boolean fefo) {
         System.out.println("Received Transaction: " + transaction);
         System.out.println("Total Price: " + transaction.getTotalRetailPrice());
         if (transaction.getItems() != null) {
             System.out.println("Items count: " + transaction.getItems().size());
             transaction.getItems().forEach(item -> System.out.println("Item: " + item.getItemDescription() + ", Price: " + item.getUnitRetailPrice()));
         }
-        return ResponseEntity.ok(service.createTransaction(transaction));
+        return ResponseEntity.ok(service.createTransaction(transaction, fefo));
     }
 
     @GetMapping("/getTransactions")
@@ -41,6 +43,18 @@ public class CustomerTransactionController {
         return ResponseEntity.ok().build();
     }
 
+    // first-expired-first-out lots and locations to take quantity of the item's product from
+    @GetMapping("/pickList")
+    public ResponseEntity<PickListDTO> getPickList(@RequestParam String itemCode, @RequestParam int quantity) {
+        return ResponseEntity.ok(service.getPickList(itemCode, quantity));
+    }
+
+    // backfills the daily sales rollup behind the dashboard from the stored transactions
+    @PostMapping("/rebuildSalesRollup")
+    public ResponseEntity<Integer> rebuildSalesRollup() {
+        return ResponseEntity.ok(service.rebuildSalesRollup());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
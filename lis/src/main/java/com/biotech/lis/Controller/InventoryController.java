@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import com.biotech.lis.DTO.InventoryPageDTO;
 import com.biotech.lis.Entity.Inventory;
 import com.biotech.lis.Entity.InventoryPayload;
 import com.biotech.lis.Entity.ItemLoc;
@@ -82,16 +83,74 @@ public class InventoryController {
         return ResponseEntity.ok(stockAlerts);
     }
 
+    // items expiring within ?days= from today (30 by default), soonest first
+    @GetMapping("/expiryAlerts")
+    public ResponseEntity<List<InventoryPayload>> getExpiryAlerts(@RequestParam(required = false) Integer days) {
+        try {
+            return ResponseEntity.ok(inventoryService.getExpiryAlerts(days));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // without ?limit= the whole ranked list is returned, as before
     @GetMapping("/getTopStock")
-    public ResponseEntity<List<InventoryPayload>> getTopStock() {
-        List<InventoryPayload> topInv = inventoryService.getHighestStock();
-        return ResponseEntity.ok(topInv);
+    public ResponseEntity<List<InventoryPayload>> getTopStock(@RequestParam(required = false) Integer limit) {
+        try {
+            List<InventoryPayload> topInv = limit == null
+                    ? inventoryService.getHighestStock()
+                    : inventoryService.getHighestStock(limit);
+            return ResponseEntity.ok(topInv);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/getLowStock")
-    public ResponseEntity<List<InventoryPayload>> getBottomStock() {
-        List<InventoryPayload> lowInv = inventoryService.getLowestStock();
-        return ResponseEntity.ok(lowInv);
+    public ResponseEntity<List<InventoryPayload>> getBottomStock(@RequestParam(required = false) Integer limit) {
+        try {
+            List<InventoryPayload> lowInv = limit == null
+                    ? inventoryService.getLowestStock()
+                    : inventoryService.getLowestStock(limit);
+            return ResponseEntity.ok(lowInv);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Paged variants: ?size=&cursor= where cursor is the nextCursor of the previous page
+
+    @GetMapping("/getInvPage")
+    public ResponseEntity<InventoryPageDTO> getInvPage(
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(inventoryService.getInventoryPage(size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/getTopStockPage")
+    public ResponseEntity<InventoryPageDTO> getTopStockPage(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(inventoryService.getHighestStockPage(size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/getLowStockPage")
+    public ResponseEntity<InventoryPageDTO> getLowStockPage(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(inventoryService.getLowestStockPage(size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
         // Exception handlers for proper HTTP status codes
@@ -2,10 +2,9 @@ package com.biotech.lis.Controller;
 
 import com.biotech.lis.Entity.Inventory;
 import com.biotech.lis.Entity.ItemLoc;
-import com.biotech.lis.Entity.Location;
 import com.biotech.lis.Repository.InventoryRepository;
 import com.biotech.lis.Repository.ItemLocRepository;
-import com.biotech.lis.Repository.LocationRepository;
+import com.biotech.lis.Service.LocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -27,7 +26,7 @@ public class ItemsController {
     private ItemLocRepository itemLocRepository;
 
     @Autowired
-    private LocationRepository locationRepository;
+    private LocationService locationService;
 
     @GetMapping("/v1/{brandId}")
     public ResponseEntity<List<Map<String, Object>>> getItemsForBrand(@PathVariable Integer brandId) {
@@ -70,9 +69,8 @@ public class ItemsController {
         List<ItemLoc> itemLocs = itemLocRepository.findByItemCode(itemId);
         List<Map<String, Object>> locations = new ArrayList<>();
         
-        // Pre-fetch all locations to map ID to Name
-        Map<Integer, String> locIdToName = locationRepository.findAll().stream()
-                .collect(Collectors.toMap(Location::getLocationId, Location::getLocationName));
+        // Location names come from the reference data cache
+        Map<Integer, String> locIdToName = locationService.getLocationNamesById();
 
         for (ItemLoc il : itemLocs) {
             Map<String, Object> locMap = new HashMap<>();
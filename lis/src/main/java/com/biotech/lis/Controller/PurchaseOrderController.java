@@ -1,23 +1,35 @@
 package com.biotech.lis.Controller;
 
+import com.biotech.lis.DTO.PurchaseOrderImportReportDTO;
 import com.biotech.lis.Entity.PurchaseOrder;
+import com.biotech.lis.Service.PurchaseOrderImportService;
 import com.biotech.lis.Service.PurchaseOrderService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.web.bind.annotation.*;
 import java.util.Optional;
+import java.util.logging.Logger;
 
 @RestController
 @RequestMapping("/PO/v1")
 public class PurchaseOrderController {
+    private static final Logger logger = Logger.getLogger(PurchaseOrderController.class.getName());
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final PurchaseOrderService purchaseOrderService;
+    private final PurchaseOrderImportService purchaseOrderImportService;
     @Autowired
-    public PurchaseOrderController(PurchaseOrderService purchaseOrderService) {
+    public PurchaseOrderController(PurchaseOrderService purchaseOrderService,
+                                   PurchaseOrderImportService purchaseOrderImportService) {
         this.purchaseOrderService = purchaseOrderService;
+        this.purchaseOrderImportService = purchaseOrderImportService;
     }
 
     @PostMapping("/addPO")
@@ -34,6 +46,25 @@ public class PurchaseOrderController {
         }
     }
 
+    // Bulk import: text/csv with a header row, or application/x-ndjson with one purchase order per
+    // line. Answers with what happened to every row; rows that were rejected are not in the database.
+    @PostMapping(value = "/importPOs", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<PurchaseOrderImportReportDTO> importPurchaseOrders(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        PurchaseOrderImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? PurchaseOrderImportService.Format.CSV
+                : PurchaseOrderImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(purchaseOrderImportService.importPurchaseOrders(body, format));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Rejected purchase order import: " + e.getMessage());
+            return ResponseEntity.badRequest().build(); // unreadable CSV header
+        } catch (Exception e) {
+            logger.severe("Error importing purchase orders: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     //get all purchase orders
     @GetMapping("/getPOs")
     public ResponseEntity<List<PurchaseOrder>> getAllPurchaseOrders() {
@@ -16,8 +16,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.biotech.lis.DTO.StockLocatorSyncStatusDTO;
 import com.biotech.lis.Entity.StockLocator;
 import com.biotech.lis.Service.StockLocatorService;
+import com.biotech.lis.Service.StockLocatorSyncService;
+
+import jakarta.persistence.EntityNotFoundException;
 
 @RestController
 @RequestMapping("/stock-locator")
@@ -41,6 +45,14 @@ public class StockLocatorController {
         }
     }
 
+    @GetMapping("/top")
+    public ResponseEntity<List<StockLocator>> getTopStockLocators(@RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > StockLocatorService.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockLocatorService.getTopStockLocators(limit));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<StockLocator>> searchStockLocators(
             @RequestParam(required = false) String brand,
@@ -78,7 +90,7 @@ public class StockLocatorController {
     }
 
     @Autowired
-    private com.biotech.lis.Service.InventoryService inventoryService;
+    private StockLocatorSyncService stockLocatorSyncService;
 
     @GetMapping("/descriptions")
     public ResponseEntity<List<String>> getProductDescriptions(@RequestParam(required = false) String brand) {
@@ -86,13 +98,48 @@ public class StockLocatorController {
         return ResponseEntity.ok(descriptions);
     }
 
+    // completions for a description field as it is typed, without a database round trip
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestDescriptions(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(required = false) String brand,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > StockLocatorService.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stockLocatorService.suggestDescriptions(prefix, brand, limit));
+    }
+
+    // starts the resync in the background; poll the status endpoints for progress
     @PostMapping("/sync")
-    public ResponseEntity<String> syncStock() {
+    public ResponseEntity<StockLocatorSyncStatusDTO> syncStock() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(stockLocatorSyncService.startSync());
+    }
+
+    @GetMapping("/sync/status")
+    public ResponseEntity<StockLocatorSyncStatusDTO> getLatestSyncStatus() {
         try {
-            inventoryService.syncAllInventoryToStockLocator();
-            return ResponseEntity.ok("Stock synchronization completed successfully.");
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Synchronization failed: " + e.getMessage());
+            return ResponseEntity.ok(stockLocatorSyncService.getLatestStatus());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @GetMapping("/sync/{jobId}")
+    public ResponseEntity<StockLocatorSyncStatusDTO> getSyncStatus(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(stockLocatorSyncService.getStatus(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    @PostMapping("/sync/{jobId}/resume")
+    public ResponseEntity<StockLocatorSyncStatusDTO> resumeSync(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(stockLocatorSyncService.resumeSync(jobId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 }
\ No newline at end of file
@@ -1,18 +1,16 @@
 package com.biotech.lis.Controller;
 
 import com.biotech.lis.Entity.TransactionEntry;
-import com.biotech.lis.Entity.CustomerTransaction;
-import com.biotech.lis.Entity.Sold;
-import com.biotech.lis.Repository.CustomerTransactionRepository;
 import com.biotech.lis.DTO.DashboardStatsDTO;
 import com.biotech.lis.Service.DashboardService;
+import com.biotech.lis.Service.TransactionHistoryService;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -30,10 +29,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class TransactionEntryController {
 
     @Autowired
-    private CustomerTransactionRepository customerTransactionRepository;
-
-    @Autowired
-    private com.biotech.lis.Repository.TransactionEntryRepository transactionEntryRepository;
+    private TransactionHistoryService transactionHistoryService;
     
     @Autowired
     private DashboardService dashboardService;
@@ -69,51 +65,24 @@ public class TransactionEntryController {
         return ResponseEntity.ok(false);
     }
 
-    @GetMapping("/all") // gets all the transactions mapped to old format for compatibility
-    public ResponseEntity<Iterable<TransactionEntry>> getAllTransactions() {
+    // Gets all the transactions mapped to old format for compatibility, newest first, streamed as
+    // they are read. from/to bound the dates; with limit the response is one page of
+    // {"entries", "nextCursor"} and passing nextCursor back as cursor returns the next page.
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> getAllTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TransactionHistoryService.HistoryQuery query;
         try {
-            // 1. Fetch Legacy Transactions
-            List<TransactionEntry> allEntries = new ArrayList<>();
-            allEntries.addAll(transactionEntryRepository.findAll());
-
-            // 2. Fetch New Transactions and Map
-            List<CustomerTransaction> customerTransactions = customerTransactionRepository.findAll();
-
-            for (CustomerTransaction ct : customerTransactions) {
-                if (ct.getItems() != null) {
-                    for (Sold item : ct.getItems()) {
-                        TransactionEntry entry = new TransactionEntry();
-                        entry.setDrSIReferenceNum(ct.getInvoiceReference() != null ? ct.getInvoiceReference() : "N/A");
-                        entry.setTransactionDate(ct.getTransactionDate() != null ? ct.getTransactionDate().toLocalDate() : LocalDate.now());
-                        entry.setBrand(item.getBrandName() != null ? item.getBrandName() : "N/A");
-                        entry.setProductDescription(item.getItemDescription() != null ? item.getItemDescription() : "N/A");
-                        entry.setLotSerialNumber(item.getLotNumber() != null ? item.getLotNumber() : "N/A");
-                        // Expiry date is not in Sold item, default to today or handle gracefully
-                        entry.setExpiryDate(LocalDate.now()); 
-                        entry.setCost(item.getUnitRetailPrice() != null ? item.getUnitRetailPrice() : 0.0);
-                        entry.setQuantity(item.getQuantity() != null ? item.getQuantity() : 0);
-                        entry.setStockLocation(item.getLocation() != null ? item.getLocation() : "N/A");
-                        entry.setItemCode(item.getItemId() != null ? item.getItemId() : "N/A");
-                        entry.setAddedBy(null); 
-                        entry.setDateTimeAdded(ct.getTransactionDate() != null ? ct.getTransactionDate() : java.time.LocalDateTime.now());
-                        
-                        allEntries.add(entry);
-                    }
-                }
-            }
-
-            // 3. Sort by Date (Descending)
-            allEntries.sort((t1, t2) -> {
-                if (t1.getTransactionDate() == null) return 1;
-                if (t2.getTransactionDate() == null) return -1;
-                return t2.getTransactionDate().compareTo(t1.getTransactionDate());
-            });
-
-            return ResponseEntity.ok(allEntries); 
-        } catch (Exception e) { 
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build(); 
+            query = transactionHistoryService.query(from, to, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+
+        StreamingResponseBody body = out -> transactionHistoryService.writeHistory(query, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // NEW DASHBOARD ENDPOINTS:
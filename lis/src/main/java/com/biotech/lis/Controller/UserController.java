@@ -12,6 +12,9 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
 @RestController
@@ -25,37 +28,12 @@ public class UserController {
         this.userService = userService;
     }
     
+    // hashing runs on the hashing pool, so the request thread is not held while it does
     @PostMapping("/addUser")
-    public ResponseEntity<?> addUser(@RequestBody User user) {
-        try {
-            User savedUser = userService.addUser(user);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "User created successfully");
-            response.put("user", savedUser);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            
-        } catch (UserAlreadyExistsException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
-            
-        } catch (InvalidUserDataException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            
-        } catch (Exception e) {
-            logger.severe("Unexpected error in addUser: " + e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", "Internal server error occurred");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+    public CompletableFuture<ResponseEntity<?>> addUser(@RequestBody User user) {
+        return userService.addUser(user).handle((savedUser, failure) -> failure == null
+                ? userSaved(HttpStatus.CREATED, "User created successfully", savedUser)
+                : userSaveFailed("addUser", failure));
     }
 
     @GetMapping("/getUser/id/{id}")
@@ -134,42 +112,46 @@ public class UserController {
     }
 
     @PutMapping("/updateUser")
-    public ResponseEntity<?> updateUser(@RequestBody User user) {
-        try {
-            User updatedUser = userService.updateUser(user);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "User updated successfully");
-            response.put("user", updatedUser);
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (UserNotFoundException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
+    public CompletableFuture<ResponseEntity<?>> updateUser(@RequestBody User user) {
+        return userService.updateUser(user).handle((updatedUser, failure) -> failure == null
+                ? userSaved(HttpStatus.OK, "User updated successfully", updatedUser)
+                : userSaveFailed("updateUser", failure));
+    }
+
+    private ResponseEntity<?> userSaved(HttpStatus status, String message, User user) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", message);
+        response.put("user", user);
+        
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private ResponseEntity<?> userSaveFailed(String action, Throwable failure) {
+        Throwable e = unwrap(failure);
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+
+        if (e instanceof UserNotFoundException) {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-            
-        } catch (UserAlreadyExistsException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
+        }
+        if (e instanceof UserAlreadyExistsException) {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
-            
-        } catch (InvalidUserDataException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
+        }
+        if (e instanceof InvalidUserDataException) {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            
-        } catch (Exception e) {
-            logger.severe("Unexpected error in updateUser: " + e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", "Internal server error occurred");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
+        if (e instanceof RejectedExecutionException) {
+            logger.warning("Rejected " + action + ", too many password hashes in progress");
+            errorResponse.put("message", "Too many requests in progress, please try again");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+        }
+        logger.severe("Unexpected error in " + action + ": " + e.getMessage());
+        errorResponse.put("message", "Internal server error occurred");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
 
     @DeleteMapping("/deleteUser/{id}")
@@ -204,36 +186,47 @@ public class UserController {
         }
     }
 
+    // the password check runs on the hashing pool, so the request thread is not held while it does
     @PostMapping("/login")
-    public ResponseEntity<?> logIn(@RequestBody LogInReq logInReq) {
-        try {
-            LogInReq check = userService.logInPass(logInReq.getEmail(), logInReq.getPassword());
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "Login successful");
-            response.put("data", check);
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (InvalidCredentialsException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
+    public CompletableFuture<ResponseEntity<?>> logIn(@RequestBody LogInReq logInReq) {
+        return userService.logInPassAsync(logInReq.getEmail(), logInReq.getPassword())
+                .handle((check, failure) -> failure == null ? loggedIn(check) : logInFailed(failure));
+    }
+
+    private ResponseEntity<?> loggedIn(LogInReq check) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", "Login successful");
+        response.put("data", check);
+        
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<?> logInFailed(Throwable failure) {
+        Throwable e = unwrap(failure);
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+        
+        if (e instanceof InvalidCredentialsException) {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
-            
-        } catch (JwtTokenException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
+        }
+        if (e instanceof RejectedExecutionException) {
+            logger.warning("Login rejected, too many logins in progress");
+            errorResponse.put("message", "Too many login attempts in progress, please try again");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+        }
+        if (e instanceof JwtTokenException) {
             errorResponse.put("message", "Authentication token generation failed");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-            
-        } catch (Exception e) {
-            logger.severe("Unexpected error in login: " + e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", "Login failed due to internal error");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
+        logger.severe("Unexpected error in login: " + e.getMessage());
+        errorResponse.put("message", "Login failed due to internal error");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    }
+
+    // the exception a stage failed with; later stages see it wrapped in a CompletionException
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
     }
 }
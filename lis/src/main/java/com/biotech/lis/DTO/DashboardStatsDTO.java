@@ -13,4 +13,11 @@ public class DashboardStatsDTO {
     private int totalQuantityTransacted;
     private String period; // "daily", "monthly", "yearly"
     private String dateRange; // e.g., "2024-07-16" or "2024-07" or "2024"
+
+    // JPQL constructor for the rollup sums; they are null when no day matches
+    public DashboardStatsDTO(Long totalTransactions, Double totalTransactionValue, Long totalQuantityTransacted) {
+        this.totalTransactions = totalTransactions != null ? totalTransactions.intValue() : 0;
+        this.totalTransactionValue = totalTransactionValue != null ? totalTransactionValue : 0.0;
+        this.totalQuantityTransacted = totalQuantityTransacted != null ? totalQuantityTransacted.intValue() : 0;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.biotech.lis.DTO;
+
+import java.util.List;
+
+import com.biotech.lis.Entity.InventoryPayload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryPageDTO {
+    private List<InventoryPayload> items;
+    private String nextCursor; // pass back as ?cursor= to get the next page, null on the last page
+}
@@ -0,0 +1,19 @@
+package com.biotech.lis.DTO;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PickDTO {
+    private String itemCode; // the lot's item code
+    private Integer lotNum;
+    private LocalDate expiry;
+    private Integer locationId;
+    private String locationName;
+    private int quantity; // taken from this lot at this location
+}
@@ -0,0 +1,16 @@
+package com.biotech.lis.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PickListDTO {
+    private int requested;
+    private int shortfall; // what the unexpired stock could not cover
+    private List<PickDTO> picks; // earliest expiry first
+}
@@ -0,0 +1,17 @@
+package com.biotech.lis.DTO;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderImportReportDTO {
+    private int total;
+    private int created;
+    private int rejected;
+    private List<PurchaseOrderImportRowDTO> rows;
+}
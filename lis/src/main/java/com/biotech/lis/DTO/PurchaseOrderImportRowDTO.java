@@ -0,0 +1,15 @@
+package com.biotech.lis.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderImportRowDTO {
+    private int line; // line of the request body the row starts on
+    private String status; // CREATED or REJECTED
+    private String itemCode; // the code given to a created row
+    private String message; // why a row was rejected
+}
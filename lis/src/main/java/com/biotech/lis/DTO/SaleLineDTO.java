@@ -0,0 +1,24 @@
+package com.biotech.lis.DTO;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One sold item together with the sale it belongs to, read as a projection so nothing is managed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleLineDTO {
+    private String invoiceReference;
+    private LocalDateTime transactionDate;
+    private Long soldId;
+    private String itemId;
+    private String lotNumber;
+    private Integer quantity;
+    private Double unitRetailPrice;
+    private String brandName;
+    private String itemDescription;
+    private String location;
+}
@@ -0,0 +1,24 @@
+package com.biotech.lis.DTO;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLocatorSyncStatusDTO {
+    private Long jobId;
+    private String status; // "RUNNING", "COMPLETED", "FAILED"
+    private int totalChunks;
+    private long completedChunks;
+    private long failedChunks;
+    private int totalItems;
+    private long itemsSynced;
+    private double percentComplete;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
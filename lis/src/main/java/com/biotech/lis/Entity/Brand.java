@@ -21,5 +21,8 @@ public class Brand {
     @Column(unique = true)
     private String brandName;
     private String abbreviation;
+    // next item-code sequence not yet reserved; only moved by BrandRepository.reserveSequences, so
+    // saving a brand read before a reservation can't move it back
+    @Column(updatable = false)
     private Integer latestSequence;
 }
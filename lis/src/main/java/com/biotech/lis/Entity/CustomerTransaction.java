@@ -1,11 +1,15 @@
 package com.biotech.lis.Entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "customer_transaction")
+@Table(name = "customer_transaction", indexes = {
+    @Index(name = "idx_customer_transaction_date", columnList = "transactionDate"),
+    @Index(name = "idx_customer_transaction_invoice", columnList = "invoiceReference")
+})
 public class CustomerTransaction {
 
     @Id
@@ -28,8 +32,11 @@ public class CustomerTransaction {
     @Column(name = "totalRetailPrice")
     private Double totalRetailPrice;
 
+    // Callers that list transactions fetch the items with them (findAllWithItems); anything else
+    // touching items of several transactions loads them in batches instead of one query each
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "transaction_id")
+    @BatchSize(size = 50)
     private List<Sold> items;
 
     public CustomerTransaction() {}
@@ -0,0 +1,24 @@
+package com.biotech.lis.Entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Sales totals of one day, kept in step with customer_transaction by DailySalesRollupService
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+    @Id
+    private LocalDate salesDate;
+    private Long transactionCount;
+    private Double totalRetailValue;
+    private Long totalQuantity;
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,7 +15,10 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "`inventory`")
+@Table(name = "`inventory`", indexes = {
+    @Index(name = "idx_inventory_expiry", columnList = "expiry"),
+    @Index(name = "idx_inventory_quantity", columnList = "quantity, itemCode")
+})
 public class Inventory {
     @Id
     private String itemCode;
@@ -1,20 +1,70 @@
 package com.biotech.lis.Entity;
 
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
+// Stock of one item at one location; several items can share a location
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-@Table(name = "itemLoc")
-public class ItemLoc {
+@IdClass(ItemLocId.class)
+@Table(name = "itemLoc", indexes = @Index(name = "idx_item_loc_item_code", columnList = "itemCode"))
+public class ItemLoc implements Persistable<ItemLocId> {
     @Id
     private Integer locationId;
+    @Id
     private String itemCode;
     private Integer quantity;
+
+    // The id is assigned by the client, so Spring Data can't tell new rows from existing ones
+    // and would merge (SELECT, then INSERT) each row. Rows built from a request are new until
+    // persisted; rows read from the database are not. This lets saveAll() batch the inserts.
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRow = true;
+
+    public ItemLoc(Integer locationId, String itemCode, Integer quantity) {
+        this.locationId = locationId;
+        this.itemCode = itemCode;
+        this.quantity = quantity;
+    }
+
+    @Override
+    @JsonIgnore
+    public ItemLocId getId() {
+        return new ItemLocId(itemCode, locationId);
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRow = false;
+    }
 }
@@ -0,0 +1,67 @@
+package com.biotech.lis.Entity;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Stock of one item at one location; the rows behind an item's StockLocator view
+@Entity
+@Data
+@NoArgsConstructor
+@IdClass(LocationStockId.class)
+@Table(name = "locationStock")
+public class LocationStock implements Persistable<LocationStockId> {
+    @Id
+    private String itemCode;
+    @Id
+    private Integer locationId;
+    private Integer quantity;
+
+    // rows created here are inserted without a SELECT first, see ItemLoc
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRow = true;
+
+    public LocationStock(String itemCode, Integer locationId, Integer quantity) {
+        this.itemCode = itemCode;
+        this.locationId = locationId;
+        this.quantity = quantity;
+    }
+
+    @Override
+    @JsonIgnore
+    public LocationStockId getId() {
+        return new LocationStockId(itemCode, locationId);
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRow = false;
+    }
+}
@@ -0,0 +1,15 @@
+package com.biotech.lis.Entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStockId implements Serializable {
+    private String itemCode;
+    private Integer locationId;
+}
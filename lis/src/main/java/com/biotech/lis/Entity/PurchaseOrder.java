@@ -4,13 +4,14 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "purchaseOrder")
+@Table(name = "purchaseOrder", indexes = @Index(name = "idx_purchase_order_brand", columnList = "brandId, itemCode"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
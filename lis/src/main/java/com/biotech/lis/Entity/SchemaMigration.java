@@ -0,0 +1,22 @@
+package com.biotech.lis.Entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one row per one-off data migration that has run, so it is never applied twice
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "schemaMigration")
+public class SchemaMigration {
+    @Id
+    private String name;
+    private LocalDateTime appliedAt;
+}
@@ -3,7 +3,7 @@ package com.biotech.lis.Entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "sold_items")
+@Table(name = "sold_items", indexes = @Index(name = "idx_sold_items_transaction", columnList = "transaction_id"))
 public class Sold {
 
     @Id
@@ -2,23 +2,38 @@
 package com.biotech.lis.Entity;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.Persistable;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "stockLocator")
+@Table(name = "stockLocator", indexes = @Index(name = "idx_stock_locator_brand_product", columnList = "brand, productDescription"))
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-public class StockLocator {
+public class StockLocator implements Persistable<String> {
     
     @Id 
     @Column(name = "itemCode")
@@ -30,54 +45,84 @@ public class StockLocator {
     @Column(name = "productDescription")
     private String productDescription;
     
-    @Column(name = "lazcanoRef1")
-    private Integer lazcanoRef1;
-    
-    @Column(name = "lazcanoRef2")
-    private Integer lazcanoRef2;
-    
-    @Column(name = "gandiaColdStorage")
-    private Integer gandiaColdStorage;
-    
-    @Column(name = "gandiaRef1")
-    private Integer gandiaRef1;
-    
-    @Column(name = "gandiaRef2")
-    private Integer gandiaRef2;
-    
-    @Column(name = "limbaga")
-    private Integer limbaga;
-    
-    @Column(name = "cebu")
-    private Integer cebu;
-
     @Column(name = "addedBy")
     private String addedBy;
 
     @Column(name = "dateTimeAdded")
     private LocalDateTime dateTimeAdded;
 
+    // Only rows created by the service through the item constructor are known to be new; rows
+    // bound from a request body keep the old merge behaviour. Lets saveAll() batch the inserts
+    // of a sync instead of selecting every row first.
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newRow;
+
+    // Stock per location is kept in locationStock keyed by locationId; StockLocatorService loads
+    // it into these fields. quantities is the data, the other two are the generated JSON view.
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Map<Integer, Integer> quantities = new HashMap<>();
+
+    // legacy wide keys ("lazcanoRef1", ..., "cebu") written at the top level of the JSON
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private Map<String, Integer> locationColumns = new LinkedHashMap<>();
+
+    // every location by name, including ones without a legacy key
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private Map<String, Integer> stockByLocation = new LinkedHashMap<>();
+
     public StockLocator(String itemCode, String brand, String productDescription) {
         this.itemCode = itemCode;
         this.brand = brand;
         this.productDescription = productDescription;
-        this.lazcanoRef1 = 0;
-        this.lazcanoRef2 = 0;
-        this.gandiaColdStorage = 0;
-        this.gandiaRef1 = 0;
-        this.gandiaRef2 = 0;
-        this.limbaga = 0;
-        this.cebu = 0;
+        this.newRow = true;
+    }
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return itemCode;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.newRow = false;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Integer> getLocationColumns() {
+        return locationColumns;
+    }
+
+    // keeps PUT bodies in the wide shape working
+    @JsonAnySetter
+    public void setLocationColumn(String key, Object value) {
+        if (value instanceof Number number) {
+            locationColumns.put(key, number.intValue());
+        }
     }
 
     @JsonProperty("totalStock")
     public int getTotalStock() {
-        return (lazcanoRef1 != null ? lazcanoRef1 : 0) +
-               (lazcanoRef2 != null ? lazcanoRef2 : 0) +
-               (gandiaColdStorage != null ? gandiaColdStorage : 0) +
-               (gandiaRef1 != null ? gandiaRef1 : 0) +
-               (gandiaRef2 != null ? gandiaRef2 : 0) +
-               (limbaga != null ? limbaga : 0) +
-               (cebu != null ? cebu : 0);
+        int total = 0;
+        for (Integer quantity : quantities.values()) {
+            total += quantity != null ? quantity : 0;
+        }
+        return total;
     }
 }
\ No newline at end of file
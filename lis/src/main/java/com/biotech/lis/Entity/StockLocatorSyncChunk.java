@@ -0,0 +1,33 @@
+package com.biotech.lis.Entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One item-code range of a stock locator sync job: (afterItemCode, upToItemCode], null = unbounded
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stockLocatorSyncChunk", indexes = @Index(name = "idx_sync_chunk_job_status", columnList = "jobId, status"))
+public class StockLocatorSyncChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long chunkId;
+    private Long jobId;
+    private Integer chunkIndex;
+    private String afterItemCode;
+    private String upToItemCode;
+    private String status; // "PENDING", "DONE", "FAILED"
+    private Integer itemsSynced;
+    private LocalDateTime completedAt;
+    private String error;
+}
@@ -0,0 +1,29 @@
+package com.biotech.lis.Entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stockLocatorSyncJob")
+public class StockLocatorSyncJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long jobId;
+    private String status; // "RUNNING", "COMPLETED", "FAILED"
+    private Integer totalChunks;
+    private Integer totalItems;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -6,13 +6,17 @@ import java.time.LocalDateTime;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "transactionEntry")
+@Table(name = "transactionEntry", indexes = {
+    @Index(name = "idx_transaction_entry_date", columnList = "transactionDate, drSIReferenceNum"),
+    @Index(name = "idx_transaction_entry_item_code", columnList = "itemCode")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,6 +3,9 @@ package com.biotech.lis.Repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.biotech.lis.Entity.Brand;
@@ -11,4 +14,14 @@ import com.biotech.lis.Entity.Brand;
 public interface BrandRepository extends JpaRepository<Brand, Integer>{
     Optional<Brand> findByBrandName(String brandName);
     boolean existsByBrandNameIgnoreCase(String brandName);
+
+    // moves the brand's next unreserved sequence to at least floor, then past count more sequences,
+    // in one statement; the row lock makes concurrent reservations queue instead of overlap
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Brand b SET b.latestSequence = CASE WHEN COALESCE(b.latestSequence, 0) > :floor " +
+           "THEN COALESCE(b.latestSequence, 0) ELSE :floor END + :count WHERE b.brandId = :brandId")
+    int reserveSequences(@Param("brandId") Integer brandId, @Param("floor") int floor, @Param("count") int count);
+
+    @Query("SELECT b.latestSequence FROM Brand b WHERE b.brandId = :brandId")
+    Integer findLatestSequence(@Param("brandId") Integer brandId);
 }
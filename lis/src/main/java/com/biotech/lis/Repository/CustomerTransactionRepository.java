@@ -1,10 +1,58 @@
 package com.biotech.lis.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.biotech.lis.DTO.SaleLineDTO;
 import com.biotech.lis.Entity.CustomerTransaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CustomerTransactionRepository extends JpaRepository<CustomerTransaction, Long> {
     boolean existsByInvoiceReference(String invoiceReference);
+
+    // every transaction with its items, one query with a fetch join
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT t FROM CustomerTransaction t")
+    List<CustomerTransaction> findAllWithItems();
+
+    // [day, transaction count, retail value] per day of sales, for rebuilding the daily rollup
+    @Query("SELECT CAST(t.transactionDate AS LocalDate), COUNT(t), SUM(t.totalRetailPrice) FROM CustomerTransaction t " +
+           "WHERE t.transactionDate IS NOT NULL GROUP BY CAST(t.transactionDate AS LocalDate)")
+    List<Object[]> sumTransactionsByDay();
+
+    // [day, item quantity] per day of sales; kept apart so the join does not repeat the transaction totals
+    @Query("SELECT CAST(t.transactionDate AS LocalDate), SUM(s.quantity) FROM CustomerTransaction t JOIN t.items s " +
+           "WHERE t.transactionDate IS NOT NULL GROUP BY CAST(t.transactionDate AS LocalDate)")
+    List<Object[]> sumQuantitiesByDay();
+
+    // Sold lines of sales from :from up to, not including, the (:before, :beforeId) position, newest
+    // first. Streamed in fetch-size batches as projections, so the session never holds the rows.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.biotech.lis.DTO.SaleLineDTO(t.invoiceReference, t.transactionDate, s.id, s.itemId, s.lotNumber, " +
+           "s.quantity, s.unitRetailPrice, s.brandName, s.itemDescription, s.location) " +
+           "FROM CustomerTransaction t JOIN t.items s " +
+           "WHERE t.transactionDate >= :from " +
+           "AND (t.transactionDate < :before OR (t.transactionDate = :before AND s.id < :beforeId)) " +
+           "ORDER BY t.transactionDate DESC, s.id DESC")
+    Stream<SaleLineDTO> streamSaleLines(@Param("from") LocalDateTime from, @Param("before") LocalDateTime before,
+                                        @Param("beforeId") Long beforeId);
+
+    // Sold lines of sales without a transaction date, below :beforeId, newest line first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.biotech.lis.DTO.SaleLineDTO(t.invoiceReference, t.transactionDate, s.id, s.itemId, s.lotNumber, " +
+           "s.quantity, s.unitRetailPrice, s.brandName, s.itemDescription, s.location) " +
+           "FROM CustomerTransaction t JOIN t.items s " +
+           "WHERE t.transactionDate IS NULL AND s.id < :beforeId " +
+           "ORDER BY s.id DESC")
+    Stream<SaleLineDTO> streamUndatedSaleLines(@Param("beforeId") Long beforeId);
 }
@@ -0,0 +1,32 @@
+package com.biotech.lis.Repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.biotech.lis.DTO.DashboardStatsDTO;
+import com.biotech.lis.Entity.DailySalesRollup;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, LocalDate>, DailySalesRollupRepositoryCustom {
+
+    @Query("SELECT new com.biotech.lis.DTO.DashboardStatsDTO(SUM(r.transactionCount), SUM(r.totalRetailValue), SUM(r.totalQuantity)) " +
+           "FROM DailySalesRollup r WHERE r.salesDate BETWEEN :start AND :end")
+    DashboardStatsDTO sumBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // adds to the day's totals in place, so concurrent sales never overwrite each other
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailySalesRollup r SET r.transactionCount = r.transactionCount + :count, " +
+           "r.totalRetailValue = r.totalRetailValue + :value, r.totalQuantity = r.totalQuantity + :quantity " +
+           "WHERE r.salesDate = :salesDate")
+    int addToDay(@Param("salesDate") LocalDate salesDate, @Param("count") long count,
+                 @Param("value") double value, @Param("quantity") long quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DailySalesRollup r")
+    void deleteAllDays();
+}
@@ -0,0 +1,9 @@
+package com.biotech.lis.Repository;
+
+import java.time.LocalDate;
+
+public interface DailySalesRollupRepositoryCustom {
+    // Creates the day's row with zero totals unless it exists. Never fails on a row created by a
+    // concurrent sale, so it can run inside the sale's own transaction.
+    void insertDayIfAbsent(LocalDate salesDate);
+}
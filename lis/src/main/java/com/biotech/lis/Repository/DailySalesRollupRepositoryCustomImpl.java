@@ -0,0 +1,22 @@
+package com.biotech.lis.Repository;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class DailySalesRollupRepositoryCustomImpl implements DailySalesRollupRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertDayIfAbsent(LocalDate salesDate) {
+        // Hibernate renders the upsert for the configured dialect (INSERT ... ON DUPLICATE KEY
+        // UPDATE on MySQL and TiDB)
+        entityManager.createQuery("INSERT INTO DailySalesRollup (salesDate, transactionCount, totalRetailValue, totalQuantity) "
+                + "VALUES (:salesDate, 0, 0, 0) ON CONFLICT (salesDate) DO NOTHING")
+            .setParameter("salesDate", salesDate)
+            .executeUpdate();
+    }
+}
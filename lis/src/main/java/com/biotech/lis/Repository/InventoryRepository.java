@@ -1,14 +1,53 @@
 package com.biotech.lis.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.biotech.lis.Entity.Inventory;
 
-public interface InventoryRepository extends JpaRepository<Inventory, String> {
+public interface InventoryRepository extends JpaRepository<Inventory, String>, InventoryRepositoryCustom {
     List<Inventory> findByQuantityLessThanEqual(int quantity);
     //Optional<Inventory> findByItemCodeIgnoreCase(String itemCode);
     //Optional<Inventory> findByBrandAndProductDescription(String brandName, String itemDescription);
     void deleteByItemCode(String itemCode);
-}
+
+    // exact lookup behind /inv/v1/search when the search index has no exact candidate
+    Optional<Inventory> findFirstByBrandIdAndItemDescriptionIgnoreCaseOrderByItemCodeAsc(Integer brandId, String itemDescription);
+
+    // Keyset (seek) pages: the cursor is the last row of the previous page, so each page is one indexed range scan
+
+    List<Inventory> findAllByOrderByItemCodeAsc(Limit limit);
+
+    List<Inventory> findByItemCodeGreaterThanOrderByItemCodeAsc(String itemCode, Limit limit);
+
+    List<Inventory> findByQuantityNotNullOrderByQuantityDescItemCodeDesc(Limit limit);
+
+    @Query("SELECT i FROM Inventory i WHERE i.quantity < :quantity OR (i.quantity = :quantity AND i.itemCode < :itemCode) ORDER BY i.quantity DESC, i.itemCode DESC")
+    List<Inventory> findQuantityDescAfter(@Param("quantity") Integer quantity, @Param("itemCode") String itemCode, Limit limit);
+
+    List<Inventory> findByQuantityNotNullOrderByQuantityAscItemCodeAsc(Limit limit);
+
+    @Query("SELECT i FROM Inventory i WHERE i.quantity > :quantity OR (i.quantity = :quantity AND i.itemCode > :itemCode) ORDER BY i.quantity ASC, i.itemCode ASC")
+    List<Inventory> findQuantityAscAfter(@Param("quantity") Integer quantity, @Param("itemCode") String itemCode, Limit limit);
+
+    // Item-code ranges for chunked jobs: codes only to plan the chunks, then one range per chunk
+
+    @Query("SELECT i.itemCode FROM Inventory i ORDER BY i.itemCode ASC")
+    List<String> findItemCodes(Limit limit);
+
+    @Query("SELECT i.itemCode FROM Inventory i WHERE i.itemCode > :itemCode ORDER BY i.itemCode ASC")
+    List<String> findItemCodesAfter(@Param("itemCode") String itemCode, Limit limit);
+
+    // item code and expiry of every lot in stock expiring on or after the given day, a range of idx_inventory_expiry
+    @Query("SELECT i.itemCode, i.expiry FROM Inventory i WHERE i.expiry >= :from AND i.quantity > 0")
+    List<Object[]> findExpiriesFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT i FROM Inventory i WHERE (:afterItemCode IS NULL OR i.itemCode > :afterItemCode) AND (:upToItemCode IS NULL OR i.itemCode <= :upToItemCode) ORDER BY i.itemCode ASC")
+    List<Inventory> findItemCodeRange(@Param("afterItemCode") String afterItemCode, @Param("upToItemCode") String upToItemCode);
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.biotech.lis.Repository;
+
+import java.util.Map;
+
+public interface InventoryRepositoryCustom {
+    // Subtracts every quantity (by item code) from the inventory totals in one UPDATE; returns the
+    // number of items found
+    int deductQuantities(Map<String, Integer> quantities);
+}
@@ -0,0 +1,45 @@
+package com.biotech.lis.Repository;
+
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deductQuantities(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        // UPDATE ... SET quantity = COALESCE(quantity, 0) - CASE WHEN itemCode = <code> THEN <qty> ... END
+        //            WHERE itemCode IN (<codes>)
+        StringBuilder jpql = new StringBuilder("UPDATE Inventory i SET i.quantity = COALESCE(i.quantity, 0) - CASE");
+        int p = 1;
+        for (int i = 0; i < quantities.size(); i++, p += 2) {
+            jpql.append(" WHEN i.itemCode = ?").append(p).append(" THEN ?").append(p + 1);
+        }
+        jpql.append(" ELSE 0 END WHERE i.itemCode IN (");
+        p = 1;
+        for (int i = 0; i < quantities.size(); i++, p += 2) {
+            jpql.append(i > 0 ? ", ?" : "?").append(p);
+        }
+        jpql.append(')');
+
+        entityManager.flush();
+        Query update = entityManager.createQuery(jpql.toString());
+        p = 1;
+        for (Map.Entry<String, Integer> quantity : quantities.entrySet()) {
+            update.setParameter(p++, quantity.getKey());
+            update.setParameter(p++, quantity.getValue());
+        }
+        int updated = update.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -1,14 +1,28 @@
 package com.biotech.lis.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.ItemLocId;
 
-public interface ItemLocRepository extends JpaRepository<ItemLoc, Integer> {
+public interface ItemLocRepository extends JpaRepository<ItemLoc, ItemLocId>, ItemLocRepositoryCustom {
     List<ItemLoc> findByItemCode(String itemCode);
-    void deleteByItemCode(String itemCode);
+    List<ItemLoc> findByItemCodeIn(Collection<String> itemCodes);
+
+    // single bulk DELETE instead of loading every row and removing it one by one; clears the
+    // persistence context so rows re-inserted under the same key don't collide with stale ones.
+    // Native, because the MySQL dialect renders a JPQL bulk delete as "DELETE alias FROM", which
+    // only MySQL accepts.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM itemLoc WHERE itemCode = :itemCode", nativeQuery = true)
+    void deleteByItemCode(@Param("itemCode") String itemCode);
+
 }
 
 
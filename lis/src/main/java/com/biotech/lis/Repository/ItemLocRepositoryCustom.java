@@ -0,0 +1,9 @@
+package com.biotech.lis.Repository;
+
+import java.util.Map;
+
+public interface ItemLocRepositoryCustom {
+    // Subtracts every quantity (by item code, then location id) in one UPDATE. A row is only
+    // changed if it holds enough, so the result is less than the number of pairs when any is short.
+    int deductQuantities(Map<String, Map<Integer, Integer>> quantities);
+}
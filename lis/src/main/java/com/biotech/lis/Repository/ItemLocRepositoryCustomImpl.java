@@ -0,0 +1,54 @@
+package com.biotech.lis.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+public class ItemLocRepositoryCustomImpl implements ItemLocRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deductQuantities(Map<String, Map<Integer, Integer>> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        // UPDATE ... SET quantity = quantity - CASE WHEN <pair> THEN <qty> ... END
+        //            WHERE (<pair> AND quantity >= <qty>) OR ...
+        StringBuilder amounts = new StringBuilder("UPDATE ItemLoc l SET l.quantity = l.quantity - CASE");
+        StringBuilder conditions = new StringBuilder(" ELSE 0 END WHERE ");
+        List<Object> parameters = new ArrayList<>();
+        quantities.forEach((itemCode, byLocation) -> byLocation.forEach((locationId, quantity) -> {
+            int p = parameters.size() + 1;
+            String pair = "l.itemCode = ?" + p + " AND l.locationId = ?" + (p + 1);
+            amounts.append(" WHEN ").append(pair).append(" THEN ?").append(p + 2);
+            if (p > 1) {
+                conditions.append(" OR ");
+            }
+            conditions.append('(').append(pair).append(" AND l.quantity >= ?").append(p + 2).append(')');
+            parameters.add(itemCode);
+            parameters.add(locationId);
+            parameters.add(quantity);
+        }));
+
+        return executeUpdate(amounts.append(conditions).toString(), parameters);
+    }
+
+    // same flush/clear behaviour as the @Modifying(flushAutomatically, clearAutomatically) queries
+    private int executeUpdate(String jpql, List<Object> parameters) {
+        entityManager.flush();
+        Query update = entityManager.createQuery(jpql);
+        for (int i = 0; i < parameters.size(); i++) {
+            update.setParameter(i + 1, parameters.get(i));
+        }
+        int updated = update.executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
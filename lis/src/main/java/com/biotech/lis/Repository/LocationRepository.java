@@ -1,5 +1,7 @@
 package com.biotech.lis.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,5 +12,6 @@ import com.biotech.lis.Entity.Location;
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Integer> {
     Optional<Location> findByLocationName(String locationName);
+    List<Location> findByLocationNameIn(Collection<String> locationNames);
     boolean existsByLocationNameIgnoreCase(String locationName);
 }
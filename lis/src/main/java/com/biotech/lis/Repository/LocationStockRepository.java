@@ -0,0 +1,41 @@
+package com.biotech.lis.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.biotech.lis.Entity.LocationStock;
+import com.biotech.lis.Entity.LocationStockId;
+
+@Repository
+public interface LocationStockRepository extends JpaRepository<LocationStock, LocationStockId> {
+    List<LocationStock> findByItemCode(String itemCode);
+    List<LocationStock> findByItemCodeIn(Collection<String> itemCodes);
+
+    // items ranked by their stock across all locations, largest first
+    @Query("SELECT s.itemCode FROM LocationStock s GROUP BY s.itemCode ORDER BY SUM(s.quantity) DESC, s.itemCode ASC")
+    List<String> findItemCodesByTotalQuantityDesc(Limit limit);
+
+    // Adds delta to one row in a single statement, so concurrent changes to the same slot are not
+    // lost; a deduction that would take the quantity below zero matches no row. Returns the rows changed.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LocationStock s SET s.quantity = COALESCE(s.quantity, 0) + :delta "
+        + "WHERE s.itemCode = :itemCode AND s.locationId = :locationId AND COALESCE(s.quantity, 0) + :delta >= 0")
+    int addQuantity(@Param("itemCode") String itemCode, @Param("locationId") Integer locationId, @Param("delta") int delta);
+
+    // native, because the MySQL dialect renders JPQL bulk deletes as "DELETE alias FROM", which
+    // only MySQL accepts
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM locationStock WHERE itemCode = :itemCode", nativeQuery = true)
+    void deleteByItemCode(@Param("itemCode") String itemCode);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM locationStock WHERE itemCode IN (:itemCodes)", nativeQuery = true)
+    void deleteByItemCodeIn(@Param("itemCodes") Collection<String> itemCodes);
+}
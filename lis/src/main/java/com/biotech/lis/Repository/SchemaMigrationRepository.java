@@ -0,0 +1,10 @@
+package com.biotech.lis.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.biotech.lis.Entity.SchemaMigration;
+
+@Repository
+public interface SchemaMigrationRepository extends JpaRepository<SchemaMigration, String> {
+}
@@ -21,9 +21,9 @@ public interface StockLocatorRepository extends JpaRepository<StockLocator, Stri
 
     List<StockLocator> findByBrandIgnoreCase(String brand);
 
-    List<StockLocator> findByProductDescriptionContainingIgnoreCase(String query);
-
-    List<StockLocator> findByBrandIgnoreCaseAndProductDescriptionContainingIgnoreCase(String brand, String query);
+    // the fixed per-location columns stock lived in before locationStock, read once to migrate them
+    @Query(value = "SELECT itemCode, lazcanoRef1, lazcanoRef2, gandiaColdStorage, gandiaRef1, gandiaRef2, limbaga, cebu FROM stockLocator", nativeQuery = true)
+    List<Object[]> findLegacyLocationColumns();
 
     @Query("SELECT DISTINCT s.productDescription FROM StockLocator s WHERE (:brand IS NULL OR LOWER(s.brand) = LOWER(:brand)) ORDER BY s.productDescription ASC")
     List<String> findDistinctProductDescriptions(@Param("brand") String brand);
@@ -0,0 +1,20 @@
+package com.biotech.lis.Repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.biotech.lis.Entity.StockLocatorSyncChunk;
+
+@Repository
+public interface StockLocatorSyncChunkRepository extends JpaRepository<StockLocatorSyncChunk, Long> {
+    List<StockLocatorSyncChunk> findByJobIdAndStatusNotOrderByChunkIndexAsc(Long jobId, String status);
+    long countByJobIdAndStatus(Long jobId, String status);
+    long countByJobIdAndStatusNot(Long jobId, String status);
+
+    @Query("SELECT COALESCE(SUM(c.itemsSynced), 0) FROM StockLocatorSyncChunk c WHERE c.jobId = :jobId AND c.status = 'DONE'")
+    long sumItemsSynced(@Param("jobId") Long jobId);
+}
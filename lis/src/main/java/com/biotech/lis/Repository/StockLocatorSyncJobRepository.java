@@ -0,0 +1,15 @@
+package com.biotech.lis.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.biotech.lis.Entity.StockLocatorSyncJob;
+
+@Repository
+public interface StockLocatorSyncJobRepository extends JpaRepository<StockLocatorSyncJob, Long> {
+    List<StockLocatorSyncJob> findByStatus(String status);
+    Optional<StockLocatorSyncJob> findFirstByOrderByJobIdDesc();
+}
@@ -1,16 +1,21 @@
 package com.biotech.lis.Repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.biotech.lis.Entity.TransactionEntry;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionEntryRepository extends JpaRepository<TransactionEntry, String> {
@@ -46,4 +51,25 @@ public interface TransactionEntryRepository extends JpaRepository<TransactionEnt
     void deleteByItemCode(String itemCode);
 
     Optional<TransactionEntry> findByItemCode(String itemCode);
-}
\ No newline at end of file
+
+    // Entries from :from up to, not including, the (:beforeDate, :beforeRef) position, newest first.
+    // Constructed rather than loaded, so streaming them does not fill the persistence context.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.biotech.lis.Entity.TransactionEntry(t.drSIReferenceNum, t.transactionDate, t.brand, " +
+           "t.productDescription, t.lotSerialNumber, t.expiryDate, t.cost, t.quantity, t.stockLocation, t.itemCode, " +
+           "t.addedBy, t.dateTimeAdded) FROM TransactionEntry t " +
+           "WHERE t.transactionDate >= :from " +
+           "AND (t.transactionDate < :beforeDate OR (t.transactionDate = :beforeDate AND t.drSIReferenceNum < :beforeRef)) " +
+           "ORDER BY t.transactionDate DESC, t.drSIReferenceNum DESC")
+    Stream<TransactionEntry> streamEntries(@Param("from") LocalDate from, @Param("beforeDate") LocalDate beforeDate,
+                                           @Param("beforeRef") String beforeRef);
+
+    // Entries without a transaction date, after :beforeRef when it is set, by reference descending
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.biotech.lis.Entity.TransactionEntry(t.drSIReferenceNum, t.transactionDate, t.brand, " +
+           "t.productDescription, t.lotSerialNumber, t.expiryDate, t.cost, t.quantity, t.stockLocation, t.itemCode, " +
+           "t.addedBy, t.dateTimeAdded) FROM TransactionEntry t " +
+           "WHERE t.transactionDate IS NULL AND (:beforeRef IS NULL OR t.drSIReferenceNum < :beforeRef) " +
+           "ORDER BY t.drSIReferenceNum DESC")
+    Stream<TransactionEntry> streamUndatedEntries(@Param("beforeRef") String beforeRef);
+}
@@ -1,19 +1,33 @@
 package com.biotech.lis.Service;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.biotech.lis.DTO.CacheStatsDTO;
 import com.biotech.lis.Entity.Brand;
 import com.biotech.lis.Repository.BrandRepository;
 
+import jakarta.persistence.EntityNotFoundException;
+
 @Service
 public class BrandService {
     @Autowired
     private BrandRepository brandRepository;
 
+    @Autowired
+    private ItemCodeAllocator itemCodeAllocator;
+
+    // brands change a few times a month, so by-id lookups are served from memory. The cache
+    // holds immutable snapshots and every caller gets its own Brand built from one.
+    private final ReferenceCache<Integer, CachedBrand> brandCache =
+            new ReferenceCache<>("brands", 1000, Duration.ofMinutes(30));
+
     public Brand addBrand(Brand brand) {
         String name = brand.getBrandName().trim();
 
@@ -28,16 +42,31 @@ public class BrandService {
     }
 
     public String generateItemCode(Brand brand) {
-        brand.setLatestSequence(brand.getLatestSequence() + 1);
-        brandRepository.save(brand);
+        return itemCodeAllocator.nextItemCode(brand);
+    }
 
-        String itemCode = brand.getAbbreviation() + String.format("%04d", brand.getLatestSequence());
+    public Brand getBrandById(Integer id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Brand ID cannot be null");
+        }
+        CachedBrand brand = brandCache.get(id, key -> brandRepository.findById(key).map(CachedBrand::of).orElse(null));
+        if (brand == null) {
+            throw new EntityNotFoundException("Brand not found with id: " + id);
+        }
+        return brand.toBrand();
+    }
 
-        return itemCode;
+    // one read of the brand table for bulk jobs that need every brand name
+    public Map<Integer, String> getBrandNamesById() {
+        Map<Integer, String> namesById = new HashMap<>();
+        for (Brand brand : brandRepository.findAll()) {
+            namesById.put(brand.getBrandId(), brand.getBrandName());
+        }
+        return namesById;
     }
 
-    public Brand getBrandById(Integer id) {
-        return brandRepository.getReferenceById(id);
+    public CacheStatsDTO getCacheStats() {
+        return brandCache.stats();
     }
 
     public List<Brand> getBrands() {
@@ -64,11 +93,28 @@ public class BrandService {
         }
 
         Brand savedBrand = brandRepository.save(brand);
-        
+        evict(savedBrand.getBrandId());
+
         return savedBrand;
     }
 
     public void deleteBrand(Integer id) {
         brandRepository.deleteById(id);
+        evict(id);
+    }
+
+    // once the write commits, so a reader can't cache the old row again in between
+    private void evict(Integer id) {
+        SearchIndex.afterCommit(() -> brandCache.invalidate(id));
+    }
+
+    private record CachedBrand(Integer brandId, String brandName, String abbreviation, Integer latestSequence) {
+        static CachedBrand of(Brand brand) {
+            return new CachedBrand(brand.getBrandId(), brand.getBrandName(), brand.getAbbreviation(), brand.getLatestSequence());
+        }
+
+        Brand toBrand() {
+            return new Brand(brandId, brandName, abbreviation, latestSequence);
+        }
     }
 }
@@ -1,7 +1,8 @@
 package com.biotech.lis.Service;
 
+import com.biotech.lis.DTO.PickDTO;
+import com.biotech.lis.DTO.PickListDTO;
 import com.biotech.lis.Entity.CustomerTransaction;
-import com.biotech.lis.Entity.Inventory;
 import com.biotech.lis.Entity.ItemLoc;
 import com.biotech.lis.Entity.Location;
 import com.biotech.lis.Entity.Sold;
@@ -13,8 +14,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class CustomerTransactionService {
@@ -23,71 +30,162 @@ public class CustomerTransactionService {
     private final ItemLocRepository itemLocRepository;
     private final InventoryRepository inventoryRepository;
     private final LocationRepository locationRepository;
+    private final DailySalesRollupService rollupService;
+    private final FefoAllocator fefoAllocator;
 
     @Autowired
     public CustomerTransactionService(CustomerTransactionRepository repository,
                                       ItemLocRepository itemLocRepository,
                                       InventoryRepository inventoryRepository,
-                                      LocationRepository locationRepository) {
+                                      LocationRepository locationRepository,
+                                      DailySalesRollupService rollupService,
+                                      FefoAllocator fefoAllocator) {
         this.repository = repository;
         this.itemLocRepository = itemLocRepository;
         this.inventoryRepository = inventoryRepository;
         this.locationRepository = locationRepository;
+        this.rollupService = rollupService;
+        this.fefoAllocator = fefoAllocator;
     }
 
+    // lines without a location are recorded as sold without deducting any stock
     @Transactional
     public CustomerTransaction createTransaction(CustomerTransaction transaction) {
+        return createTransaction(transaction, false);
+    }
+
+    // With fefo set, lines without a location are filled from the lots that expire first instead,
+    // and the sale fails when the unexpired stock cannot cover them.
+    @Transactional
+    public CustomerTransaction createTransaction(CustomerTransaction transaction, boolean fefo) {
         // Check for duplicate invoice reference
         if (repository.existsByInvoiceReference(transaction.getInvoiceReference())) {
             throw new IllegalArgumentException("Invoice reference already exists: " + transaction.getInvoiceReference());
         }
 
-        // Deduct stock for each item
+        // Deduct stock for all items at once
         if (transaction.getItems() != null) {
-            for (Sold item : transaction.getItems()) {
-                if (item.getLocation() != null && !item.getLocation().isEmpty()) {
-                    deductStock(item);
-                }
+            if (fefo) {
+                transaction.setItems(allocateUnlocated(transaction.getItems()));
+            }
+            deductStock(transaction.getItems());
+        }
+        CustomerTransaction saved = repository.save(transaction);
+        rollupService.recordTransaction(saved);
+        return saved;
+    }
+
+    public PickListDTO getPickList(String itemCode, int quantity) {
+        return fefoAllocator.allocate(itemCode, quantity);
+    }
+
+    // A line sold without a location is filled first-expired-first-out: it is replaced by one line
+    // per lot and location picked, so the invoice records where the stock was taken from.
+    private List<Sold> allocateUnlocated(List<Sold> items) {
+        List<Sold> lines = new ArrayList<>(items.size());
+        for (Sold item : items) {
+            boolean located = item.getLocation() != null && !item.getLocation().isEmpty();
+            if (located || item.getItemId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                lines.add(item);
+                continue;
+            }
+
+            PickListDTO pickList = fefoAllocator.allocate(item.getItemId(), item.getQuantity());
+            if (pickList.getShortfall() > 0) {
+                throw new IllegalArgumentException("Insufficient stock for item " + item.getItemDescription()
+                        + ": " + pickList.getShortfall() + " short across all unexpired lots");
+            }
+            for (PickDTO pick : pickList.getPicks()) {
+                Sold line = new Sold();
+                line.setItemId(pick.getItemCode());
+                line.setLotNumber(pick.getLotNum() != null ? pick.getLotNum().toString() : item.getLotNumber());
+                line.setQuantity(pick.getQuantity());
+                line.setUnitRetailPrice(item.getUnitRetailPrice());
+                line.setBrandName(item.getBrandName());
+                line.setItemDescription(item.getItemDescription());
+                line.setLocation(pick.getLocationName());
+                lines.add(line);
             }
         }
-        return repository.save(transaction);
+        return lines;
     }
 
-    private void deductStock(Sold item) {
-        // Find Location ID by Name
-        Location location = locationRepository.findByLocationName(item.getLocation())
-                .orElseThrow(() -> new IllegalArgumentException("Location not found: " + item.getLocation()));
-
-      
-        
-        List<ItemLoc> itemLocs = itemLocRepository.findByItemCode(item.getItemId());
-        ItemLoc targetLoc = itemLocs.stream()
-                .filter(il -> il.getLocationId().equals(location.getLocationId()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Item " + item.getItemId() + " not found at location " + item.getLocation()));
-
-        // Deduct Quantity
-        if (targetLoc.getQuantity() < item.getQuantity()) {
-            throw new IllegalArgumentException("Insufficient stock for item " + item.getItemDescription() + " at " + item.getLocation());
+    // Deducts the stock of every line of an invoice together: one query for the locations, one for
+    // the item-locations, then one conditional UPDATE for all of them. Lines of the same item and
+    // location are added up first. If any line is short, nothing is deducted and the invoice fails.
+    private void deductStock(List<Sold> items) {
+        List<Sold> located = items.stream()
+                .filter(item -> item.getLocation() != null && !item.getLocation().isEmpty())
+                .toList();
+        if (located.isEmpty()) {
+            return;
+        }
+
+        // Find Location IDs by Name
+        Map<String, Location> locations = new HashMap<>();
+        Set<String> names = located.stream().map(Sold::getLocation).collect(Collectors.toSet());
+        for (Location location : locationRepository.findByLocationNameIn(names)) {
+            locations.putIfAbsent(location.getLocationName().toLowerCase(), location);
         }
-        targetLoc.setQuantity(targetLoc.getQuantity() - item.getQuantity());
-        itemLocRepository.save(targetLoc);
-
-        // Update Inventory Total Quantity
-        Inventory inventory = inventoryRepository.findById(item.getItemId())
-                .orElseThrow(() -> new IllegalArgumentException("Inventory item not found: " + item.getItemId()));
-        
-        // Ensure inventory quantity is not null
-        int currentTotal = inventory.getQuantity() != null ? inventory.getQuantity() : 0;
-        inventory.setQuantity(currentTotal - item.getQuantity());
-        inventoryRepository.save(inventory);
+
+        // item code -> location id -> quantity, and item code -> quantity for the inventory totals
+        Map<String, Map<Integer, Integer>> quantities = new LinkedHashMap<>();
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        for (Sold item : located) {
+            Location location = locations.get(item.getLocation().toLowerCase());
+            if (location == null) {
+                throw new IllegalArgumentException("Location not found: " + item.getLocation());
+            }
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            quantities.computeIfAbsent(item.getItemId(), itemCode -> new LinkedHashMap<>())
+                    .merge(location.getLocationId(), quantity, Integer::sum);
+            totals.merge(item.getItemId(), quantity, Integer::sum);
+        }
+
+        // Check every line against the stock as read, so a bad invoice is refused before anything is written
+        // item code -> location id -> item-location, as several items of one invoice can share a location
+        Map<String, Map<Integer, ItemLoc>> itemLocs = itemLocRepository.findByItemCodeIn(quantities.keySet()).stream()
+                .collect(Collectors.groupingBy(ItemLoc::getItemCode,
+                        Collectors.toMap(ItemLoc::getLocationId, il -> il, (first, second) -> first)));
+        for (Sold item : located) {
+            Location location = locations.get(item.getLocation().toLowerCase());
+            ItemLoc itemLoc = itemLocs.getOrDefault(item.getItemId(), Map.of()).get(location.getLocationId());
+            if (itemLoc == null) {
+                throw new IllegalArgumentException("Item " + item.getItemId() + " not found at location " + item.getLocation());
+            }
+            int needed = quantities.get(item.getItemId()).get(location.getLocationId());
+            if (itemLoc.getQuantity() == null || itemLoc.getQuantity() < needed) {
+                throw new IllegalArgumentException("Insufficient stock for item " + item.getItemDescription() + " at " + item.getLocation());
+            }
+        }
+
+        // Deduct Quantities; the stock check is part of the UPDATE, so two sales can't both pass it.
+        // A row another sale emptied since the read above is left alone, and the rollback undoes the rest.
+        int pairs = quantities.values().stream().mapToInt(Map::size).sum();
+        if (itemLocRepository.deductQuantities(quantities) < pairs) {
+            throw new IllegalArgumentException("Insufficient stock: another sale took the stock of one or more items first");
+        }
+
+        // Update Inventory Total Quantities
+        if (inventoryRepository.deductQuantities(totals) < totals.size()) {
+            throw new IllegalArgumentException("Inventory item not found among: " + totals.keySet());
+        }
+        fefoAllocator.deduct(quantities);
     }
 
     public List<CustomerTransaction> getAllTransactions() {
-        return repository.findAll();
+        return repository.findAllWithItems();
     }
 
+    @Transactional
     public void deleteTransaction(Long id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(transaction -> {
+            rollupService.removeTransaction(transaction);
+            repository.delete(transaction);
+        });
+    }
+
+    public int rebuildSalesRollup() {
+        return rollupService.rebuild();
     }
 }
@@ -0,0 +1,120 @@
+package com.biotech.lis.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.biotech.lis.DTO.DashboardStatsDTO;
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.DailySalesRollup;
+import com.biotech.lis.Entity.Sold;
+import com.biotech.lis.Repository.CustomerTransactionRepository;
+import com.biotech.lis.Repository.DailySalesRollupRepository;
+
+// Keeps daily_sales_rollup, one row of totals per day of sales, in step with customer_transaction,
+// so dashboard stats for any period sum at most a year of rows instead of the whole sales history.
+@Service
+public class DailySalesRollupService {
+
+    private static final Logger logger = Logger.getLogger(DailySalesRollupService.class.getName());
+
+    private final DailySalesRollupRepository rollupRepository;
+    private final CustomerTransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DailySalesRollupService(DailySalesRollupRepository rollupRepository,
+                                   CustomerTransactionRepository transactionRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public DashboardStatsDTO getStats(LocalDate startDate, LocalDate endDate) {
+        return rollupRepository.sumBetween(startDate, endDate);
+    }
+
+    // Both run inside the caller's transaction, so the rollup commits or rolls back with the sale
+    public void recordTransaction(CustomerTransaction transaction) {
+        LocalDate day = salesDate(transaction);
+        if (day == null) return;
+
+        ensureDay(day);
+        rollupRepository.addToDay(day, 1, retailValue(transaction), quantity(transaction));
+    }
+
+    public void removeTransaction(CustomerTransaction transaction) {
+        LocalDate day = salesDate(transaction);
+        if (day == null) return;
+
+        // a day without a row has nothing counted to take back
+        rollupRepository.addToDay(day, -1, -retailValue(transaction), -quantity(transaction));
+    }
+
+    // Recomputes every day from customer_transaction and sold_items in one transaction
+    public int rebuild() {
+        return transactionTemplate.execute(status -> {
+            rollupRepository.deleteAllDays();
+
+            Map<LocalDate, DailySalesRollup> days = new TreeMap<>();
+            for (Object[] row : transactionRepository.sumTransactionsByDay()) {
+                LocalDate day = (LocalDate) row[0];
+                days.put(day, new DailySalesRollup(day, ((Number) row[1]).longValue(),
+                    row[2] != null ? ((Number) row[2]).doubleValue() : 0.0, 0L));
+            }
+            for (Object[] row : transactionRepository.sumQuantitiesByDay()) {
+                DailySalesRollup rollup = days.get((LocalDate) row[0]);
+                if (rollup != null && row[1] != null) {
+                    rollup.setTotalQuantity(((Number) row[1]).longValue());
+                }
+            }
+
+            rollupRepository.saveAll(days.values());
+            return days.size();
+        });
+    }
+
+    // Backfills the rollup the first time the application starts with sales but no rollup rows
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && transactionRepository.count() > 0) {
+            int days = rebuild();
+            logger.info("Backfilled daily sales rollup for " + days + " days");
+        }
+    }
+
+    // The first sale of a day creates its row with an upsert in the sale's own transaction, so the
+    // update then always finds a row and a sale never holds a second connection
+    private void ensureDay(LocalDate day) {
+        if (rollupRepository.existsById(day)) return;
+        rollupRepository.insertDayIfAbsent(day);
+    }
+
+    private LocalDate salesDate(CustomerTransaction transaction) {
+        // sales without a date are not counted by the dashboard
+        return transaction.getTransactionDate() != null ? transaction.getTransactionDate().toLocalDate() : null;
+    }
+
+    private double retailValue(CustomerTransaction transaction) {
+        return transaction.getTotalRetailPrice() != null ? transaction.getTotalRetailPrice() : 0.0;
+    }
+
+    private long quantity(CustomerTransaction transaction) {
+        long quantity = 0;
+        if (transaction.getItems() != null) {
+            for (Sold item : transaction.getItems()) {
+                quantity += item.getQuantity() != null ? item.getQuantity() : 0;
+            }
+        }
+        return quantity;
+    }
+}
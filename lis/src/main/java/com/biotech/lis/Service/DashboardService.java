@@ -4,19 +4,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.biotech.lis.DTO.DashboardStatsDTO;
-import com.biotech.lis.Repository.CustomerTransactionRepository;
-import com.biotech.lis.Entity.CustomerTransaction;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Service
 public class DashboardService {
     
     @Autowired
-    private CustomerTransactionRepository transactionRepository;
+    private DailySalesRollupService rollupService;
     
     public DashboardStatsDTO getDashboardStats(String period, String date) {
         LocalDate startDate;
@@ -66,39 +63,11 @@ public class DashboardService {
                 throw new IllegalArgumentException("Invalid period. Use 'daily', 'monthly', or 'yearly'");
         }
         
-        // Get all data and filter manually (simpler approach)
-        List<CustomerTransaction> allTransactions = transactionRepository.findAll();
-        
-        // Filter transactions in date range
-        List<CustomerTransaction> filteredTransactions = allTransactions.stream()
-            .filter(t -> t.getTransactionDate() != null)
-            .filter(t -> {
-                LocalDate txDate = t.getTransactionDate().toLocalDate();
-                return !txDate.isBefore(startDate) && !txDate.isAfter(endDate);
-            })
-            .toList();
-
-        // Count transactions
-        int totalTransactions = filteredTransactions.size();
-            
-        // Sum quantities in date range (sum of all items in all filtered transactions)
-        int totalQuantityTransacted = filteredTransactions.stream()
-            .flatMap(t -> t.getItems().stream())
-            .mapToInt(item -> item.getQuantity() != null ? item.getQuantity() : 0)
-            .sum();
-            
-        // Sum order values in date range
-        double totalTransactionValue = filteredTransactions.stream()
-            .mapToDouble(t -> t.getTotalRetailPrice() != null ? t.getTotalRetailPrice() : 0.0)
-            .sum();
-        
-        return new DashboardStatsDTO(
-            totalTransactions,
-            totalTransactionValue,
-            totalQuantityTransacted,
-            period,
-            dateRange
-        );
+        // at most 366 daily rows, summed by the database
+        DashboardStatsDTO stats = rollupService.getStats(startDate, endDate);
+        stats.setPeriod(period);
+        stats.setDateRange(dateRange);
+        return stats;
     }
     
     // Quick methods for current period stats
@@ -0,0 +1,113 @@
+package com.biotech.lis.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Item codes bucketed by the day they expire. The lots expiring in a date range are the buckets
+// of that range, so a lookup costs O(log d) to find the first day plus the number of lots
+// returned. Items without an expiry are not held.
+//
+// Like SearchIndex, changes made inside a transaction are applied once it commits. Every applied
+// change bumps the version, which lets callers tell whether an answer computed earlier still holds.
+public class ExpiryIndex {
+
+    private final NavigableMap<LocalDate, Set<String>> days = new TreeMap<>();
+    private final Map<String, LocalDate> expiries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long version;
+
+    // Replaces the whole index with the given item code -> expiry pairs
+    public void load(Map<String, LocalDate> items) {
+        lock.writeLock().lock();
+        try {
+            days.clear();
+            expiries.clear();
+            items.forEach(this::add);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Sets or clears (null expiry) the expiry of an item
+    public void put(String itemCode, LocalDate expiry) {
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unlist(itemCode);
+                add(itemCode, expiry);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(String itemCode) {
+        put(itemCode, null);
+    }
+
+    // Item codes expiring from first to last, both inclusive, soonest first
+    public List<String> expiringBetween(LocalDate first, LocalDate last) {
+        List<String> itemCodes = new ArrayList<>();
+        if (last.isBefore(first)) {
+            return itemCodes;
+        }
+        lock.readLock().lock();
+        try {
+            days.subMap(first, true, last, true).values().forEach(itemCodes::addAll);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return itemCodes;
+    }
+
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return expiries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void add(String itemCode, LocalDate expiry) {
+        if (itemCode == null || expiry == null) {
+            return;
+        }
+        expiries.put(itemCode, expiry);
+        days.computeIfAbsent(expiry, day -> new TreeSet<>()).add(itemCode);
+    }
+
+    // caller holds the write lock
+    private void unlist(String itemCode) {
+        LocalDate previous = expiries.remove(itemCode);
+        if (previous == null) {
+            return;
+        }
+        Set<String> itemCodes = days.get(previous);
+        itemCodes.remove(itemCode);
+        if (itemCodes.isEmpty()) {
+            days.remove(previous);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.biotech.lis.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.biotech.lis.DTO.PickDTO;
+import com.biotech.lis.DTO.PickListDTO;
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Repository.InventoryRepository;
+import com.biotech.lis.Repository.ItemLocRepository;
+
+// First-expired-first-out picking. Every inventory item code is one lot with its own lot number
+// and expiry; lots of the same brand and description are the same product and can stand in for
+// each other. Each product keeps the stock of its lots per location in a set ordered by expiry,
+// so a pick list is a walk from the front of that set without reading the database. Lots past
+// their expiry are never picked, lots without an expiry go last.
+//
+// The index is loaded at startup and follows this node's inventory, sales and transaction entry
+// writes once they commit. Writes made on other nodes are picked up by a periodic reload, and a
+// lot asked for before it is indexed is read on the spot. Picks are advice: the sale that uses
+// them still checks the stock as it deducts it.
+@Service
+public class FefoAllocator {
+
+    private static final Logger logger = Logger.getLogger(FefoAllocator.class.getName());
+
+    private static final Comparator<Stock> FIRST_EXPIRED_FIRST = Comparator
+        .comparing((Stock stock) -> stock.lot.expiry, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(stock -> stock.lot.lotNum, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(stock -> stock.lot.itemCode)
+        .thenComparingInt(stock -> stock.locationId);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemLocRepository itemLocRepository;
+
+    @Autowired
+    private LocationService locationService;
+
+    private final Map<String, Lot> lots = new HashMap<>();
+    private final Map<String, TreeSet<Stock>> products = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.fefo.reload-ms:300000}", initialDelayString = "${inventory.fefo.reload-ms:300000}")
+    public void loadIndex() {
+        Map<String, List<ItemLoc>> locationsByItem = itemLocRepository.findAll().stream()
+            .filter(loc -> loc.getItemCode() != null)
+            .collect(Collectors.groupingBy(ItemLoc::getItemCode));
+        List<Inventory> inventories = inventoryRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            lots.clear();
+            products.clear();
+            for (Inventory inventory : inventories) {
+                index(new Lot(inventory, locationsByItem.getOrDefault(inventory.getItemCode(), List.of())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed " + inventories.size() + " lots for FEFO picking");
+    }
+
+    // Picks quantity of the product itemCode belongs to, taking the lots that expire first.
+    // Whatever the unexpired stock cannot cover is reported as the shortfall.
+    public PickListDTO allocate(String itemCode, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        indexIfMissing(itemCode);
+        Map<Integer, String> locationNames = locationService.getLocationNamesById();
+        LocalDate today = LocalDate.now();
+
+        List<PickDTO> picks = new ArrayList<>();
+        int remaining = quantity;
+        lock.readLock().lock();
+        try {
+            Lot requested = lots.get(itemCode);
+            if (requested == null) {
+                throw new IllegalArgumentException("Item not found: " + itemCode);
+            }
+            for (Stock stock : products.get(requested.product)) {
+                if (remaining == 0) break;
+                if (stock.quantity <= 0 || (stock.lot.expiry != null && stock.lot.expiry.isBefore(today))) continue;
+
+                int taken = Math.min(remaining, stock.quantity);
+                picks.add(new PickDTO(stock.lot.itemCode, stock.lot.lotNum, stock.lot.expiry,
+                    stock.locationId, locationNames.get(stock.locationId), taken));
+                remaining -= taken;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new PickListDTO(quantity, remaining, picks);
+    }
+
+    // the item as saved with its locations, replacing whatever was indexed for it
+    public void putItem(Inventory inventory, List<ItemLoc> locations) {
+        Lot lot = new Lot(inventory, locations);
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(lot.itemCode);
+                index(lot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeItem(String itemCode) {
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(itemCode);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // item code -> location id -> quantity taken by a sale
+    public void deduct(Map<String, Map<Integer, Integer>> quantities) {
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                quantities.forEach((itemCode, byLocation) -> {
+                    Lot lot = lots.get(itemCode);
+                    if (lot == null) return;
+                    byLocation.forEach((locationId, quantity) -> {
+                        Stock stock = lot.stocks.get(locationId);
+                        if (stock != null) {
+                            stock.quantity = Math.max(0, stock.quantity - quantity);
+                        }
+                    });
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // reads a lot this node has not indexed yet, such as one added on another node since the last reload
+    private void indexIfMissing(String itemCode) {
+        lock.readLock().lock();
+        try {
+            if (lots.containsKey(itemCode)) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        inventoryRepository.findById(itemCode).ifPresent(inventory -> {
+            Lot lot = new Lot(inventory, itemLocRepository.findByItemCode(itemCode));
+            lock.writeLock().lock();
+            try {
+                if (!lots.containsKey(itemCode)) {
+                    index(lot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // caller holds the write lock
+    private void index(Lot lot) {
+        lots.put(lot.itemCode, lot);
+        TreeSet<Stock> stocks = products.computeIfAbsent(lot.product, p -> new TreeSet<>(FIRST_EXPIRED_FIRST));
+        stocks.addAll(lot.stocks.values());
+    }
+
+    // caller holds the write lock
+    private void unindex(String itemCode) {
+        Lot previous = lots.remove(itemCode);
+        if (previous == null) {
+            return;
+        }
+        TreeSet<Stock> stocks = products.get(previous.product);
+        stocks.removeAll(previous.stocks.values());
+        if (stocks.isEmpty()) {
+            products.remove(previous.product);
+        }
+    }
+
+    private static final class Lot {
+        private final String itemCode;
+        private final String product;
+        private final Integer lotNum;
+        private final LocalDate expiry;
+        private final Map<Integer, Stock> stocks = new HashMap<>();
+
+        Lot(Inventory inventory, List<ItemLoc> locations) {
+            this.itemCode = inventory.getItemCode();
+            // an item without a description has no other lots to share with
+            this.product = inventory.getItemDescription() != null
+                ? inventory.getBrandId() + "|" + SearchIndex.normalize(inventory.getItemDescription())
+                : "item|" + itemCode;
+            this.lotNum = inventory.getLotNum();
+            this.expiry = inventory.getExpiry();
+            for (ItemLoc loc : locations) {
+                if (loc.getLocationId() != null && loc.getQuantity() != null) {
+                    stocks.computeIfAbsent(loc.getLocationId(), id -> new Stock(this, id)).quantity += loc.getQuantity();
+                }
+            }
+        }
+    }
+
+    // the stock of one lot at one location; only the quantity changes while it is indexed
+    private static final class Stock {
+        private final Lot lot;
+        private final int locationId;
+        private int quantity;
+
+        Stock(Lot lot, int locationId) {
+            this.lot = lot;
+            this.locationId = locationId;
+        }
+    }
+}
@@ -1,32 +1,50 @@
 package com.biotech.lis.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.biotech.lis.DTO.InventoryPageDTO;
 import com.biotech.lis.Entity.Brand;
 import com.biotech.lis.Entity.Inventory;
 import com.biotech.lis.Entity.InventoryPayload;
 import com.biotech.lis.Entity.ItemLoc;
 import com.biotech.lis.Entity.TransactionEntry;
 import com.biotech.lis.Entity.User;
-import com.biotech.lis.Entity.Location;
 import com.biotech.lis.Repository.InventoryRepository;
 import com.biotech.lis.Repository.ItemLocRepository;
-import com.biotech.lis.Repository.LocationRepository;
 import com.biotech.lis.Repository.PurchaseOrderRepository;
 import com.biotech.lis.Repository.TransactionEntryRepository;
+import com.biotech.lis.config.AuthenticatedUser;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class InventoryService {
+    private static final Logger logger = Logger.getLogger(InventoryService.class.getName());
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_EXPIRY_DAYS = 3650;
+    private static final int SEARCH_CANDIDATES = 5;
+
     @Autowired
     InventoryRepository inventoryRepository;
 
@@ -52,20 +70,29 @@ public class InventoryService {
     private ItemLocRepository itemLocRepository;
 
     @Autowired
-    private LocationRepository locationRepository;
+    private FefoAllocator fefoAllocator;
+
+    // descriptions of every item grouped by brand id, kept in step with the writes below
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    // unexpired items by expiry day, and the near-expiry list of the day precomputed from it
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+    private volatile ExpiryAlerts dailyExpiryAlerts;
+
+    @Value("${inventory.expiry-alerts.days:30}")
+    private int expiryAlertDays;
 
     public List<InventoryPayload> getInventoriesWithLocations() {
         List<Inventory> inventories = inventoryRepository.findAll();
-    
-        return inventories.stream()
-                .map(inv -> new InventoryPayload(inv, itemLocRepository.findByItemCode(inv.getItemCode())))
-                .collect(Collectors.toList());
+        // one query for every location row instead of one per item
+        Map<String, List<ItemLoc>> locsByItem = groupByItemCode(itemLocRepository.findAll());
+
+        return toPayloads(inventories, locsByItem);
     }
 
     @Transactional
     public Inventory addInventory(InventoryPayload payload) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User user = userService.getUserById(Long.parseLong(auth.getName()));
+        User user = AuthenticatedUser.current(userService::getSignedInUser);
         LocalDateTime cDateTime = LocalDateTime.now();
 
         //not from front end
@@ -74,19 +101,21 @@ public class InventoryService {
         inventory.setDateTimeAdded(cDateTime);
 
         Inventory savedInv = inventoryRepository.save(inventory);
+        index(savedInv);
+        indexExpiry(savedInv);
 
-        //saving locations
-        for (ItemLoc loc: payload.getLocations()){
+        //saving locations, written as one JDBC batch on flush
+        List<ItemLoc> locations = payload.getLocations();
+        for (ItemLoc loc: locations){
             loc.setItemCode(savedInv.getItemCode()); //save itemcode to loc
-            itemLocRepository.save(loc);
         }
-        
-        Inventory finalSavedInv = inventoryRepository.save(savedInv);
-        
+        itemLocRepository.saveAll(locations);
+        fefoAllocator.putItem(savedInv, locations);
+
         // Sync to Stock Locator
-        syncToStockLocator(finalSavedInv, payload.getLocations());
-        
-        return finalSavedInv;
+        syncToStockLocator(savedInv, Collections.emptyList(), locations);
+
+        return savedInv;
     }
 
     public Inventory getInventoryByCode(String itemCode) {
@@ -97,29 +126,120 @@ public class InventoryService {
         return inventoryRepository.findAll();
     }
 
-public List<InventoryPayload> getHighestStock() {
-        List<Inventory> inventories = inventoryRepository.findAll();
-        inventories.sort((o1, o2) -> o2.getQuantity().compareTo(o1.getQuantity()));
-        
-        return inventories.stream()
-            .map(inv -> new InventoryPayload(inv, itemLocRepository.findByItemCode(inv.getItemCode())))
-            .collect(Collectors.toList());
+    public List<InventoryPayload> getHighestStock() {
+        List<Inventory> inventories = inventoryRepository.findAll(
+                Sort.by(Sort.Order.desc("quantity"), Sort.Order.desc("itemCode")));
+
+        return withLocations(inventories);
     }
 
     public List<InventoryPayload> getLowestStock() {
-        List<Inventory> inventories = inventoryRepository.findAll();
-        inventories.sort((o1, o2) -> o1.getQuantity().compareTo(o2.getQuantity()));
+        List<Inventory> inventories = inventoryRepository.findAll(
+                Sort.by(Sort.Order.asc("quantity"), Sort.Order.asc("itemCode")));
 
-        return inventories.stream()
-            .map(inv -> new InventoryPayload(inv, itemLocRepository.findByItemCode(inv.getItemCode())))
-            .collect(Collectors.toList());
+        return withLocations(inventories);
+    }
+
+    // Top-K variants: the database returns only the K rows we show
+
+    public List<InventoryPayload> getHighestStock(int limit) {
+        Limit top = Limit.of(validatePageSize(limit));
+        return withLocations(inventoryRepository.findByQuantityNotNullOrderByQuantityDescItemCodeDesc(top));
+    }
+
+    public List<InventoryPayload> getLowestStock(int limit) {
+        Limit bottom = Limit.of(validatePageSize(limit));
+        return withLocations(inventoryRepository.findByQuantityNotNullOrderByQuantityAscItemCodeAsc(bottom));
+    }
+
+    // PAGED LISTINGS
+    // Every page is fetched with one extra row so we know whether to hand out a next cursor.
+
+    public InventoryPageDTO getInventoryPage(int size, String cursor) {
+        int pageSize = validatePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Inventory> rows = cursor == null || cursor.isBlank()
+                ? inventoryRepository.findAllByOrderByItemCodeAsc(limit)
+                : inventoryRepository.findByItemCodeGreaterThanOrderByItemCodeAsc(decodeCursor(cursor), limit);
+
+        return toPage(rows, pageSize, last -> encodeCursor(last.getItemCode()));
+    }
+
+    public InventoryPageDTO getHighestStockPage(int size, String cursor) {
+        int pageSize = validatePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Inventory> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = inventoryRepository.findByQuantityNotNullOrderByQuantityDescItemCodeDesc(limit);
+        } else {
+            String[] key = decodeQuantityCursor(cursor);
+            rows = inventoryRepository.findQuantityDescAfter(Integer.valueOf(key[0]), key[1], limit);
+        }
+
+        return toPage(rows, pageSize, this::quantityCursor);
+    }
+
+    public InventoryPageDTO getLowestStockPage(int size, String cursor) {
+        int pageSize = validatePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Inventory> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = inventoryRepository.findByQuantityNotNullOrderByQuantityAscItemCodeAsc(limit);
+        } else {
+            String[] key = decodeQuantityCursor(cursor);
+            rows = inventoryRepository.findQuantityAscAfter(Integer.valueOf(key[0]), key[1], limit);
+        }
+
+        return toPage(rows, pageSize, this::quantityCursor);
+    }
+
+    private InventoryPageDTO toPage(List<Inventory> rows, int pageSize, Function<Inventory, String> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Inventory> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+
+        return new InventoryPageDTO(withLocations(page), nextCursor);
+    }
+
+    private int validatePageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private String quantityCursor(Inventory last) {
+        return encodeCursor(last.getQuantity() + ":" + last.getItemCode());
+    }
+
+    // returns {quantity, itemCode}
+    private String[] decodeQuantityCursor(String cursor) {
+        String[] key = decodeCursor(cursor).split(":", 2);
+        if (key.length != 2 || !key[0].matches("-?\\d+")) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return key;
+    }
+
+    private String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
 
     @Transactional
     public InventoryPayload updateInventory(InventoryPayload payload) {
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User user = userService.getUserById(Long.parseLong(auth.getName()));
+        User user = AuthenticatedUser.current(userService::getSignedInUser);
         LocalDateTime cDateTime = LocalDateTime.now();
 
 
@@ -149,17 +269,21 @@ public List<InventoryPayload> getHighestStock() {
         existingInventory.setDateTimeAdded(cDateTime);
 
         Inventory savedInventory = inventoryRepository.save(existingInventory);
+        index(savedInventory);
+        indexExpiry(savedInventory);
 
+        // the stock locator is moved by the difference between the old and new locations
+        List<ItemLoc> previousLocations = itemLocRepository.findByItemCode(savedInventory.getItemCode());
         itemLocRepository.deleteByItemCode(savedInventory.getItemCode());
         for (ItemLoc loc : newLocations) {
             loc.setItemCode(savedInventory.getItemCode());
-            itemLocRepository.save(loc);
         }
 
-        List<ItemLoc> savedLocations = itemLocRepository.findByItemCode(savedInventory.getItemCode());
+        List<ItemLoc> savedLocations = itemLocRepository.saveAll(newLocations);
+        fefoAllocator.putItem(savedInventory, savedLocations);
 
         // Sync to Stock Locator
-        syncToStockLocator(savedInventory, savedLocations);
+        syncToStockLocator(savedInventory, previousLocations, savedLocations);
 
         InventoryPayload newPayload = new InventoryPayload(savedInventory, savedLocations);
 
@@ -170,6 +294,9 @@ public List<InventoryPayload> getHighestStock() {
     public void deleteByInventoryId(String itemcode) {
         itemLocRepository.deleteByItemCode(itemcode);
         inventoryRepository.deleteById(itemcode);
+        searchIndex.remove(itemcode);
+        expiryIndex.remove(itemcode);
+        fefoAllocator.removeItem(itemcode);
         // Also delete from StockLocator
         try {
             stockLocatorService.deleteStockLocator(itemcode);
@@ -180,59 +307,197 @@ public List<InventoryPayload> getHighestStock() {
 
     public List<InventoryPayload> getStockAlerts(Integer amount) {
         List<Inventory> inventories = inventoryRepository.findByQuantityLessThanEqual(amount);
+        return withLocations(inventories);
+    }
+
+    // Items in stock expiring from today through days from now, soonest first, with their
+    // locations. The default horizon is served from the list precomputed for the day while no item
+    // has changed.
+    public List<InventoryPayload> getExpiryAlerts(Integer days) {
+        int horizon = days != null ? days : expiryAlertDays;
+        if (horizon < 0 || horizon > MAX_EXPIRY_DAYS) {
+            throw new IllegalArgumentException("days must be between 0 and " + MAX_EXPIRY_DAYS);
+        }
+
+        LocalDate today = LocalDate.now();
+        ExpiryAlerts precomputed = dailyExpiryAlerts;
+        List<String> itemCodes = precomputed != null && precomputed.matches(today, horizon, expiryIndex.version())
+            ? precomputed.itemCodes
+            : expiryIndex.expiringBetween(today, today.plusDays(horizon));
+        if (itemCodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // a code removed since it was listed is skipped, and so is a lot sold out since then (sales
+        // deduct stock without going through the index)
+        Map<String, Inventory> found = inventoryRepository.findAllById(itemCodes).stream()
+            .collect(Collectors.toMap(Inventory::getItemCode, Function.identity()));
+        List<Inventory> inventories = new ArrayList<>(found.size());
+        for (String itemCode : itemCodes) {
+            Inventory inventory = found.get(itemCode);
+            if (inventory != null && inStock(inventory)) {
+                inventories.add(inventory);
+            }
+        }
+        return withLocations(inventories);
+    }
+
+    // Daily pass: reloads the expiry index from the expiry column, which also drops the lots that
+    // expired yesterday, then precomputes today's near-expiry list. Runs at startup as well.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventory.expiry-alerts.cron:0 5 0 * * *}")
+    public void refreshExpiryAlerts() {
+        LocalDate today = LocalDate.now();
+        Map<String, LocalDate> expiries = new HashMap<>();
+        for (Object[] row : inventoryRepository.findExpiriesFrom(today)) {
+            expiries.put((String) row[0], (LocalDate) row[1]);
+        }
+        expiryIndex.load(expiries);
+
+        // the version is read first, so a write that lands while the list is built invalidates it
+        long version = expiryIndex.version();
+        List<String> itemCodes = expiryIndex.expiringBetween(today, today.plusDays(expiryAlertDays));
+        dailyExpiryAlerts = new ExpiryAlerts(today, expiryAlertDays, version, itemCodes);
+        logger.info("Precomputed " + itemCodes.size() + " items expiring within " + expiryAlertDays + " days");
+    }
+
+    // only lots with stock on hand are held in the expiry index
+    private void indexExpiry(Inventory inventory) {
+        expiryIndex.put(inventory.getItemCode(), inStock(inventory) ? inventory.getExpiry() : null);
+    }
+
+    private static boolean inStock(Inventory inventory) {
+        return inventory.getQuantity() != null && inventory.getQuantity() > 0;
+    }
+
+    // loads the locations of the given items with a single IN query and keeps the input order
+    private List<InventoryPayload> withLocations(List<Inventory> inventories) {
+        if (inventories.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<String> itemCodes = inventories.stream()
+                .map(Inventory::getItemCode)
+                .collect(Collectors.toList());
+
+        return toPayloads(inventories, groupByItemCode(itemLocRepository.findByItemCodeIn(itemCodes)));
+    }
+
+    private Map<String, List<ItemLoc>> groupByItemCode(List<ItemLoc> itemLocs) {
+        return itemLocs.stream()
+                .filter(loc -> loc.getItemCode() != null)
+                .collect(Collectors.groupingBy(ItemLoc::getItemCode));
+    }
+
+    private List<InventoryPayload> toPayloads(List<Inventory> inventories, Map<String, List<ItemLoc>> locsByItem) {
         return inventories.stream()
-                .map(inv -> new InventoryPayload(inv, itemLocRepository.findByItemCode(inv.getItemCode())))
+                .map(inv -> new InventoryPayload(inv,
+                        locsByItem.getOrDefault(inv.getItemCode(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
-    public void syncAllInventoryToStockLocator() {
-        List<InventoryPayload> payloads = getInventoriesWithLocations();
-        for (InventoryPayload payload : payloads) {
-            syncToStockLocator(payload.getInventory(), payload.getLocations());
+    // Set-based rebuild of the stock locator rows for the items in (afterItemCode, upToItemCode],
+    // a null bound is open. One range query, one IN query for locations and one batched write;
+    // StockLocatorSyncService calls this once per chunk.
+    public int syncStockLocatorRange(String afterItemCode, String upToItemCode,
+            Map<Integer, String> brandNames, Map<Integer, String> locationNames) {
+        List<Inventory> items = inventoryRepository.findItemCodeRange(afterItemCode, upToItemCode);
+        if (items.isEmpty()) {
+            return 0;
         }
+        return stockLocatorService.rebuildFromInventory(withLocations(items), brandNames, locationNames);
     }
 
-    private void syncToStockLocator(Inventory inventory, List<ItemLoc> locations) {
+    private void syncToStockLocator(Inventory inventory, List<ItemLoc> previousLocations, List<ItemLoc> currentLocations) {
         try {
             Brand brand = brandService.getBrandById(inventory.getBrandId());
             String brandName = brand != null ? brand.getBrandName() : "Unknown";
             
-            java.util.Map<Integer, String> locIdToName = locationRepository.findAll().stream()
-                .collect(Collectors.toMap(Location::getLocationId, Location::getLocationName));
-            
-            java.util.Map<String, Integer> locQuantities = new java.util.HashMap<>();
-            for (ItemLoc loc : locations) {
-                String name = locIdToName.get(loc.getLocationId());
-                if (name != null) {
-                    locQuantities.put(name, loc.getQuantity());
-                }
-            }
-            
-            stockLocatorService.updateStockFromInventory(
+            stockLocatorService.applyInventoryChange(
                 inventory.getItemCode(), 
                 brandName, 
                 inventory.getItemDescription(), 
-                locQuantities
+                quantitiesByLocationId(previousLocations),
+                quantitiesByLocationId(currentLocations)
             );
         } catch (Exception e) {
             System.err.println("ERROR: Failed to sync to StockLocator: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    private Map<Integer, Integer> quantitiesByLocationId(List<ItemLoc> locations) {
+        Map<Integer, Integer> locQuantities = new HashMap<>();
+        for (ItemLoc loc : locations) {
+            if (loc.getLocationId() != null && loc.getQuantity() != null) {
+                locQuantities.merge(loc.getLocationId(), loc.getQuantity(), Integer::sum);
+            }
+        }
+        return locQuantities;
+    }
+
+    // The brand's item whose description equals description, ignoring case. The search index only
+    // narrows the rows read: its best candidates are checked against the table, and when none is
+    // an exact match the table is asked directly, since this node's index can miss a row written
+    // on another one.
     public Inventory searchInventory(String brandName, String description) {
         try {
             Brand brand = brandService.getBrandbyName(brandName);
-            if (brand == null) return null;
-            
-            List<Inventory> allInventory = inventoryRepository.findAll();
-            return allInventory.stream()
-                .filter(i -> i.getBrandId() != null && i.getBrandId().equals(brand.getBrandId()) && 
-                             i.getItemDescription() != null && i.getItemDescription().equalsIgnoreCase(description))
+            if (brand == null || description == null) return null;
+
+            List<String> matches = searchIndex.search(description, brandGroup(brand.getBrandId()), SEARCH_CANDIDATES);
+            Map<String, Inventory> found = inventoryRepository.findAllById(matches).stream()
+                .collect(Collectors.toMap(Inventory::getItemCode, Function.identity()));
+            return matches.stream()
+                .map(found::get)
+                .filter(inventory -> inventory != null
+                    && brand.getBrandId().equals(inventory.getBrandId())
+                    && description.equalsIgnoreCase(inventory.getItemDescription()))
                 .findFirst()
+                .or(() -> inventoryRepository.findFirstByBrandIdAndItemDescriptionIgnoreCaseOrderByItemCodeAsc(
+                    brand.getBrandId(), description))
                 .orElse(null);
         } catch (Exception e) {
             System.err.println("Error searching inventory: " + e.getMessage());
             return null;
         }
     }
+
+    // also reloaded periodically, for items written by other nodes or straight into the table
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.reload-ms:300000}", initialDelayString = "${search.reload-ms:300000}")
+    public void loadSearchIndex() {
+        SearchIndex loaded = new SearchIndex();
+        for (Inventory inventory : inventoryRepository.findAll()) {
+            loaded.put(inventory.getItemCode(), brandGroup(inventory.getBrandId()), inventory.getItemDescription());
+        }
+        searchIndex.load(loaded);
+        logger.info("Indexed " + searchIndex.size() + " inventory items for search");
+    }
+
+    private void index(Inventory inventory) {
+        searchIndex.put(inventory.getItemCode(), brandGroup(inventory.getBrandId()), inventory.getItemDescription());
+    }
+
+    private static String brandGroup(Integer brandId) {
+        return brandId != null ? brandId.toString() : null;
+    }
+
+    private static final class ExpiryAlerts {
+        private final LocalDate day;
+        private final int days;
+        private final long version;
+        private final List<String> itemCodes;
+
+        ExpiryAlerts(LocalDate day, int days, long version, List<String> itemCodes) {
+            this.day = day;
+            this.days = days;
+            this.version = version;
+            this.itemCodes = itemCodes;
+        }
+
+        boolean matches(LocalDate today, int horizon, long currentVersion) {
+            return day.equals(today) && days == horizon && version == currentVersion;
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.biotech.lis.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.biotech.lis.Entity.Brand;
+import com.biotech.lis.Entity.PurchaseOrder;
+import com.biotech.lis.Repository.BrandRepository;
+import com.biotech.lis.Repository.PurchaseOrderRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+// Hands out item codes (brand abbreviation + 4-digit sequence) from blocks of sequences reserved
+// per brand. Brand.latestSequence is the next unreserved sequence; a block is taken by moving it
+// forward in one atomic UPDATE, so no two threads or servers ever get the same block. Codes come
+// from memory until the block runs out. Unused codes of a block are skipped after a restart.
+// Codes are taken outside any transaction: requests for one brand wait on each other here, and a
+// waiter holding a pooled connection could leave the refill without one.
+@Service
+public class ItemCodeAllocator {
+    private final BrandRepository brandRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final TransactionTemplate newTransactionTemplate;
+    private final int blockSize;
+
+    private final ConcurrentMap<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ItemCodeAllocator(BrandRepository brandRepository,
+                             PurchaseOrderRepository purchaseOrderRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${item-code.block-size:20}") int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("item-code.block-size must be positive");
+        }
+        this.brandRepository = brandRepository;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        // a reservation must outlive a rolled back purchase order, or another server could reserve it again
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public String nextItemCode(Brand brand) {
+        return nextItemCodes(brand, 1).get(0);
+    }
+
+    // count codes: what is left of the current block, then one new block large enough for the rest,
+    // so a bulk import costs one reservation per brand rather than one per block
+    public List<String> nextItemCodes(Brand brand, int count) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Item codes must be taken before the transaction opens");
+        }
+        List<String> codes = new ArrayList<>(count);
+        Block block = blocks.computeIfAbsent(brand.getBrandId(), id -> new Block());
+        // only requests for the same brand wait here, and only one of them refills the block
+        synchronized (block) {
+            while (codes.size() < count) {
+                if (block.next >= block.end) {
+                    reserve(brand, block, Math.max(blockSize, count - codes.size()));
+                }
+                codes.add(brand.getAbbreviation() + String.format("%04d", block.next++));
+            }
+        }
+        return codes;
+    }
+
+    private void reserve(Brand brand, Block block, int size) {
+        // codes created before sequences were reserved are skipped over, once per brand
+        int floor = block.end == 0 ? firstUnusedSequence(brand) : 0;
+
+        Integer end = newTransactionTemplate.execute(status -> {
+            if (brandRepository.reserveSequences(brand.getBrandId(), floor, size) == 0) {
+                return null;
+            }
+            return brandRepository.findLatestSequence(brand.getBrandId());
+        });
+        if (end == null) {
+            throw new EntityNotFoundException("Brand not found with id: " + brand.getBrandId());
+        }
+        block.next = end - size;
+        block.end = end;
+    }
+
+    // one past the highest sequence among the brand's existing purchase order codes
+    private int firstUnusedSequence(Brand brand) {
+        String lastItemCode = purchaseOrderRepository.findTopByBrandIdOrderByItemCodeDesc(brand.getBrandId())
+                .map(PurchaseOrder::getItemCode).orElse(null);
+        if (lastItemCode == null || !lastItemCode.startsWith(brand.getAbbreviation())) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(lastItemCode.substring(brand.getAbbreviation().length())) + 1;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // sequences next (inclusive) to end (exclusive) are reserved for this server
+    private static final class Block {
+        private int next;
+        private int end;
+    }
+}
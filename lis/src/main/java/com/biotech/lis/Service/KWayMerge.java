@@ -0,0 +1,58 @@
+package com.biotech.lis.Service;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+// Lazily merges k iterators that are each already sorted by order into one sorted iterator.
+// Only the current head of every source is held, so memory is O(k) however long the sources
+// are, and each element costs O(log k). Equal elements come out in source order.
+public final class KWayMerge {
+
+    private KWayMerge() {}
+
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+            Comparator.<Head<T>, T>comparing(head -> head.value, order).thenComparingInt(head -> head.source));
+        for (int i = 0; i < sources.size(); i++) {
+            Iterator<? extends T> source = sources.get(i);
+            if (source.hasNext()) {
+                heads.offer(new Head<>(source.next(), i, source));
+            }
+        }
+
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head<T> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                // refill from the source the head came from
+                if (head.iterator.hasNext()) {
+                    heads.offer(new Head<>(head.iterator.next(), head.source, head.iterator));
+                }
+                return head.value;
+            }
+        };
+    }
+
+    private static final class Head<T> {
+        private final T value;
+        private final int source;
+        private final Iterator<? extends T> iterator;
+
+        Head(T value, int source, Iterator<? extends T> iterator) {
+            this.value = value;
+            this.source = source;
+            this.iterator = iterator;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.biotech.lis.Service;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.biotech.lis.DTO.CacheStatsDTO;
 import com.biotech.lis.Entity.Location;
 import com.biotech.lis.Repository.LocationRepository;
 
@@ -15,6 +19,11 @@ public class LocationService {
     @Autowired
     private LocationRepository locationRepository;
 
+    // the whole location table is a handful of rows, cached as one entry
+    private static final String ALL_LOCATIONS = "all";
+    private final ReferenceCache<String, List<Location>> locationCache =
+            new ReferenceCache<>("locations", 1, Duration.ofMinutes(30));
+
     public Location addLocation(Location location) {
         String cleanName = location.getLocationName().trim();
 
@@ -22,11 +31,25 @@ public class LocationService {
             throw new IllegalArgumentException("Location with name '" + cleanName + "' already exists.");
         }
 
-        return locationRepository.save(location);
+        Location savedLocation = locationRepository.save(location);
+        locationCache.invalidateAll();
+        return savedLocation;
     }
 
     public List<Location> getAllLocations() {
-        return locationRepository.findAll();
+        return locationCache.get(ALL_LOCATIONS, key -> List.copyOf(locationRepository.findAll()));
+    }
+
+    public Map<Integer, String> getLocationNamesById() {
+        Map<Integer, String> namesById = new HashMap<>();
+        for (Location location : getAllLocations()) {
+            namesById.put(location.getLocationId(), location.getLocationName());
+        }
+        return namesById;
+    }
+
+    public CacheStatsDTO getCacheStats() {
+        return locationCache.stats();
     }
 
     public Location getLocationByName(String name) {
@@ -49,12 +72,14 @@ public class LocationService {
         }
 
         Location savedLocation = locationRepository.save(location);
-        
+        locationCache.invalidateAll();
+
         return savedLocation;
     }
 
     public void deleteLocation(Integer id) {
         locationRepository.deleteById(id);
+        locationCache.invalidateAll();
     }
 
 }
@@ -0,0 +1,163 @@
+package com.biotech.lis.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.biotech.lis.Entity.Location;
+
+// Resolves location names to locationIds, the slots stock is kept under, and renders the legacy
+// wide view of the stock locator. The lookup tables are rebuilt only when LocationService hands
+// out a new location list, so every lookup is a hash probe on the normalized name.
+@Service
+public class LocationSlotService {
+
+    // keys of the old fixed stockLocator columns, still used by the JSON view and PUT bodies
+    public static final List<String> LEGACY_COLUMNS = List.of(
+        "lazcanoRef1", "lazcanoRef2", "gandiaColdStorage", "gandiaRef1", "gandiaRef2", "limbaga", "cebu");
+
+    private final LocationService locationService;
+
+    private volatile Slots slots;
+
+    public LocationSlotService(LocationService locationService) {
+        this.locationService = locationService;
+    }
+
+    // locationId for a location name, a transaction's stockLocation or a legacy column key
+    public Integer findLocationId(String name) {
+        return current().resolve(name);
+    }
+
+    public boolean isKnownLocation(Integer locationId) {
+        return current().nameById.containsKey(locationId);
+    }
+
+    public String getLocationName(Integer locationId) {
+        return current().nameById.get(locationId);
+    }
+
+    public String getLegacyColumn(Integer locationId) {
+        return current().columnById.get(locationId);
+    }
+
+    // legacy key -> quantity for all seven keys; locations sharing a key are summed
+    public Map<String, Integer> toLegacyColumns(Map<Integer, Integer> quantities) {
+        Slots current = current();
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (String column : LEGACY_COLUMNS) {
+            columns.put(column, 0);
+        }
+        quantities.forEach((locationId, quantity) -> {
+            String column = current.columnById.get(locationId);
+            if (column != null && quantity != null) {
+                columns.merge(column, quantity, Integer::sum);
+            }
+        });
+        return columns;
+    }
+
+    // location name -> quantity for every location, in location order
+    public Map<String, Integer> toNamedQuantities(Map<Integer, Integer> quantities) {
+        Map<String, Integer> named = new LinkedHashMap<>();
+        current().nameById.forEach((locationId, name) ->
+            named.put(name, quantities.getOrDefault(locationId, 0)));
+        return named;
+    }
+
+    private Slots current() {
+        List<Location> locations = locationService.getAllLocations();
+        Slots snapshot = slots;
+        // the location cache returns the same list until a location changes
+        if (snapshot == null || snapshot.source != locations) {
+            snapshot = new Slots(locations);
+            slots = snapshot;
+        }
+        return snapshot;
+    }
+
+    static String normalize(String name) {
+        if (name == null) return "";
+        return name.toLowerCase().replaceAll("[^a-z0-9]", "");
+    }
+
+    // Mapping logic for various location name formats onto the legacy columns
+    static String matchLegacyColumn(String normalizedLoc) {
+        if (normalizedLoc.contains("lazcano") && normalizedLoc.contains("ref1")) {
+            return "lazcanoRef1";
+        } else if (normalizedLoc.contains("lazcano") && normalizedLoc.contains("ref2")) {
+            return "lazcanoRef2";
+        } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("cold")) {
+            return "gandiaColdStorage";
+        } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("ref1")) {
+            return "gandiaRef1";
+        } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("ref2")) {
+            return "gandiaRef2";
+        } else if (normalizedLoc.contains("limbaga")) {
+            return "limbaga";
+        } else if (normalizedLoc.contains("cebu")) {
+            return "cebu";
+        }
+        // Fallback mappings for generic names found in DB (e.g., "Ref 1", "Fridge 1")
+        else if (normalizedLoc.equals("ref1")) {
+            return "lazcanoRef1"; // Assuming Ref 1 is Lazcano Ref 1
+        } else if (normalizedLoc.equals("ref2")) {
+            return "lazcanoRef2"; // Assuming Ref 2 is Lazcano Ref 2
+        } else if (normalizedLoc.contains("fridge") || normalizedLoc.contains("cold")) {
+            return "gandiaColdStorage"; // Assuming Fridge/Cold is Gandia Cold Storage
+        } else if (normalizedLoc.equals("ref3")) {
+            return "gandiaRef1"; // No specific column for Ref 3, shown under Gandia Ref 1
+        } else if (normalizedLoc.equals("ref4")) {
+            return "gandiaRef2"; // No specific column for Ref 4, shown under Gandia Ref 2
+        }
+        return null;
+    }
+
+    private static final class Slots {
+        private final List<Location> source;
+        private final Map<Integer, String> nameById = new LinkedHashMap<>();
+        private final Map<Integer, String> columnById = new HashMap<>();
+        // normalized location name, and normalized legacy key, -> locationId
+        private final Map<String, Integer> idByName = new HashMap<>();
+        // names that needed the fallback rules, remembered including misses
+        private final Map<String, Optional<Integer>> resolved = new ConcurrentHashMap<>();
+
+        Slots(List<Location> locations) {
+            this.source = locations;
+            for (Location location : locations) {
+                String normalized = normalize(location.getLocationName());
+                nameById.put(location.getLocationId(), location.getLocationName());
+                idByName.putIfAbsent(normalized, location.getLocationId());
+
+                String column = matchLegacyColumn(normalized);
+                if (column != null) {
+                    columnById.put(location.getLocationId(), column);
+                }
+            }
+            // a legacy key resolves to the first location shown under it, unless a location is named exactly that
+            for (Location location : locations) {
+                String column = columnById.get(location.getLocationId());
+                if (column != null) {
+                    idByName.putIfAbsent(normalize(column), location.getLocationId());
+                }
+            }
+        }
+
+        Integer resolve(String name) {
+            String normalized = normalize(name);
+            Integer locationId = idByName.get(normalized);
+            if (locationId != null) {
+                return locationId;
+            }
+            return resolved.computeIfAbsent(normalized, key -> {
+                String column = matchLegacyColumn(key);
+                return Optional.ofNullable(column == null ? null : idByName.get(normalize(column)));
+            }).orElse(null);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.biotech.lis.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.biotech.lis.DTO.PurchaseOrderImportReportDTO;
+import com.biotech.lis.DTO.PurchaseOrderImportRowDTO;
+import com.biotech.lis.Entity.PurchaseOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityNotFoundException;
+
+// Bulk purchase order import behind /PO/v1/importPOs. The body is read one row at a time, each
+// row is checked on its own, and valid rows are added in chunks of CHUNK_SIZE, one transaction
+// per chunk. A row that fails validation is reported and skipped; a chunk that fails to save is
+// reported row by row and the import carries on with the next one.
+@Service
+public class PurchaseOrderImportService {
+    public enum Format { CSV, NDJSON }
+
+    static final int CHUNK_SIZE = 500;
+
+    static final String CREATED = "CREATED";
+    static final String REJECTED = "REJECTED";
+
+    // CSV header names, matched ignoring case; the others may be left out
+    private static final List<String> REQUIRED_COLUMNS = List.of("brandId", "quantity", "unitCost", "poPireference");
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public PurchaseOrderImportReportDTO importPurchaseOrders(InputStream body, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+
+        List<PurchaseOrderImportRowDTO> results = new ArrayList<>();
+        List<PurchaseOrder> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<PurchaseOrderImportRowDTO> chunkResults = new ArrayList<>(CHUNK_SIZE);
+
+        ParsedRow row;
+        while ((row = source.next()) != null) {
+            PurchaseOrderImportRowDTO result = new PurchaseOrderImportRowDTO(row.line, null, null, null);
+            results.add(result);
+
+            String problem = row.problem != null ? row.problem : validate(row.purchaseOrder);
+            if (problem != null) {
+                result.setStatus(REJECTED);
+                result.setMessage(problem);
+                continue;
+            }
+            chunk.add(row.purchaseOrder);
+            chunkResults.add(result);
+            if (chunk.size() == CHUNK_SIZE) {
+                addChunk(chunk, chunkResults);
+            }
+        }
+        addChunk(chunk, chunkResults);
+
+        int created = (int) results.stream().filter(result -> CREATED.equals(result.getStatus())).count();
+        return new PurchaseOrderImportReportDTO(results.size(), created, results.size() - created, results);
+    }
+
+    private void addChunk(List<PurchaseOrder> chunk, List<PurchaseOrderImportRowDTO> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<PurchaseOrder> saved = purchaseOrderService.addPurchaseOrders(chunk);
+            for (int i = 0; i < saved.size(); i++) {
+                chunkResults.get(i).setStatus(CREATED);
+                chunkResults.get(i).setItemCode(saved.get(i).getItemCode());
+            }
+        } catch (RuntimeException e) {
+            for (PurchaseOrderImportRowDTO result : chunkResults) {
+                result.setStatus(REJECTED);
+                result.setMessage("Not saved: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    // the checks addPurchaseOrder makes, plus the fields a transaction entry needs
+    private String validate(PurchaseOrder purchaseOrder) {
+        if (purchaseOrder.getBrandId() == null) {
+            return "brandId is required";
+        }
+        if (purchaseOrder.getQuantity() == null || purchaseOrder.getQuantity() <= 0) {
+            return "quantity must be a positive number";
+        }
+        if (purchaseOrder.getUnitCost() == null || purchaseOrder.getUnitCost() < 0) {
+            return "unitCost must be zero or more";
+        }
+        if (purchaseOrder.getPoPireference() == null || purchaseOrder.getPoPireference().isBlank()) {
+            return "poPireference is required";
+        }
+        try {
+            // brands are cached, so this is one query per brand in the import at most
+            brandService.getBrandById(purchaseOrder.getBrandId());
+        } catch (EntityNotFoundException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private static final class ParsedRow {
+        private final int line;
+        private final PurchaseOrder purchaseOrder;
+        private final String problem;
+
+        ParsedRow(int line, PurchaseOrder purchaseOrder, String problem) {
+            this.line = line;
+            this.purchaseOrder = purchaseOrder;
+            this.problem = problem;
+        }
+    }
+
+    private interface RowSource {
+        // the next row, or null at the end of the body
+        ParsedRow next() throws IOException;
+    }
+
+    // One JSON object per line, with the fields of a purchase order; blank lines are skipped
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private int line = 0;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            try {
+                PurchaseOrder purchaseOrder = objectMapper.readValue(text, PurchaseOrder.class);
+                if (purchaseOrder == null) {
+                    return new ParsedRow(line, null, "Expected a JSON object");
+                }
+                // codes and audit fields are assigned by the import
+                purchaseOrder.setItemCode(null);
+                return new ParsedRow(line, purchaseOrder, null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // CSV with a header row naming the columns (brandId, productDescription, packSize, quantity,
+    // unitCost, poPireference); other columns are ignored
+    private static final class CsvRows implements RowSource {
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV body is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().toLowerCase(), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column.toLowerCase())) {
+                    throw new IllegalArgumentException("CSV header is missing the column " + column);
+                }
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> record;
+            try {
+                record = csv.readRecord();
+            } catch (IllegalArgumentException e) {
+                // nothing after an unterminated quote can be read reliably
+                return new ParsedRow(csv.recordLine, null, e.getMessage());
+            }
+            if (record == null) {
+                return null;
+            }
+
+            try {
+                PurchaseOrder purchaseOrder = new PurchaseOrder();
+                purchaseOrder.setBrandId(integer(record, "brandId"));
+                purchaseOrder.setProductDescription(text(record, "productDescription"));
+                purchaseOrder.setPackSize(integer(record, "packSize"));
+                purchaseOrder.setQuantity(integer(record, "quantity"));
+                String unitCost = text(record, "unitCost");
+                purchaseOrder.setUnitCost(unitCost != null ? Double.valueOf(unitCost) : null);
+                purchaseOrder.setPoPireference(text(record, "poPireference"));
+                return new ParsedRow(csv.recordLine, purchaseOrder, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(csv.recordLine, null, "Invalid number: " + e.getMessage());
+            }
+        }
+
+        private String text(List<String> record, String column) {
+            Integer index = columns.get(column.toLowerCase());
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private Integer integer(List<String> record, String column) {
+            String value = text(record, column);
+            return value != null ? Integer.valueOf(value) : null;
+        }
+    }
+
+    // Reads RFC 4180 records: comma separated fields, optionally in double quotes with "" for a
+    // quote inside them. A quoted field may run over several lines; blank lines are skipped.
+    static final class CsvReader {
+        private static final int END = -1;
+
+        private final BufferedReader reader;
+        private int line = 1;
+        private int recordLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // the fields of the next record, or null at the end of the body
+        List<String> readRecord() throws IOException {
+            int c = read();
+            while (c == '\n') {
+                c = read();
+            }
+            if (c == END) {
+                return null;
+            }
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == END) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == END) {
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        // the next character without carriage returns, counting lines as they end
+        private int read() throws IOException {
+            int c;
+            do {
+                c = reader.read();
+            } while (c == '\r');
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+    }
+}
@@ -7,15 +7,25 @@ import com.biotech.lis.Repository.InventoryRepository;
 import com.biotech.lis.Entity.TransactionEntry;
 import com.biotech.lis.Repository.PurchaseOrderRepository;
 import com.biotech.lis.Repository.TransactionEntryRepository;
+import com.biotech.lis.config.AuthenticatedUser;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PurchaseOrderService {
@@ -37,7 +47,17 @@ public class PurchaseOrderService {
     @Autowired
     StockLocatorService stockLocatorService;
 
-    @Transactional
+    @Autowired
+    ItemCodeAllocator itemCodeAllocator;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    // The item code is taken before the transaction opens: a request waiting for its brand's next
+    // block must not sit on a pooled connection while the request refilling it needs another one.
     public PurchaseOrder addPurchaseOrder(PurchaseOrder purchaseOrder) {
         validatePurchaseOrder(purchaseOrder);
         
@@ -47,39 +67,84 @@ public class PurchaseOrderService {
         }
         
         Brand brand = brandService.getBrandById(purchaseOrder.getBrandId());
+        purchaseOrder.setItemCode(itemCodeAllocator.nextItemCode(brand));
+
+        return transactionTemplate.execute(status -> {
+            User user = getCurrentUser();
+            setAuditFields(purchaseOrder, user);
+            PurchaseOrder savedPO = purchaseOrderRepository.save(purchaseOrder);
 
+            // Create and save a corresponding TransactionEntry
+            transactionEntryRepository.save(newTransactionEntry(savedPO, brand));
 
-        String lastItemCode = purchaseOrderRepository.findTopByBrandIdOrderByItemCodeDesc(brand.getBrandId()).map(PurchaseOrder::getItemCode).orElse(null);
+            return savedPO;
+        });
+    }
 
-        int nextSequence = 0;
+    // Adds validated purchase orders in one transaction: item codes are taken in one block per
+    // brand before it opens, as in addPurchaseOrder, and the orders and their transaction entries
+    // are written as batched inserts. Entries of a reference that already exists replace it, as
+    // addPurchaseOrder does one at a time.
+    public List<PurchaseOrder> addPurchaseOrders(List<PurchaseOrder> purchaseOrders) {
+        Map<Integer, List<PurchaseOrder>> byBrand = new LinkedHashMap<>();
+        for (PurchaseOrder purchaseOrder : purchaseOrders) {
+            byBrand.computeIfAbsent(purchaseOrder.getBrandId(), id -> new ArrayList<>()).add(purchaseOrder);
+        }
 
-        if (lastItemCode != null) {
-            String numberPart = lastItemCode.substring(brand.getAbbreviation().length());
-            try {
-                nextSequence = Integer.parseInt(numberPart) + 1;
-            } catch (NumberFormatException e) {
-                nextSequence = brand.getLatestSequence(); // fallback
+        Map<Integer, Brand> brands = new LinkedHashMap<>();
+        for (List<PurchaseOrder> orders : byBrand.values()) {
+            Brand brand = brandService.getBrandById(orders.get(0).getBrandId());
+            brands.put(brand.getBrandId(), brand);
+            Iterator<String> itemCodes = itemCodeAllocator.nextItemCodes(brand, orders.size()).iterator();
+            for (PurchaseOrder purchaseOrder : orders) {
+                purchaseOrder.setItemCode(itemCodes.next());
             }
         }
-        
-        purchaseOrder.setItemCode(brand.getAbbreviation() + String.format("%04d", nextSequence));
 
+        return transactionTemplate.execute(status -> saveAll(purchaseOrders, byBrand, brands));
+    }
+
+    private List<PurchaseOrder> saveAll(List<PurchaseOrder> purchaseOrders, Map<Integer, List<PurchaseOrder>> byBrand,
+                                        Map<Integer, Brand> brands) {
         User user = getCurrentUser();
-        setAuditFields(purchaseOrder, user);
-        PurchaseOrder savedPO = purchaseOrderRepository.save(purchaseOrder);
 
-        // Create and save a corresponding TransactionEntry
+        Map<String, TransactionEntry> entries = new LinkedHashMap<>();
+        for (List<PurchaseOrder> orders : byBrand.values()) {
+            Brand brand = brands.get(orders.get(0).getBrandId());
+            for (PurchaseOrder purchaseOrder : orders) {
+                setAuditFields(purchaseOrder, user);
+                entityManager.persist(purchaseOrder);
+                entries.put(purchaseOrder.getPoPireference(), newTransactionEntry(purchaseOrder, brand));
+            }
+        }
+
+        // one read for the references already there, so only those cost a merge
+        Set<String> existing = new HashSet<>();
+        transactionEntryRepository.findAllById(entries.keySet())
+                .forEach(entry -> existing.add(entry.getDrSIReferenceNum()));
+        for (TransactionEntry entry : entries.values()) {
+            if (existing.contains(entry.getDrSIReferenceNum())) {
+                entityManager.merge(entry);
+            } else {
+                entityManager.persist(entry);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return purchaseOrders;
+    }
+
+    private TransactionEntry newTransactionEntry(PurchaseOrder purchaseOrder, Brand brand) {
         TransactionEntry transactionEntry = new TransactionEntry();
-        transactionEntry.setDrSIReferenceNum(savedPO.getPoPireference()); // Or another unique reference
-        transactionEntry.setItemCode(savedPO.getItemCode());
+        transactionEntry.setDrSIReferenceNum(purchaseOrder.getPoPireference()); // Or another unique reference
+        transactionEntry.setItemCode(purchaseOrder.getItemCode());
         transactionEntry.setBrand(brand.getBrandName());
-        transactionEntry.setProductDescription(savedPO.getProductDescription());
-        transactionEntry.setQuantity(savedPO.getQuantity());
-        transactionEntry.setCost(savedPO.getUnitCost() * savedPO.getQuantity());
+        transactionEntry.setProductDescription(purchaseOrder.getProductDescription());
+        transactionEntry.setQuantity(purchaseOrder.getQuantity());
+        transactionEntry.setCost(purchaseOrder.getUnitCost() * purchaseOrder.getQuantity());
         transactionEntry.setStockLocation("limbaga"); // Default location, can be changed
-        transactionEntryRepository.save(transactionEntry);
-
-        return savedPO;
+        return transactionEntry;
     }
 
     public Optional<PurchaseOrder> getPurchaseOrderByCode(String code) {
@@ -171,21 +236,12 @@ public class PurchaseOrderService {
     }
 
     private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null) {
-            throw new IllegalArgumentException("No authenticated user found");
-        }
-
-        try {
-            // Assuming auth.getName() returns the user ID as a String
-            User user = userService.getUserById(Long.parseLong(auth.getName()));
-            if (user == null) {
-                throw new IllegalArgumentException("User not found with ID: " + auth.getName());
-            }
-            return user;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid user ID format: " + auth.getName());
+        // resolved once per request and kept on the request's principal
+        User user = AuthenticatedUser.current(userService::getSignedInUser);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
         }
+        return user;
     }
 
     private void setAuditFields(PurchaseOrder purchaseOrder, User user) {
@@ -0,0 +1,155 @@
+package com.biotech.lis.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.biotech.lis.DTO.CacheStatsDTO;
+
+// Small read-through cache for reference data that rarely changes (brands, locations) and for
+// verified login tokens.
+// Entries expire after a fixed TTL, the map never grows past maxSize (the least recently used
+// entries make room), and writers call invalidate() so readers see their change on the next lookup.
+// Lookups take no locks: a hit only stamps the entry with the time it was used. Loads, invalidations
+// and eviction share one lock, so that bookkeeping stays off the read path.
+public class ReferenceCache<K, V> {
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+        private volatile long lastUsed;
+
+        Entry(T value, long expiresAt, long lastUsed) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    // once full, eviction frees this many slots beyond the one it needs, so a run of misses does not
+    // sort the entries on every load
+    private final int evictionBatch;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    // bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReferenceCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    ReferenceCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.evictionBatch = maxSize / 10;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    // returns the cached value, or loads it and caches it; null results are not cached
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, loader, null);
+    }
+
+    // Same, for values that go stale at a time of their own: a loaded value is kept for
+    // lifetime(value), never longer than the TTL, and not at all if that is zero or less.
+    public V get(K key, Function<? super K, ? extends V> loader, Function<? super V, Duration> lifetime) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.expiresAt < 0) {
+            entry.lastUsed = now;
+            hits.increment();
+            return entry.value;
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        long keepNanos = lifetime == null ? ttlNanos : Math.min(ttlNanos, lifetime.apply(value).toNanos());
+        if (keepNanos > 0) {
+            synchronized (writeLock) {
+                // checked under the lock, so an invalidate() cannot slip in before the put
+                if (generation.get() == loadGeneration) {
+                    entries.put(key, new Entry<>(value, now + keepNanos, now));
+                    if (entries.size() > maxSize) {
+                        evict(key, now);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStatsDTO stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        double hitRate = total == 0 ? 0.0 : (double) hitCount / total;
+        return new CacheStatsDTO(name, entries.size(), maxSize, hitCount, missCount, evictions.sum(), hitRate);
+    }
+
+    // caller holds the write lock; drops expired entries, then the least recently used down to
+    // maxSize - evictionBatch, never the entry just loaded
+    private void evict(K loaded, long now) {
+        entries.values().removeIf(e -> {
+            boolean expired = now - e.expiresAt >= 0;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        int excess = entries.size() - (maxSize - evictionBatch);
+        List<Map.Entry<K, Entry<V>>> byLastUse = new ArrayList<>(entries.entrySet());
+        byLastUse.removeIf(e -> e.getKey().equals(loaded));
+        byLastUse.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+        for (Map.Entry<K, Entry<V>> e : byLastUse.subList(0, Math.min(excess, byLastUse.size()))) {
+            if (entries.remove(e.getKey(), e.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.biotech.lis.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// In-memory trigram index for free-text product lookups. Every entry has a key (the item code),
+// an optional group used as an exact filter (the brand) and one or more text fields. A query is
+// answered from the posting lists of its trigrams instead of a LIKE '%q%' scan, and the matches
+// come back ranked: exact field, then field prefix, then substring, then typo-tolerant matches
+// that share at least half of the query's trigrams.
+//
+// Changes made inside a transaction are applied once it commits, so a rollback never leaves
+// the index ahead of the table. Callers still load the returned keys from the database.
+public class SearchIndex {
+    static final double MIN_SIMILARITY = 0.5;
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int SUBSTRING = 1;
+    private static final int SIMILAR = 0;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Adds or replaces the entry for key. The first field decides ties between equal matches,
+    // shorter first.
+    public void put(String key, String group, String... fields) {
+        Entry entry = new Entry(normalize(group), normalizeAll(fields));
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(key);
+                entries.put(key, entry);
+                for (String trigram : entry.trigrams) {
+                    postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(key);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(String key) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Takes over the entries of an index built off to the side, in one step, so a reload never
+    // leaves searches looking at a half-filled index
+    public void load(SearchIndex loaded) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            entries.putAll(loaded.entries);
+            postings.clear();
+            postings.putAll(loaded.postings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keys of the entries matching query, best first, at most limit of them. A null group
+    // searches every group. Blank queries match nothing.
+    public List<String> search(String query, String group, int limit) {
+        String text = normalize(query);
+        String wantedGroup = normalize(group);
+        if (text.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Set<String> queryTrigrams = trigrams(text);
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // under three characters there are no trigrams to look up, so every entry is checked
+            Map<String, Integer> candidates = new HashMap<>();
+            if (queryTrigrams.isEmpty()) {
+                entries.keySet().forEach(key -> candidates.put(key, 0));
+            } else {
+                for (String trigram : queryTrigrams) {
+                    for (String key : postings.getOrDefault(trigram, Set.of())) {
+                        candidates.merge(key, 1, Integer::sum);
+                    }
+                }
+            }
+
+            candidates.forEach((key, shared) -> {
+                Entry entry = entries.get(key);
+                if (!wantedGroup.isEmpty() && !wantedGroup.equals(entry.group)) {
+                    return;
+                }
+                double similarity = queryTrigrams.isEmpty() ? 0 : (double) shared / queryTrigrams.size();
+                int rank = entry.rank(text);
+                if (rank > SIMILAR || similarity >= MIN_SIMILARITY) {
+                    matches.add(new Match(key, rank, similarity, entry.fields[0].length()));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return TopKSelector.top(matches, limit, Match.BY_QUALITY).stream()
+            .map(match -> match.key)
+            .collect(Collectors.toList());
+    }
+
+    // caller holds the write lock
+    private void unindex(String key) {
+        Entry previous = entries.remove(key);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : previous.trigrams) {
+            Set<String> keys = postings.get(trigram);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    // runs change once the current transaction commits, or right away outside one
+    static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String[] normalizeAll(String[] fields) {
+        String[] normalized = new String[Math.max(1, fields.length)];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = i < fields.length ? normalize(fields[i]) : "";
+        }
+        return normalized;
+    }
+
+    // every run of three characters in text
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static final class Entry {
+        private final String group;
+        private final String[] fields;
+        private final Set<String> trigrams = new HashSet<>();
+
+        Entry(String group, String[] fields) {
+            this.group = group;
+            this.fields = fields;
+            for (String field : fields) {
+                trigrams.addAll(trigrams(field));
+            }
+        }
+
+        int rank(String text) {
+            int best = SIMILAR;
+            for (String field : fields) {
+                if (field.equals(text)) {
+                    return EXACT;
+                }
+                if (field.startsWith(text)) {
+                    best = Math.max(best, PREFIX);
+                } else if (field.contains(text)) {
+                    best = Math.max(best, SUBSTRING);
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Match {
+        // greater is better: rank, then shared trigrams, then the shorter text, then the smaller key
+        private static final Comparator<Match> BY_QUALITY = Comparator.<Match>comparingInt(match -> match.rank)
+            .thenComparingDouble(match -> match.similarity)
+            .thenComparing(Comparator.<Match>comparingInt(match -> match.length).reversed())
+            .thenComparing(Comparator.<Match, String>comparing(match -> match.key).reversed());
+
+        private final String key;
+        private final int rank;
+        private final double similarity;
+        private final int length;
+
+        Match(String key, int rank, double similarity, int length) {
+            this.key = key;
+            this.rank = rank;
+            this.similarity = similarity;
+            this.length = length;
+        }
+    }
+}
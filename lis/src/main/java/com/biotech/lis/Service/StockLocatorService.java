@@ -1,67 +1,167 @@
 package com.biotech.lis.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.InventoryPayload;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.LocationStock;
+import com.biotech.lis.Entity.LocationStockId;
+import com.biotech.lis.Entity.SchemaMigration;
 import com.biotech.lis.Entity.StockLocator;
 import com.biotech.lis.Entity.TransactionEntry;
+import com.biotech.lis.Repository.LocationStockRepository;
+import com.biotech.lis.Repository.SchemaMigrationRepository;
 import com.biotech.lis.Repository.StockLocatorRepository;
 
 @Service
 public class StockLocatorService {
+    // the largest limit /top and /suggest accept
+    public static final int MAX_LIMIT = 100;
+
+    static final String LEGACY_COLUMNS_MIGRATION = "stockLocator-legacy-columns";
+
+    private static final Logger logger = Logger.getLogger(StockLocatorService.class.getName());
 
     @Autowired
     private StockLocatorRepository stockLocatorRepository;
 
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private LocationSlotService locationSlotService;
+
+    @Autowired
+    private SchemaMigrationRepository schemaMigrationRepository;
+
+    // Brand and description of every header, kept in step with this node's writes below. The
+    // periodic reload picks up headers written by other nodes or straight into the table.
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex();
+
     public List<StockLocator> getAllStockLocations() {
-        return stockLocatorRepository.findAll();
+        List<StockLocator> stockLocators = stockLocatorRepository.findAll();
+        return withStocks(stockLocators, locationStockRepository.findAll());
+    }
+
+    // the database sums and ranks the location stock, so only the top headers and their rows are read
+    public List<StockLocator> getTopStockLocators(int limit) {
+        return withStocks(findInOrder(locationStockRepository.findItemCodesByTotalQuantityDesc(Limit.of(limit))));
     }
 
     public List<StockLocator> searchStockLocators(String brand, String query) {
         boolean hasBrand = brand != null && !brand.trim().isEmpty();
         boolean hasQuery = query != null && !query.trim().isEmpty();
 
-        if (hasBrand && hasQuery) {
-            return stockLocatorRepository.findByBrandIgnoreCaseAndProductDescriptionContainingIgnoreCase(brand, query);
+        if (hasQuery) {
+            // every match, best first, as the LIKE search before the index returned every match
+            return withStocks(findInOrder(searchIndex.search(query, hasBrand ? brand : null, Integer.MAX_VALUE)));
         } else if (hasBrand) {
-            return stockLocatorRepository.findByBrandIgnoreCase(brand);
-        } else if (hasQuery) {
-            return stockLocatorRepository.findByProductDescriptionContainingIgnoreCase(query);
+            return withStocks(stockLocatorRepository.findByBrandIgnoreCase(brand));
+        }
+        return getAllStockLocations();
+    }
+
+    // the headers behind the index's best matches, best first; keys no longer in the table are dropped
+    private List<StockLocator> findInOrder(List<String> itemCodes) {
+        Map<String, StockLocator> byItemCode = stockLocatorRepository.findAllById(itemCodes).stream()
+            .collect(Collectors.toMap(StockLocator::getItemCode, Function.identity()));
+        List<StockLocator> stockLocators = new ArrayList<>(byItemCode.size());
+        for (String itemCode : itemCodes) {
+            StockLocator stockLocator = byItemCode.get(itemCode);
+            if (stockLocator != null) {
+                stockLocators.add(stockLocator);
+            }
+        }
+        return stockLocators;
+    }
+
+    // typeahead completions of a description, answered from memory
+    public List<String> suggestDescriptions(String prefix, String brand, int limit) {
+        boolean hasBrand = brand != null && !brand.trim().isEmpty();
+        return suggestionIndex.suggest(prefix, hasBrand ? brand : null, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.reload-ms:300000}", initialDelayString = "${search.reload-ms:300000}")
+    public void loadSearchIndex() {
+        SearchIndex loaded = new SearchIndex();
+        for (StockLocator stockLocator : stockLocatorRepository.findAll()) {
+            loaded.put(stockLocator.getItemCode(), stockLocator.getBrand(),
+                stockLocator.getProductDescription(), stockLocator.getBrand());
         }
-        return stockLocatorRepository.findAll();
+        searchIndex.load(loaded);
+        logger.info("Indexed " + searchIndex.size() + " stock locator products for search");
+    }
+
+    // on the same schedule as the search index, for the same reason
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.reload-ms:300000}", initialDelayString = "${search.reload-ms:300000}")
+    public void loadSuggestionIndex() {
+        SuggestionIndex loaded = new SuggestionIndex();
+        for (StockLocator stockLocator : stockLocatorRepository.findAll()) {
+            loaded.put(stockLocator.getItemCode(), stockLocator.getBrand(), stockLocator.getProductDescription());
+        }
+        suggestionIndex.load(loaded);
+    }
+
+    private void index(StockLocator stockLocator) {
+        searchIndex.put(stockLocator.getItemCode(), stockLocator.getBrand(),
+            stockLocator.getProductDescription(), stockLocator.getBrand());
+        suggestionIndex.put(stockLocator.getItemCode(), stockLocator.getBrand(), stockLocator.getProductDescription());
     }
 
     public Optional<StockLocator> getStocksByBrandAndProduct(String brand, String productDescription) {
-        return stockLocatorRepository.findByBrandAndProductDescription(brand, productDescription);
+        return stockLocatorRepository.findByBrandAndProductDescription(brand, productDescription)
+            .map(stockLocator -> withStocks(stockLocator, locationStockRepository.findByItemCode(stockLocator.getItemCode())));
     }
 
+    // everything outside Cebu counts as Manila
     public Integer getManilaStock(String brand, String productDescription) {
         Optional<StockLocator> stockLocatorOpt = getStocksByBrandAndProduct(brand, productDescription);
         StockLocator stockLocator = stockLocatorOpt.get();
 
-        return stockLocator.getLazcanoRef1() + stockLocator.getLazcanoRef2() +
-        stockLocator.getLimbaga() + stockLocator.getGandiaColdStorage() + stockLocator.getGandiaRef1()
-        + stockLocator.getGandiaRef2();
+        return stockLocator.getTotalStock() - stockLocator.getLocationColumns().getOrDefault("cebu", 0);
     }
 
     public Integer getCebuStock(String brand, String productDescription) {
         Optional<StockLocator> stockLocatorOpt = getStocksByBrandAndProduct(brand, productDescription);
         StockLocator stockLocator = stockLocatorOpt.get();
 
-        return stockLocator.getCebu();
+        return stockLocator.getLocationColumns().getOrDefault("cebu", 0);
     }
 
+    @Transactional
     public void updateStockFromTransaction(TransactionEntry transactionEntry, boolean isAddition) {
         String brand = transactionEntry.getBrand();
         String itemCode = transactionEntry.getItemCode();
         String productDescription = transactionEntry.getProductDescription();
-        String stockLocation = transactionEntry.getStockLocation().toLowerCase();
+        String stockLocation = transactionEntry.getStockLocation();
         Integer quantity = transactionEntry.getQuantity();
 
+        Integer locationId = locationSlotService.findLocationId(stockLocation);
+        if (locationId == null) {
+            throw new IllegalArgumentException("Invalid stock location specified in transaction: " + stockLocation);
+        }
+
         Optional<StockLocator> existingStock = stockLocatorRepository.findByBrandAndProductDescription(brand, productDescription);
         StockLocator stockLocator;
 
@@ -71,74 +171,67 @@ public class StockLocatorService {
             if (!isAddition){
                 throw new RuntimeException("Stock not found for Brand: " + brand + ", Product: " + productDescription + " to deduct from.");
             }
-            stockLocator = new StockLocator(itemCode, brand, productDescription);
+            stockLocator = stockLocatorRepository.save(new StockLocator(itemCode, brand, productDescription));
+            index(stockLocator);
         }
 
-        int quantityChange = isAddition ? quantity : -quantity;
-        
-        switch (stockLocation) {
-            case "lazcano (ref 1)":
-                int newLazcanoRef1 = stockLocator.getLazcanoRef1() + quantityChange;
-                if (!isAddition && newLazcanoRef1 < 0) { 
-                    throw new RuntimeException("Insufficient stock at Lazcano Ref 1. Available: " + stockLocator.getLazcanoRef1() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setLazcanoRef1(newLazcanoRef1);
-                break;
-            case "lazcano (ref 2)":
-                int newLazcanoRef2 = stockLocator.getLazcanoRef2() + quantityChange;
-                if (!isAddition && newLazcanoRef2 < 0) {
-                    throw new RuntimeException("Insufficient stock at Lazcano Ref 2. Available: " + stockLocator.getLazcanoRef2() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setLazcanoRef2(newLazcanoRef2);
-                break;
-            case "gandia (cold storage)":
-                int newGandiaColdStorage = stockLocator.getGandiaColdStorage() + quantityChange;
-                if (!isAddition && newGandiaColdStorage < 0) {
-                    throw new RuntimeException("Insufficient stock at Gandia Cold Storage. Available: " + stockLocator.getGandiaColdStorage() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setGandiaColdStorage(newGandiaColdStorage);
-                break;
-            case "gandia (ref 1)":
-                int newGandiaRef1 = stockLocator.getGandiaRef1() + quantityChange;
-                if (!isAddition && newGandiaRef1 < 0) {
-                    throw new RuntimeException("Insufficient stock at Gandia Ref 1. Available: " + stockLocator.getGandiaRef1() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setGandiaRef1(newGandiaRef1);
-                break;
-            case "gandia (ref 2)":
-                int newGandiaRef2 = stockLocator.getGandiaRef2() + quantityChange;
-                if (!isAddition && newGandiaRef2 < 0) {
-                    throw new RuntimeException("Insufficient stock at Gandia Ref 2. Available: " + stockLocator.getGandiaRef2() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setGandiaRef2(newGandiaRef2);
-                break;
-            case "limbaga":
-                int newLimbaga = stockLocator.getLimbaga() + quantityChange;
-                if (!isAddition && newLimbaga < 0) {
-                    throw new RuntimeException("Insufficient stock at Limbaga. Available: " + stockLocator.getLimbaga() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setLimbaga(newLimbaga);
-                break;
-            case "cebu":
-                int newCebu = stockLocator.getCebu() + quantityChange;
-                if (!isAddition && newCebu < 0) {
-                    throw new RuntimeException("Insufficient stock at Cebu. Available: " + stockLocator.getCebu() + ", Requested Deduction: " + quantity + " for " + productDescription);
-                }
-                stockLocator.setCebu(newCebu);
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid stock location specified in transaction: " + stockLocation);
+        // the change is applied in the database rather than read, changed and written back, so
+        // two transactions on the same slot cannot overwrite each other
+        String stockItemCode = stockLocator.getItemCode();
+        if (locationStockRepository.addQuantity(stockItemCode, locationId, isAddition ? quantity : -quantity) > 0) {
+            return;
+        }
+
+        if (isAddition) {
+            // first stock at this slot; a concurrent first insert fails on the key instead of being overwritten
+            locationStockRepository.save(new LocationStock(stockItemCode, locationId, quantity));
+            return;
         }
 
-        stockLocatorRepository.save(stockLocator);
+        int available = locationStockRepository.findById(new LocationStockId(stockItemCode, locationId))
+            .map(LocationStock::getQuantity)
+            .orElse(0);
+        throw new RuntimeException("Insufficient stock at " + locationSlotService.getLocationName(locationId) + ". Available: " + available + ", Requested Deduction: " + quantity + " for " + productDescription);
     }
 
+    // Saves the header and sets the quantity of every location named in the body, either by a
+    // legacy wide key or under stockByLocation. Locations not mentioned are left as they are.
+    @Transactional
     public StockLocator updateStockLocator(StockLocator stockLocator) {
-        return stockLocatorRepository.save(stockLocator);
+        StockLocator saved = stockLocatorRepository.save(stockLocator);
+        index(saved);
+
+        Map<Integer, Integer> quantities = new HashMap<>();
+        stockLocator.getLocationColumns().forEach((key, quantity) -> putQuantity(quantities, key, quantity));
+        stockLocator.getStockByLocation().forEach((name, quantity) -> putQuantity(quantities, name, quantity));
+
+        Map<Integer, LocationStock> existing = locationStockRepository.findByItemCode(saved.getItemCode()).stream()
+            .collect(Collectors.toMap(LocationStock::getLocationId, Function.identity()));
+        List<LocationStock> changed = new ArrayList<>();
+        quantities.forEach((locationId, quantity) -> {
+            LocationStock stock = existing.computeIfAbsent(locationId,
+                id -> new LocationStock(saved.getItemCode(), id, 0));
+            stock.setQuantity(quantity);
+            changed.add(stock);
+        });
+        locationStockRepository.saveAll(changed);
+
+        return withStocks(saved, new ArrayList<>(existing.values()));
+    }
+
+    private void putQuantity(Map<Integer, Integer> quantities, String name, Integer quantity) {
+        Integer locationId = locationSlotService.findLocationId(name);
+        if (locationId != null && quantity != null) {
+            quantities.put(locationId, quantity);
+        }
     }
 
+    @Transactional
     public void deleteStockLocator(String id) {
+        locationStockRepository.deleteByItemCode(id);
         stockLocatorRepository.deleteById(id);
+        searchIndex.remove(id);
+        suggestionIndex.remove(id);
     }
 
     public boolean existsByBrandAndProduct(String brand, String productDescription) {
@@ -149,64 +242,179 @@ public class StockLocatorService {
         return stockLocatorRepository.findDistinctProductDescriptions(brand);
     }
 
-    public void updateStockFromInventory(String itemCode, String brand, String description, java.util.Map<String, Integer> locationQuantities) {
-        StockLocator stockLocator = stockLocatorRepository.findById(itemCode)
-            .orElse(new StockLocator(itemCode, brand, description));
-        
+    // Projects an item's location change (locationId -> quantity) onto its stock. An existing item
+    // only has the locations whose quantities moved adjusted, so stock booked through transactions
+    // is kept; a new item is seeded from the current quantities. There is no flush, the rows are
+    // written with the caller's transaction.
+    public StockLocator applyInventoryChange(String itemCode, String brand, String description,
+            Map<Integer, Integer> previousQuantities, Map<Integer, Integer> currentQuantities) {
+        Optional<StockLocator> existing = stockLocatorRepository.findById(itemCode);
+        StockLocator stockLocator = existing.orElseGet(() -> new StockLocator(itemCode, brand, description));
+
         stockLocator.setBrand(brand);
         stockLocator.setProductDescription(description);
-        
-        // Reset all to 0 before applying new quantities
-        stockLocator.setLazcanoRef1(0);
-        stockLocator.setLazcanoRef2(0);
-        stockLocator.setGandiaColdStorage(0);
-        stockLocator.setGandiaRef1(0);
-        stockLocator.setGandiaRef2(0);
-        stockLocator.setLimbaga(0);
-        stockLocator.setCebu(0);
-
-        for (java.util.Map.Entry<String, Integer> entry : locationQuantities.entrySet()) {
-            String rawLocName = entry.getKey();
-            String normalizedLoc = normalizeLocationName(rawLocName);
-            Integer qty = entry.getValue();
-            
-            // Mapping logic for various location name formats
-            if (normalizedLoc.contains("lazcano") && normalizedLoc.contains("ref1")) {
-                stockLocator.setLazcanoRef1(qty);
-            } else if (normalizedLoc.contains("lazcano") && normalizedLoc.contains("ref2")) {
-                stockLocator.setLazcanoRef2(qty);
-            } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("cold")) {
-                stockLocator.setGandiaColdStorage(qty);
-            } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("ref1")) {
-                stockLocator.setGandiaRef1(qty);
-            } else if (normalizedLoc.contains("gandia") && normalizedLoc.contains("ref2")) {
-                stockLocator.setGandiaRef2(qty);
-            } else if (normalizedLoc.contains("limbaga")) {
-                stockLocator.setLimbaga(qty);
-            } else if (normalizedLoc.contains("cebu")) {
-                stockLocator.setCebu(qty);
-            } 
-            // Fallback mappings for generic names found in DB (e.g., "Ref 1", "Fridge 1")
-            else if (normalizedLoc.equals("ref1")) {
-                stockLocator.setLazcanoRef1(qty); // Assuming Ref 1 is Lazcano Ref 1
-            } else if (normalizedLoc.equals("ref2")) {
-                stockLocator.setLazcanoRef2(qty); // Assuming Ref 2 is Lazcano Ref 2
-            } else if (normalizedLoc.contains("fridge") || normalizedLoc.contains("cold")) {
-                stockLocator.setGandiaColdStorage(qty); // Assuming Fridge/Cold is Gandia Cold Storage
-            } else if (normalizedLoc.equals("ref3")) {
-                 // No specific column for Ref 3, adding to Gandia Ref 1 as fallback or ignore
-                 stockLocator.setGandiaRef1(qty); 
-            } else if (normalizedLoc.equals("ref4")) {
-                 // No specific column for Ref 4, adding to Gandia Ref 2 as fallback or ignore
-                 stockLocator.setGandiaRef2(qty);
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        addDeltas(deltas, currentQuantities, 1);
+        if (existing.isPresent()) {
+            addDeltas(deltas, previousQuantities, -1);
+        }
+
+        Map<Integer, LocationStock> stocks = existing.isPresent()
+            ? locationStockRepository.findByItemCode(itemCode).stream()
+                .collect(Collectors.toMap(LocationStock::getLocationId, Function.identity()))
+            : new HashMap<>();
+        List<LocationStock> changed = new ArrayList<>();
+        deltas.forEach((locationId, delta) -> {
+            if (delta == 0) return;
+            LocationStock stock = stocks.computeIfAbsent(locationId, id -> new LocationStock(itemCode, id, 0));
+            stock.setQuantity((stock.getQuantity() != null ? stock.getQuantity() : 0) + delta);
+            changed.add(stock);
+        });
+
+        StockLocator saved = stockLocatorRepository.save(stockLocator);
+        locationStockRepository.saveAll(changed);
+        index(saved);
+        return withStocks(saved, new ArrayList<>(stocks.values()));
+    }
+
+    // Rebuilds the stock of a batch of items from their locations: the old rows go in one bulk
+    // delete and the new ones in one batched insert, committed together.
+    @Transactional
+    public int rebuildFromInventory(List<InventoryPayload> payloads, Map<Integer, String> brandNamesById,
+            Map<Integer, String> locationNamesById) {
+        List<String> itemCodes = payloads.stream()
+                .map(payload -> payload.getInventory().getItemCode())
+                .collect(Collectors.toList());
+
+        // clears the persistence context, so it runs before the headers are read
+        locationStockRepository.deleteByItemCodeIn(itemCodes);
+        Map<String, StockLocator> existingRows = stockLocatorRepository.findAllById(itemCodes).stream()
+                .collect(Collectors.toMap(StockLocator::getItemCode, Function.identity()));
+
+        List<StockLocator> rows = new ArrayList<>(payloads.size());
+        List<LocationStock> stocks = new ArrayList<>();
+        for (InventoryPayload payload : payloads) {
+            Inventory inventory = payload.getInventory();
+            String brandName = brandNamesById.getOrDefault(inventory.getBrandId(), "Unknown");
+
+            StockLocator row = existingRows.get(inventory.getItemCode());
+            if (row == null) {
+                row = new StockLocator(inventory.getItemCode(), brandName, inventory.getItemDescription());
+            } else {
+                row.setBrand(brandName);
+                row.setProductDescription(inventory.getItemDescription());
+            }
+            rows.add(row);
+
+            // locations that no longer exist are skipped
+            Map<Integer, Integer> quantities = new HashMap<>();
+            for (ItemLoc loc : payload.getLocations()) {
+                if (loc.getQuantity() == null || !locationNamesById.containsKey(loc.getLocationId())) continue;
+                quantities.merge(loc.getLocationId(), loc.getQuantity(), Integer::sum);
             }
+            quantities.forEach((locationId, quantity) ->
+                stocks.add(new LocationStock(inventory.getItemCode(), locationId, quantity)));
         }
-        stockLocatorRepository.save(stockLocator);
-        stockLocatorRepository.flush(); // Force write to DB
+
+        stockLocatorRepository.saveAll(rows);
+        locationStockRepository.saveAll(stocks);
+        rows.forEach(this::index);
+        return rows.size();
     }
 
-    private String normalizeLocationName(String locationName) {
-        if (locationName == null) return "";
-        return locationName.toLowerCase().replaceAll("[^a-z0-9]", "");
+    // One-off copy of the old fixed stockLocator columns into locationStock, recorded in
+    // schemaMigration so it never runs again, even if locationStock is emptied later. A database
+    // whose locationStock already has rows was migrated before the marker existed and is only
+    // marked; a fresh database without the old columns is marked too. Not transactional on
+    // purpose: the probe query may fail, the saveAll commits on its own.
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyColumns() {
+        if (schemaMigrationRepository.existsById(LEGACY_COLUMNS_MIGRATION)) {
+            return;
+        }
+        if (locationStockRepository.count() > 0) {
+            markMigrated();
+            return;
+        }
+
+        List<Object[]> legacyRows;
+        try {
+            legacyRows = stockLocatorRepository.findLegacyLocationColumns();
+        } catch (Exception e) {
+            logger.info("No legacy stock locator columns to migrate: " + e.getMessage());
+            markMigrated();
+            return;
+        }
+
+        List<LocationStock> stocks = new ArrayList<>();
+        for (Object[] row : legacyRows) {
+            String itemCode = (String) row[0];
+            for (int i = 0; i < LocationSlotService.LEGACY_COLUMNS.size(); i++) {
+                Object value = row[i + 1];
+                if (!(value instanceof Number number) || number.intValue() == 0) continue;
+
+                String column = LocationSlotService.LEGACY_COLUMNS.get(i);
+                Integer locationId = locationSlotService.findLocationId(column);
+                if (locationId == null) {
+                    logger.warning("No location for legacy column " + column + ", item " + itemCode + " skipped");
+                    continue;
+                }
+                stocks.add(new LocationStock(itemCode, locationId, number.intValue()));
+            }
+        }
+        locationStockRepository.saveAll(stocks);
+        markMigrated();
+        logger.info("Migrated " + stocks.size() + " legacy stock locator quantities");
+    }
+
+    private void markMigrated() {
+        schemaMigrationRepository.save(new SchemaMigration(LEGACY_COLUMNS_MIGRATION, LocalDateTime.now()));
+    }
+
+    private void addDeltas(Map<Integer, Integer> deltas, Map<Integer, Integer> quantities, int sign) {
+        quantities.forEach((locationId, quantity) -> {
+            if (quantity != null && locationSlotService.isKnownLocation(locationId)) {
+                deltas.merge(locationId, sign * quantity, Integer::sum);
+            }
+        });
+    }
+
+    // fills the stock view of each header from the given rows
+    private List<StockLocator> withStocks(List<StockLocator> stockLocators, List<LocationStock> stocks) {
+        Map<String, List<LocationStock>> stocksByItem = stocks.stream()
+            .collect(Collectors.groupingBy(LocationStock::getItemCode));
+        for (StockLocator stockLocator : stockLocators) {
+            attach(stockLocator, stocksByItem.getOrDefault(stockLocator.getItemCode(), Collections.emptyList()));
+        }
+        return stockLocators;
+    }
+
+    // one IN query for the stock of all the given headers
+    private List<StockLocator> withStocks(List<StockLocator> stockLocators) {
+        if (stockLocators.isEmpty()) {
+            return stockLocators;
+        }
+        List<String> itemCodes = stockLocators.stream()
+            .map(StockLocator::getItemCode)
+            .collect(Collectors.toList());
+        return withStocks(stockLocators, locationStockRepository.findByItemCodeIn(itemCodes));
+    }
+
+    private StockLocator withStocks(StockLocator stockLocator, List<LocationStock> stocks) {
+        attach(stockLocator, stocks);
+        return stockLocator;
+    }
+
+    private void attach(StockLocator stockLocator, List<LocationStock> stocks) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (LocationStock stock : stocks) {
+            if (stock.getQuantity() != null) {
+                quantities.put(stock.getLocationId(), stock.getQuantity());
+            }
+        }
+        stockLocator.setQuantities(quantities);
+        stockLocator.setLocationColumns(locationSlotService.toLegacyColumns(quantities));
+        stockLocator.setStockByLocation(locationSlotService.toNamedQuantities(quantities));
     }
 }
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.biotech.lis.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.biotech.lis.DTO.StockLocatorSyncStatusDTO;
+import com.biotech.lis.Entity.StockLocatorSyncChunk;
+import com.biotech.lis.Entity.StockLocatorSyncJob;
+import com.biotech.lis.Repository.InventoryRepository;
+import com.biotech.lis.Repository.StockLocatorSyncChunkRepository;
+import com.biotech.lis.Repository.StockLocatorSyncJobRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+
+// Full stock locator resync as a background job. The item codes are split into ranges of
+// CHUNK_SIZE, every range is rebuilt by a bounded worker pool in its own transaction, and a
+// range is marked DONE in that same transaction. After a crash the job is picked up again on
+// startup and only the ranges that never committed are redone.
+@Service
+public class StockLocatorSyncService {
+    public static final int CHUNK_SIZE = 1000;
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String PENDING = "PENDING";
+    public static final String DONE = "DONE";
+
+    // length of the error columns of the job and chunk tables
+    static final int MAX_ERROR_LENGTH = 255;
+
+    private static final Logger logger = Logger.getLogger(StockLocatorSyncService.class.getName());
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BrandService brandService;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockLocatorSyncJobRepository jobRepository;
+
+    @Autowired
+    private StockLocatorSyncChunkRepository chunkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stock-locator.sync.workers:4}")
+    private int workers;
+
+    private TaskExecutor syncExecutor;
+
+    // jobs with chunks queued or running in this process
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startWorkers() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("stock-locator-sync-");
+        executor.initialize();
+        syncExecutor = executor;
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        if (syncExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    // Starts a resync unless one is already running, in which case that one is returned
+    public synchronized StockLocatorSyncStatusDTO startSync() {
+        List<StockLocatorSyncJob> running = jobRepository.findByStatus(RUNNING);
+        if (!running.isEmpty()) {
+            return getStatus(running.get(0).getJobId());
+        }
+
+        // the job and all its ranges are written together, so a job is never half planned
+        StockLocatorSyncJob job = transactionTemplate.execute(status -> planJob());
+        submitChunks(job, chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(job.getJobId(), DONE));
+        return getStatus(job.getJobId());
+    }
+
+    // Re-queues the unfinished ranges of a failed or interrupted job
+    public synchronized StockLocatorSyncStatusDTO resumeSync(Long jobId) {
+        StockLocatorSyncJob job = findJob(jobId);
+        if (activeJobs.contains(jobId) || COMPLETED.equals(job.getStatus())) {
+            return getStatus(jobId);
+        }
+
+        job.setStatus(RUNNING);
+        job.setFinishedAt(null);
+        job.setError(null);
+        jobRepository.save(job);
+
+        submitChunks(job, chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(jobId, DONE));
+        return getStatus(jobId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (StockLocatorSyncJob job : jobRepository.findByStatus(RUNNING)) {
+            logger.info("Resuming interrupted stock locator sync job " + job.getJobId());
+            resumeSync(job.getJobId());
+        }
+    }
+
+    public StockLocatorSyncStatusDTO getStatus(Long jobId) {
+        return toStatus(findJob(jobId));
+    }
+
+    public StockLocatorSyncStatusDTO getLatestStatus() {
+        return jobRepository.findFirstByOrderByJobIdDesc()
+            .map(this::toStatus)
+            .orElseThrow(() -> new EntityNotFoundException("No stock locator sync has been run"));
+    }
+
+    private StockLocatorSyncJob planJob() {
+        StockLocatorSyncJob job = new StockLocatorSyncJob();
+        job.setStatus(RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = jobRepository.save(job);
+
+        // reads item codes only; each full page closes one range at its last code
+        Limit page = Limit.of(CHUNK_SIZE);
+        List<StockLocatorSyncChunk> chunks = new ArrayList<>();
+        int totalItems = 0;
+        String afterItemCode = null;
+        List<String> itemCodes = inventoryRepository.findItemCodes(page);
+        while (!itemCodes.isEmpty()) {
+            String upToItemCode = itemCodes.get(itemCodes.size() - 1);
+            chunks.add(newChunk(job.getJobId(), chunks.size(), afterItemCode, upToItemCode));
+            totalItems += itemCodes.size();
+            if (itemCodes.size() < CHUNK_SIZE) break;
+
+            afterItemCode = upToItemCode;
+            itemCodes = inventoryRepository.findItemCodesAfter(afterItemCode, page);
+        }
+        // the last range stays open so items added while the job runs are still covered
+        if (!chunks.isEmpty()) {
+            chunks.get(chunks.size() - 1).setUpToItemCode(null);
+        }
+        chunkRepository.saveAll(chunks);
+
+        job.setTotalChunks(chunks.size());
+        job.setTotalItems(totalItems);
+        return jobRepository.save(job);
+    }
+
+    private StockLocatorSyncChunk newChunk(Long jobId, int index, String afterItemCode, String upToItemCode) {
+        StockLocatorSyncChunk chunk = new StockLocatorSyncChunk();
+        chunk.setJobId(jobId);
+        chunk.setChunkIndex(index);
+        chunk.setAfterItemCode(afterItemCode);
+        chunk.setUpToItemCode(upToItemCode);
+        chunk.setStatus(PENDING);
+        chunk.setItemsSynced(0);
+        return chunk;
+    }
+
+    private void submitChunks(StockLocatorSyncJob job, List<StockLocatorSyncChunk> chunks) {
+        Long jobId = job.getJobId();
+        if (chunks.isEmpty()) {
+            finishJob(jobId);
+            return;
+        }
+
+        // reference data is read once per run and shared by every chunk
+        Map<Integer, String> brandNames = brandService.getBrandNamesById();
+        Map<Integer, String> locationNames = locationService.getLocationNamesById();
+
+        activeJobs.add(jobId);
+        AtomicInteger remaining = new AtomicInteger(chunks.size());
+        for (StockLocatorSyncChunk chunk : chunks) {
+            syncExecutor.execute(() -> {
+                try {
+                    runChunk(chunk, brandNames, locationNames);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        finishJob(jobId);
+                    }
+                }
+            });
+        }
+    }
+
+    private void runChunk(StockLocatorSyncChunk chunk, Map<Integer, String> brandNames, Map<Integer, String> locationNames) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int synced = inventoryService.syncStockLocatorRange(
+                    chunk.getAfterItemCode(), chunk.getUpToItemCode(), brandNames, locationNames);
+                chunk.setItemsSynced(synced);
+                chunk.setStatus(DONE);
+                chunk.setCompletedAt(LocalDateTime.now());
+                chunk.setError(null);
+                chunkRepository.save(chunk);
+            });
+        } catch (Exception e) {
+            logger.warning("Stock locator sync chunk " + chunk.getChunkIndex() + " of job "
+                + chunk.getJobId() + " failed: " + e.getMessage());
+            chunk.setStatus(FAILED);
+            chunk.setItemsSynced(0);
+            chunk.setError(truncate(String.valueOf(e.getMessage())));
+            chunkRepository.save(chunk);
+        }
+    }
+
+    private void finishJob(Long jobId) {
+        try {
+            StockLocatorSyncJob job = findJob(jobId);
+            // a chunk whose failure could not be recorded is still PENDING, so anything not DONE counts
+            long unfinished = chunkRepository.countByJobIdAndStatusNot(jobId, DONE);
+            job.setStatus(unfinished > 0 ? FAILED : COMPLETED);
+            job.setError(unfinished > 0 ? unfinished + " chunk(s) did not finish, resume the job to retry them" : null);
+            job.setFinishedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        } finally {
+            activeJobs.remove(jobId);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private StockLocatorSyncJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException("Stock locator sync job not found with id: " + jobId));
+    }
+
+    private StockLocatorSyncStatusDTO toStatus(StockLocatorSyncJob job) {
+        int totalChunks = job.getTotalChunks() != null ? job.getTotalChunks() : 0;
+        int totalItems = job.getTotalItems() != null ? job.getTotalItems() : 0;
+        long completed = chunkRepository.countByJobIdAndStatus(job.getJobId(), DONE);
+        long failed = chunkRepository.countByJobIdAndStatus(job.getJobId(), FAILED);
+        double percent = totalChunks == 0 ? 100.0 : completed * 100.0 / totalChunks;
+
+        return new StockLocatorSyncStatusDTO(
+            job.getJobId(),
+            job.getStatus(),
+            totalChunks,
+            completed,
+            failed,
+            totalItems,
+            chunkRepository.sumItemsSynced(job.getJobId()),
+            percent,
+            job.getStartedAt(),
+            job.getFinishedAt(),
+            job.getError()
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.biotech.lis.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Typeahead completions for product descriptions. Each brand keeps its distinct descriptions
+// in a sorted map, so the completions of a prefix are a contiguous range found in O(log n);
+// without a brand the ranges of all brands are merged. Descriptions are compared ignoring
+// case, and one stays listed while any item still uses it.
+//
+// Like SearchIndex, changes made inside a transaction are applied once it commits.
+public class SuggestionIndex {
+
+    private final Map<String, Item> items = new HashMap<>();
+    private final Map<String, NavigableMap<String, Description>> brands = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Adds or moves the item's description. Items without a description are left out.
+    public void put(String key, String brand, String description) {
+        Item item = new Item(SearchIndex.normalize(brand), description != null ? description.trim() : "");
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unlist(key);
+                if (item.description.isEmpty()) {
+                    return;
+                }
+                items.put(key, item);
+                brands.computeIfAbsent(item.brand, b -> new TreeMap<>())
+                    .computeIfAbsent(item.sortKey(), k -> new Description(item.description))
+                    .items++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(String key) {
+        SearchIndex.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unlist(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Takes over the descriptions of an index built off to the side, in one step, as SearchIndex.load does
+    public void load(SuggestionIndex loaded) {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            items.putAll(loaded.items);
+            brands.clear();
+            brands.putAll(loaded.brands);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            brands.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit descriptions starting with prefix, in alphabetical order. A null brand
+    // completes across every brand; a blank prefix lists from the start.
+    public List<String> suggest(String prefix, String brand, int limit) {
+        String start = SearchIndex.normalize(prefix);
+        List<String> suggestions = new ArrayList<>();
+        if (limit <= 0) {
+            return suggestions;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Iterator<Map.Entry<String, Description>>> ranges = new ArrayList<>();
+            if (brand != null) {
+                NavigableMap<String, Description> descriptions = brands.get(SearchIndex.normalize(brand));
+                if (descriptions != null) {
+                    ranges.add(range(descriptions, start));
+                }
+            } else {
+                brands.values().forEach(descriptions -> ranges.add(range(descriptions, start)));
+            }
+
+            // the same description under two brands is suggested once
+            Iterator<Map.Entry<String, Description>> merged = KWayMerge.merge(ranges, Map.Entry.<String, Description>comparingByKey());
+            String previous = null;
+            while (merged.hasNext() && suggestions.size() < limit) {
+                Map.Entry<String, Description> next = merged.next();
+                if (!next.getKey().equals(previous)) {
+                    suggestions.add(next.getValue().text);
+                    previous = next.getKey();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    private static Iterator<Map.Entry<String, Description>> range(NavigableMap<String, Description> descriptions, String prefix) {
+        return descriptions.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet().iterator();
+    }
+
+    // caller holds the write lock
+    private void unlist(String key) {
+        Item previous = items.remove(key);
+        if (previous == null) {
+            return;
+        }
+        NavigableMap<String, Description> descriptions = brands.get(previous.brand);
+        Description description = descriptions.get(previous.sortKey());
+        if (--description.items == 0) {
+            descriptions.remove(previous.sortKey());
+            if (descriptions.isEmpty()) {
+                brands.remove(previous.brand);
+            }
+        }
+    }
+
+    private static final class Item {
+        private final String brand;
+        private final String description;
+
+        Item(String brand, String description) {
+            this.brand = brand;
+            this.description = description;
+        }
+
+        String sortKey() {
+            return SearchIndex.normalize(description);
+        }
+    }
+
+    // a distinct description as first written, and how many items carry it
+    private static final class Description {
+        private final String text;
+        private int items;
+
+        Description(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.biotech.lis.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Picks the k best elements of an in-memory source without sorting all of it.
+// A min-heap holds at most k elements, so memory is O(k) and time is O(n log k).
+public final class TopKSelector {
+
+    private TopKSelector() {}
+
+    // k largest elements according to order, largest first
+    public static <T> List<T> top(Iterable<? extends T> source, int k, Comparator<? super T> order) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        // the heap never holds more than k elements, nor more than the source has
+        int capacity = source instanceof Collection<?> collection ? Math.min(k, collection.size()) : Math.min(k, 16);
+
+        // head of the heap is the weakest element we are still keeping
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.max(1, capacity), order);
+        for (T item : source) {
+            if (heap.size() < k) {
+                heap.offer(item);
+            } else if (order.compare(item, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(item);
+            }
+        }
+
+        List<T> result = new ArrayList<>(heap);
+        result.sort(Collections.reverseOrder(order));
+        return result;
+    }
+
+    // k smallest elements according to order, smallest first
+    public static <T> List<T> bottom(Iterable<? extends T> source, int k, Comparator<? super T> order) {
+        return top(source, k, Collections.reverseOrder(order));
+    }
+}
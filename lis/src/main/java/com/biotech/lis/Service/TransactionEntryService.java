@@ -5,8 +5,6 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +13,7 @@ import com.biotech.lis.Entity.User;
 import com.biotech.lis.Repository.InventoryRepository;
 import com.biotech.lis.Repository.PurchaseOrderRepository;
 import com.biotech.lis.Repository.TransactionEntryRepository;
+import com.biotech.lis.config.AuthenticatedUser;
 
 @Service
 public class TransactionEntryService {
@@ -40,6 +39,9 @@ public class TransactionEntryService {
     @Autowired
     PurchaseOrderRepository purchaseOrderRepository;
 
+    @Autowired
+    FefoAllocator fefoAllocator;
+
     @Transactional
     public TransactionEntry createTransactionEntry(TransactionEntry transactionEntry) {
         validateTransactionEntry(transactionEntry);
@@ -111,6 +113,7 @@ public class TransactionEntryService {
         stockLocatorService.updateStockFromTransaction(transactionEntry, false);
         purchaseOrderRepository.deleteById(transactionEntry.getItemCode());
         inventoryRepository.deleteByItemCode(transactionEntry.getItemCode());
+        fefoAllocator.removeItem(transactionEntry.getItemCode());
         transactionEntryRepository.deleteById(id);
     }
 
@@ -146,23 +149,12 @@ public class TransactionEntryService {
 
     // get the current authenticated user
     private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        System.out.println("Authentication Object: " + auth);
-        System.out.println("Principal: " + auth.getPrincipal());
-        System.out.println("Name (ID): " + auth.getName());
-        if (auth == null || auth.getName() == null) {
-            throw new IllegalArgumentException("No authenticated user found");
-        }
-
-        try {
-            User user = userService.getUserById(Long.parseLong(auth.getName()));
-            if (user == null) {
-                throw new IllegalArgumentException("User not found with ID: " + auth.getName());
-            }
-            return user;
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid user ID format: " + auth.getName());
+        // resolved once per request and kept on the request's principal
+        User user = AuthenticatedUser.current(userService::getSignedInUser);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
         }
+        return user;
     }
     
     private void setAuditFields(TransactionEntry transactionEntry, User user) {
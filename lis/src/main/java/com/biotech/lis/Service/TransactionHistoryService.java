@@ -0,0 +1,287 @@
+package com.biotech.lis.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.biotech.lis.DTO.SaleLineDTO;
+import com.biotech.lis.Entity.TransactionEntry;
+import com.biotech.lis.Repository.CustomerTransactionRepository;
+import com.biotech.lis.Repository.TransactionEntryRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// The combined transaction history behind /transaction/all: legacy transactionEntry rows and the
+// sold lines of customer transactions, newest first. Both tables are read through date-ordered
+// cursors and merged as they are written out, so memory stays flat however long the history is.
+// Rows of one day list the legacy entries first. Rows without a transaction date come after all
+// dated rows, legacy entries first; a date range leaves them out.
+@Service
+public class TransactionHistoryService {
+    // earliest and latest dates a MySQL DATE column holds
+    private static final LocalDate FIRST_DAY = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+
+    private static final int LEGACY = 0;
+    private static final int SALE = 1;
+    private static final int UNDATED_LEGACY = 2;
+    private static final int UNDATED_SALE = 3;
+
+    // rows written between flushes, so the client receives the history while it is produced
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private CustomerTransactionRepository customerTransactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Validates the request before anything is written, so a bad one can still get a 400
+    public HistoryQuery query(LocalDate from, LocalDate to, String cursor, Integer limit) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("'limit' must be positive");
+        }
+        return new HistoryQuery(from != null ? from : FIRST_DAY, to != null ? to : LAST_DAY, from == null && to == null,
+            cursor != null ? Position.decode(cursor) : null, limit);
+    }
+
+    // Writes the history as a JSON array; with a limit, as {"entries": [...], "nextCursor": ...}
+    // where nextCursor continues after the last entry, or is null when there is nothing left.
+    @Transactional(readOnly = true)
+    public void writeHistory(HistoryQuery query, OutputStream out) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        // the response stream is closed by the container, not by the generator
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try (json; Stream<Row> legacy = legacyRows(query); Stream<Row> sales = saleRows(query);
+             Stream<Row> undatedLegacy = undatedLegacyRows(query); Stream<Row> undatedSales = undatedSaleRows(query)) {
+            Comparator<Row> newestFirst = Comparator.comparing((Row row) -> row.date).reversed();
+            Iterator<Row> dated = KWayMerge.merge(List.of(legacy.iterator(), sales.iterator()), newestFirst);
+            Iterator<Row> rows = Stream.concat(
+                Stream.concat(StreamSupport.stream(Spliterators.spliteratorUnknownSize(dated, Spliterator.ORDERED), false),
+                    undatedLegacy),
+                undatedSales).iterator();
+
+            if (query.limit != null) {
+                json.writeStartObject();
+                json.writeFieldName("entries");
+            }
+            json.writeStartArray();
+
+            int written = 0;
+            Row last = null;
+            while (rows.hasNext() && (query.limit == null || written < query.limit)) {
+                last = rows.next();
+                rowWriter.writeValue(json, last.entry);
+                if (++written % FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+            json.writeEndArray();
+
+            if (query.limit != null) {
+                json.writeStringField("nextCursor", last != null && rows.hasNext() ? last.position.encode() : null);
+                json.writeEndObject();
+            }
+        }
+    }
+
+    private Stream<Row> legacyRows(HistoryQuery query) {
+        // legacy rows of the cursor's day follow a legacy cursor row, but all come before a sale cursor row
+        LocalDate beforeDate = query.to.plusDays(1);
+        String beforeRef = "";
+        Position cursor = query.cursor;
+        if (cursor != null && cursor.source >= UNDATED_LEGACY) {
+            return Stream.empty();
+        }
+        if (cursor != null && !cursor.date.isAfter(query.to)) {
+            beforeDate = cursor.date;
+            beforeRef = cursor.source == LEGACY ? cursor.key : "";
+        }
+
+        return transactionEntryRepository.streamEntries(query.from, beforeDate, beforeRef)
+            .map(entry -> new Row(entry, entry.getTransactionDate(),
+                new Position(LEGACY, entry.getTransactionDate(), entry.getDrSIReferenceNum())));
+    }
+
+    private Stream<Row> saleRows(HistoryQuery query) {
+        // every sale of the cursor's day follows a legacy cursor row
+        LocalDateTime before = query.to.plusDays(1).atStartOfDay();
+        long beforeId = Long.MIN_VALUE;
+        Position cursor = query.cursor;
+        if (cursor != null && cursor.source >= UNDATED_LEGACY) {
+            return Stream.empty();
+        }
+        if (cursor != null && !cursor.date.isAfter(query.to)) {
+            if (cursor.source == SALE) {
+                before = cursor.saleTime;
+                beforeId = Long.parseLong(cursor.key);
+            } else {
+                before = cursor.date.plusDays(1).atStartOfDay();
+            }
+        }
+
+        return customerTransactionRepository.streamSaleLines(query.from.atStartOfDay(), before, beforeId)
+            .map(line -> new Row(toEntry(line), line.getTransactionDate().toLocalDate(),
+                new Position(SALE, line.getTransactionDate(), String.valueOf(line.getSoldId()))));
+    }
+
+    private Stream<Row> undatedLegacyRows(HistoryQuery query) {
+        Position cursor = query.cursor;
+        if (!query.undated || cursor != null && cursor.source == UNDATED_SALE) {
+            return Stream.empty();
+        }
+        String beforeRef = cursor != null && cursor.source == UNDATED_LEGACY ? cursor.key : null;
+
+        return transactionEntryRepository.streamUndatedEntries(beforeRef)
+            .map(entry -> new Row(entry, null, new Position(UNDATED_LEGACY, entry.getDrSIReferenceNum())));
+    }
+
+    private Stream<Row> undatedSaleRows(HistoryQuery query) {
+        if (!query.undated) {
+            return Stream.empty();
+        }
+        Position cursor = query.cursor;
+        long beforeId = cursor != null && cursor.source == UNDATED_SALE ? Long.parseLong(cursor.key) : Long.MAX_VALUE;
+
+        return customerTransactionRepository.streamUndatedSaleLines(beforeId)
+            .map(line -> new Row(toEntry(line), null, new Position(UNDATED_SALE, String.valueOf(line.getSoldId()))));
+    }
+
+    // a sold line in the old transactionEntry format; a sale without a date is shown as today's
+    private TransactionEntry toEntry(SaleLineDTO line) {
+        LocalDateTime transactionDate = line.getTransactionDate() != null ? line.getTransactionDate() : LocalDateTime.now();
+        TransactionEntry entry = new TransactionEntry();
+        entry.setDrSIReferenceNum(line.getInvoiceReference() != null ? line.getInvoiceReference() : "N/A");
+        entry.setTransactionDate(transactionDate.toLocalDate());
+        entry.setBrand(line.getBrandName() != null ? line.getBrandName() : "N/A");
+        entry.setProductDescription(line.getItemDescription() != null ? line.getItemDescription() : "N/A");
+        entry.setLotSerialNumber(line.getLotNumber() != null ? line.getLotNumber() : "N/A");
+        // Expiry date is not in Sold item, default to today or handle gracefully
+        entry.setExpiryDate(LocalDate.now());
+        entry.setCost(line.getUnitRetailPrice() != null ? line.getUnitRetailPrice() : 0.0);
+        entry.setQuantity(line.getQuantity() != null ? line.getQuantity() : 0);
+        entry.setStockLocation(line.getLocation() != null ? line.getLocation() : "N/A");
+        entry.setItemCode(line.getItemId() != null ? line.getItemId() : "N/A");
+        entry.setAddedBy(null);
+        entry.setDateTimeAdded(transactionDate);
+        return entry;
+    }
+
+    public static final class HistoryQuery {
+        private final LocalDate from;
+        private final LocalDate to;
+        // no date range was asked for, so the rows without a date are listed too
+        private final boolean undated;
+        private final Position cursor;
+        private final Integer limit;
+
+        private HistoryQuery(LocalDate from, LocalDate to, boolean undated, Position cursor, Integer limit) {
+            this.from = from;
+            this.to = to;
+            this.undated = undated;
+            this.cursor = cursor;
+            this.limit = limit;
+        }
+    }
+
+    private static final class Row {
+        private final TransactionEntry entry;
+        private final LocalDate date;
+        private final Position position;
+
+        Row(TransactionEntry entry, LocalDate date, Position position) {
+            this.entry = entry;
+            this.date = date;
+            this.position = position;
+        }
+    }
+
+    // Where a row sits in the history: its day, the table it came from and its key there. A sale
+    // row also keeps its full transaction time, the order sales are read in. Undated rows have
+    // neither and are placed by their key alone.
+    private static final class Position {
+        private final int source;
+        private final LocalDate date;
+        private final LocalDateTime saleTime;
+        private final String key;
+
+        Position(int source, LocalDate date, String key) {
+            this(source, date, null, key);
+        }
+
+        Position(int source, LocalDateTime saleTime, String key) {
+            this(source, saleTime.toLocalDate(), saleTime, key);
+        }
+
+        Position(int source, String key) {
+            this(source, null, null, key);
+        }
+
+        private Position(int source, LocalDate date, LocalDateTime saleTime, String key) {
+            this.source = source;
+            this.date = date;
+            this.saleTime = saleTime;
+            this.key = key;
+        }
+
+        String encode() {
+            String value = switch (source) {
+                case SALE -> "S|" + saleTime + "|" + key;
+                case UNDATED_LEGACY -> "NL|" + key;
+                case UNDATED_SALE -> "NS|" + key;
+                default -> "L|" + date + "|" + key;
+            };
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (value.startsWith("NL|")) {
+                    return new Position(UNDATED_LEGACY, value.substring(3));
+                }
+                if (value.startsWith("NS|")) {
+                    Long.parseLong(value.substring(3));
+                    return new Position(UNDATED_SALE, value.substring(3));
+                }
+                String[] parts = value.split("\\|", 3);
+                if (parts.length == 3 && parts[0].equals("S")) {
+                    Long.parseLong(parts[2]);
+                    return new Position(SALE, LocalDateTime.parse(parts[1]), parts[2]);
+                }
+                if (parts.length == 3 && parts[0].equals("L")) {
+                    return new Position(LEGACY, LocalDate.parse(parts[1]), parts[2]);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
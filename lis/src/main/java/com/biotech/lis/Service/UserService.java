@@ -3,29 +3,42 @@ package com.biotech.lis.Service;
 import org.springframework.stereotype.Service;
 import com.biotech.lis.Repository.UserRepository;
 import com.biotech.lis.config.JwtService;
+import com.biotech.lis.DTO.CacheStatsDTO;
 import com.biotech.lis.DTO.UserSummary;
 import com.biotech.lis.Entity.LogInReq;
 import com.biotech.lis.Entity.User;
 import com.biotech.lis.Exception.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 
+import java.time.Duration;
 import java.util.logging.Logger;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final PasswordHashingService passwordHashing;
     private static final Logger logger = Logger.getLogger(UserService.class.getName());
 
+    // every write stamps the signed-in user, so they are kept briefly instead of read each time;
+    // only the fields a principal needs, never the password hash
+    private final ReferenceCache<Long, SignedInUser> userCache =
+            new ReferenceCache<>("users", 1000, Duration.ofMinutes(1));
+
     @Autowired
-    public UserService(UserRepository userRepository, JwtService jwtService) {
+    public UserService(UserRepository userRepository, JwtService jwtService, PasswordHashingService passwordHashing) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
+        this.passwordHashing = passwordHashing;
     }
 
-    public User addUser(User user) {
+    // The checks run on the caller's thread; hashing and the save run on the hashing pool. The
+    // future fails with UserAlreadyExistsException or InvalidUserDataException for bad input, and
+    // with RejectedExecutionException when too many hashes are already waiting.
+    public CompletableFuture<User> addUser(User user) {
+        String unhashed_pass;
         try {
             validateUserData(user);
             
@@ -33,30 +46,29 @@ public class UserService {
                 throw new UserAlreadyExistsException("User with email " + user.getEmail() + " already exists");
             }
 
-            String unhashed_pass = String.valueOf(user.getPassword());
+            unhashed_pass = String.valueOf(user.getPassword());
             if (unhashed_pass.length() < 6) {
                 throw new InvalidUserDataException("Password must be at least 6 characters long");
             }
-            
-            String pw_hash = BCrypt.hashpw(unhashed_pass, BCrypt.gensalt(10));
+        } catch (UserAlreadyExistsException | InvalidUserDataException e) {
+            logger.warning("Failed to create user: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            logger.severe("Unexpected error while creating user: " + e.getMessage());
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to create user due to internal error", e));
+        }
+
+        return passwordHashing.encode(unhashed_pass).thenApply(pw_hash -> {
             user.setPassword(pw_hash.toCharArray());
 
             User savedUser = userRepository.save(user);
             logger.info("User created successfully with email: " + user.getEmail());
             logger.info("User created successfully with id: " + user.getUserId());
             return savedUser;
-            
-        } catch (UserAlreadyExistsException | InvalidUserDataException e) {
-            logger.warning("Failed to create user: " + e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            logger.severe("Unexpected error while creating user: " + e.getMessage());
-            throw new RuntimeException("Failed to create user due to internal error", e);
-        }
+        });
     }
 
     public User getUserById(Long id) {
-        System.out.println(id);
         try {
             if (id == null || id <= 0) {
                 throw new InvalidUserDataException("Invalid user ID provided");
@@ -77,6 +89,19 @@ public class UserService {
         }
     }
 
+    // The user a request is signed in as, for stamping writes (see AuthenticatedUser.current).
+    // Read through the cache, and returned without the password.
+    public User getSignedInUser(Long id) {
+        if (id == null || id <= 0) {
+            throw new InvalidUserDataException("Invalid user ID provided");
+        }
+        SignedInUser user = userCache.get(id, key -> userRepository.findById(key).map(SignedInUser::of).orElse(null));
+        if (user == null) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return user.toUser();
+    }
+
     public User getUserByEmail(String email) {
         System.out.println(email);
         try {
@@ -103,18 +128,26 @@ public class UserService {
         }
     }
 
+    public CacheStatsDTO getCacheStats() {
+        return userCache.stats();
+    }
+
     public List<UserSummary> getAllUsers() {
         return userRepository.findAllProjectedBy();
     }
 
 
-    public User updateUser(User user) {
+    // Same threading and failures as addUser; without a new password nothing is hashed and the
+    // future is already complete when it is returned
+    public CompletableFuture<User> updateUser(User user) {
+        User existingUser;
+        String newPassword = null;
         try {
             if (user.getUserId() == null) {
                 throw new InvalidUserDataException("User ID is required for update");
             }
 
-            User existingUser = userRepository.findById(user.getUserId())
+            existingUser = userRepository.findById(user.getUserId())
                     .orElseThrow(() -> new UserNotFoundException("User with ID " + user.getUserId() + " not found"));
 
             if (user.getFirstName() != null && !user.getFirstName().trim().isEmpty()) {
@@ -125,31 +158,39 @@ public class UserService {
             }
             if (user.getEmail() != null && !user.getEmail().trim().isEmpty()) {
                 if (!existingUser.getEmail().equals(user.getEmail()) && userRepository.findUserByEmail(user.getEmail()) != null) {
-                    throw new UserAlreadyExistsException("Email " + user.getEmail() + " is already in use"); //
+                    throw new UserAlreadyExistsException("Email " + user.getEmail() + " is already in use");
                 }
                 existingUser.setEmail(user.getEmail());
             }
 
             if (user.getPassword() != null && user.getPassword().length > 0) {
-                String newPassword = String.valueOf(user.getPassword());
+                newPassword = String.valueOf(user.getPassword());
                 if (newPassword.length() < 6) {
-                    throw new InvalidUserDataException("Password must be at least 6 characters long"); //
+                    throw new InvalidUserDataException("Password must be at least 6 characters long");
                 }
-                String pw_hash = BCrypt.hashpw(newPassword, BCrypt.gensalt(10)); //
-                existingUser.setPassword(pw_hash.toCharArray());
             }
-
-            User updatedUser = userRepository.save(existingUser);
-            logger.info("User updated successfully with ID: " + updatedUser.getUserId()); 
-            return updatedUser;
-
         } catch (UserNotFoundException | UserAlreadyExistsException | InvalidUserDataException e) {
             logger.warning("Failed to update user: " + e.getMessage()); 
-            throw e;
+            return CompletableFuture.failedFuture(e);
         } catch (Exception e) {
             logger.severe("Unexpected error while updating user: " + e.getMessage()); 
-            throw new RuntimeException("Failed to update user due to internal error", e); 
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to update user due to internal error", e));
         }
+
+        if (newPassword == null) {
+            return CompletableFuture.completedFuture(existingUser).thenApply(this::saveUpdate);
+        }
+        return passwordHashing.encode(newPassword).thenApply(pw_hash -> {
+            existingUser.setPassword(pw_hash.toCharArray());
+            return saveUpdate(existingUser);
+        });
+    }
+
+    private User saveUpdate(User existingUser) {
+        User updatedUser = userRepository.save(existingUser);
+        userCache.invalidate(updatedUser.getUserId());
+        logger.info("User updated successfully with ID: " + updatedUser.getUserId()); 
+        return updatedUser;
     }
 
     public void deleteUser(Long id) {
@@ -161,6 +202,7 @@ public class UserService {
             getUserById(id);
             
             userRepository.deleteById(id);
+            userCache.invalidate(id);
             logger.info("User deleted successfully with ID: " + id);
             
         } catch (UserNotFoundException | InvalidUserDataException e) {
@@ -172,7 +214,12 @@ public class UserService {
         }
     }
 
-    public LogInReq logInPass(String email, String password) {
+    // Login with the password check on the hashing pool: the user is read here, the rest runs
+    // when the check is done. Failures complete the future exceptionally with
+    // InvalidCredentialsException or JwtTokenException, or RejectedExecutionException when too
+    // many logins are already waiting.
+    public CompletableFuture<LogInReq> logInPassAsync(String email, String password) {
+        User stored_User;
         try {
             if (email == null || email.trim().isEmpty()) {
                 throw new InvalidCredentialsException("Email address is required");
@@ -187,22 +234,36 @@ public class UserService {
                 throw new InvalidCredentialsException("Please enter a valid email address");
             }
             
-            User stored_User;
             try {
                 stored_User = getUserByEmail(email);
             } catch (UserNotFoundException e) {
                 // Don't reveal that the user doesn't exist for security
                 throw new InvalidCredentialsException("Invalid email address or password");
             }
-            
+        } catch (InvalidCredentialsException e) {
+            logger.warning("Login failed: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            logger.severe("Unexpected error during login: " + e.getMessage());
+            return CompletableFuture.failedFuture(new RuntimeException("Login failed due to internal error", e));
+        }
+
+        return passwordHashing.verify(password, String.valueOf(stored_User.getPassword()))
+                .thenApply(verification -> completeLogIn(stored_User, email, verification));
+    }
+
+    private LogInReq completeLogIn(User stored_User, String email, PasswordHashingService.Verification verification) {
+        try {
             LogInReq request = new LogInReq();
             request.setEmail(email);
             request.setCheck(false);
             
-            if (BCrypt.checkpw(password, String.valueOf(stored_User.getPassword()))) {
+            if (verification.matches()) {
                 request.setCheck(true);
                 request.setPassword("password");
-                System.out.println(stored_User);
+                if (verification.upgradedHash() != null) {
+                    rehash(stored_User, verification.upgradedHash());
+                }
                 try {
                     request.setToken(jwtService.generateToken(stored_User.getUserId()));
                 } catch (Exception e) {
@@ -225,6 +286,17 @@ public class UserService {
             throw new RuntimeException("Login failed due to internal error", e);
         }
     }
+
+    // stores the password hashed with the current cost; the login goes ahead if this fails
+    private void rehash(User stored_User, String upgradedHash) {
+        try {
+            stored_User.setPassword(upgradedHash.toCharArray());
+            userRepository.save(stored_User);
+            logger.info("Password hash upgraded for user ID: " + stored_User.getUserId());
+        } catch (Exception e) {
+            logger.warning("Failed to upgrade password hash: " + e.getMessage());
+        }
+    }
     
     private void validateUserData(User user) {
         if (user == null) {
@@ -255,4 +327,14 @@ public class UserService {
     private boolean isValidEmail(String email) {
         return email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
     }
+
+    private record SignedInUser(Long userId, String firstName, String lastName, String email) {
+        static SignedInUser of(User user) {
+            return new SignedInUser(user.getUserId(), user.getFirstName(), user.getLastName(), user.getEmail());
+        }
+
+        User toUser() {
+            return new User(userId, firstName, lastName, email, null);
+        }
+    }
 }
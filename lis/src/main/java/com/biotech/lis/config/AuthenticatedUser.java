@@ -0,0 +1,60 @@
+package com.biotech.lis.config;
+
+import java.security.Principal;
+import java.util.function.Function;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.biotech.lis.Entity.User;
+
+// The principal JwtAuthenticationFilter puts on the SecurityContext: the user id from the token,
+// plus the User it belongs to once a service asks for it. The context lives for one request, so
+// the user is looked up at most once per request however many writes stamp it.
+public final class AuthenticatedUser implements Principal {
+    private final Long userId;
+    private volatile User user;
+
+    public AuthenticatedUser(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    // the user id, as Authentication.getName() has always returned it
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    // The user signed in on this request. lookup (normally UserService::getSignedInUser) is called
+    // the first time only; an authentication set up some other way is looked up on every call.
+    public static User current(Function<Long, User> lookup) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null) {
+            throw new IllegalArgumentException("No authenticated user found");
+        }
+
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            User resolved = principal.user;
+            if (resolved == null) {
+                resolved = lookup.apply(principal.userId);
+                principal.user = resolved;
+            }
+            return resolved;
+        }
+
+        try {
+            return lookup.apply(Long.parseLong(auth.getName()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid user ID format: " + auth.getName());
+        }
+    }
+}
@@ -33,12 +33,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter{
         
         if(header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if(jwtService.validateToken(token)) {
-                String username = jwtService.extractId(token);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            // one signature check gives both validity and the user id
+            jwtService.verifiedSubject(token).ifPresent(userId -> {
+                try {
+                    AuthenticatedUser principal = new AuthenticatedUser(Long.valueOf(userId));
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } catch (NumberFormatException e) {
+                    // not a token this application issued; the request stays anonymous
+                }
+            });
         }
 
         chain.doFilter(request, response);
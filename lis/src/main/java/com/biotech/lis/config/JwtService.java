@@ -1,14 +1,26 @@
 package com.biotech.lis.config;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.biotech.lis.DTO.CacheStatsDTO;
+import com.biotech.lis.Service.ReferenceCache;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 import javax.crypto.SecretKey;
 
@@ -21,18 +33,26 @@ public class JwtService {
     private String secretKey;
 
     private long expirationMs = 1800000; //adjust according to client's preference 30 mins right now
+
+    // built once from the secret; both are immutable and safe to share between requests
     private SecretKey codedKey;
+    private JwtParser parser;
+
+    private record VerifiedToken(String subject, long expiresAtMillis) {}
 
-    public void getSignInKey() {
+    // one entry per signed-in client; an entry lives until its token's exp, at most a token's lifetime
+    private final ReferenceCache<String, VerifiedToken> verifiedTokens =
+            new ReferenceCache<>("verified-tokens", 10000, Duration.ofMillis(expirationMs));
+
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         this.codedKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(codedKey).build();
     }
 
     //generates user token
     public String generateToken(Long userId) {
-        System.out.println("balls");
-        System.out.println(userId);
-        getSignInKey();
         return Jwts.builder()
                    .subject(userId.toString())
                    .issuedAt(new Date())
@@ -41,25 +61,51 @@ public class JwtService {
                    .compact();
     }
 
-    //checks if token is still valid
-    public boolean validateToken(String token) {
+    // Returns the token's subject (the user id), or empty when the token is malformed, tampered
+    // with or expired. A token is verified once; after that it is answered from memory until it
+    // expires, so clients polling with the same token skip the signature check.
+    public Optional<String> verifiedSubject(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        VerifiedToken verified = verifiedTokens.get(digest(token), key -> verify(token),
+                cached -> Duration.ofMillis(cached.expiresAtMillis() - System.currentTimeMillis()));
+        return verified != null ? Optional.of(verified.subject()) : Optional.empty();
+    }
+
+    public CacheStatsDTO getCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    private VerifiedToken verify(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null) {
+                return null;
+            }
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            return new VerifiedToken(claims.getSubject(), expiresAt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // tokens are kept by their SHA-256, so the cache never holds a usable credential
+    private static String digest(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(codedKey)
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
+    //checks if token is still valid
+    public boolean validateToken(String token) {
+        return verifiedSubject(token).isPresent();
+    }
+
     public String extractId(String token) {
-        Claims claims = Jwts.parser()
-                            .verifyWith(codedKey)
-                            .build()
-                            .parseSignedClaims(token)
-                            .getPayload();
-        return claims.getSubject(); // Extracts the id
+        return parser.parseSignedClaims(token).getPayload().getSubject(); // Extracts the id
     }
 }
@@ -0,0 +1,18 @@
+package com.biotech.lis.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordConfig {
+
+    // BCrypt with a configurable cost (log2 rounds, 4-31). Each step up doubles the time a hash or
+    // a login takes; hashes stored with a lower cost are upgraded as their users log in.
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
+    }
+}
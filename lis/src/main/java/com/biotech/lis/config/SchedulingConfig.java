@@ -0,0 +1,10 @@
+package com.biotech.lis.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// turns on the @Scheduled passes (the daily expiry alert refresh, the FEFO and search index reloads)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
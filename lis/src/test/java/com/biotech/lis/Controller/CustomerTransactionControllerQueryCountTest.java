@@ -0,0 +1,120 @@
+package com.biotech.lis.Controller;
+
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.Sold;
+import com.biotech.lis.Service.CustomerTransactionService;
+import com.biotech.lis.Service.DailySalesRollupService;
+import com.biotech.lis.Service.FefoAllocator;
+import com.biotech.lis.Service.LocationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Calls /sales/v1/getTransactions against H2 and serializes the result the way the response is
+// written, counting the JDBC statements Hibernate prepares on the way
+@DataJpaTest
+@Import({CustomerTransactionController.class, CustomerTransactionService.class, DailySalesRollupService.class,
+    FefoAllocator.class, LocationService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class CustomerTransactionControllerQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CustomerTransactionController controller;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    private int nextInvoice = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    private void seedTransactions(int count, int linesEach) {
+        for (int i = 0; i < count; i++) {
+            List<Sold> items = new ArrayList<>();
+            for (int line = 1; line <= linesEach; line++) {
+                Sold sold = new Sold();
+                sold.setItemId("ITEM" + line);
+                sold.setQuantity(line);
+                items.add(sold);
+            }
+            CustomerTransaction transaction = new CustomerTransaction();
+            transaction.setInvoiceReference("INV" + nextInvoice++);
+            transaction.setTransactionDate(LocalDateTime.of(2024, 5, 1, 12, 0));
+            transaction.setTotalRetailPrice(50.0);
+            transaction.setItems(items);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private JsonNode getTransactions() throws Exception {
+        entityManager.clear();
+        List<CustomerTransaction> body = controller.getTransactions().getBody();
+        // serialization is where lazy items would be loaded one transaction at a time
+        return objectMapper.readTree(objectMapper.writeValueAsString(body));
+    }
+
+    @Test
+    void testGetTransactions_StatementCountIndependentOfTransactionCount() throws Exception {
+        seedTransactions(2, 2);
+        statistics.clear();
+        getTransactions();
+        long fewTransactions = statistics.getPrepareStatementCount();
+
+        seedTransactions(48, 3);
+        statistics.clear();
+        getTransactions();
+        long manyTransactions = statistics.getPrepareStatementCount();
+
+        assertEquals(1, fewTransactions);
+        assertEquals(fewTransactions, manyTransactions);
+    }
+
+    @Test
+    void testGetTransactions_EveryTransactionOnceWithAllItsItems() throws Exception {
+        seedTransactions(5, 3);
+
+        JsonNode result = getTransactions();
+
+        assertEquals(5, result.size());
+        for (JsonNode transaction : result) {
+            assertEquals(3, transaction.get("items").size());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.biotech.lis.Controller;
 
+import com.biotech.lis.DTO.InventoryPageDTO;
 import com.biotech.lis.Entity.Inventory;
 import com.biotech.lis.Entity.InventoryPayload;
 import com.biotech.lis.Entity.ItemLoc;
@@ -20,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -363,6 +365,70 @@ public class InventoryControllerTest {
         verify(inventoryService, times(1)).getLowestStock();
     }
 
+    @Test
+    public void testGetTopStock_WithLimit() throws Exception {
+        // Setup
+        Inventory inv1 = new Inventory();
+        inv1.setItemCode("ITEM002");
+        inv1.setQuantity(200);
+
+        InventoryPayload payload1 = new InventoryPayload(inv1, Collections.singletonList(new ItemLoc(1, "ITEM002", 200)));
+
+        when(inventoryService.getHighestStock(1)).thenReturn(Collections.singletonList(payload1));
+
+        // Execute & Verify
+        mockMvc.perform(get("/inv/v1/getTopStock").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].inventory.quantity").value(200));
+
+        verify(inventoryService, times(1)).getHighestStock(1);
+        verify(inventoryService, never()).getHighestStock();
+    }
+
+    @Test
+    public void testGetLowStock_InvalidLimit() throws Exception {
+        // Setup
+        when(inventoryService.getLowestStock(0)).thenThrow(new IllegalArgumentException("Page size must be at least 1"));
+
+        // Execute & Verify
+        mockMvc.perform(get("/inv/v1/getLowStock").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetTopStockPage_Success() throws Exception {
+        // Setup
+        Inventory inv1 = new Inventory();
+        inv1.setItemCode("ITEM002");
+        inv1.setQuantity(200);
+
+        InventoryPayload payload1 = new InventoryPayload(inv1, Collections.singletonList(new ItemLoc(1, "ITEM002", 200)));
+        InventoryPageDTO page = new InventoryPageDTO(Collections.singletonList(payload1), "next");
+
+        when(inventoryService.getHighestStockPage(1, null)).thenReturn(page);
+
+        // Execute & Verify
+        mockMvc.perform(get("/inv/v1/getTopStockPage").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].inventory.quantity").value(200))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(inventoryService, times(1)).getHighestStockPage(1, null);
+    }
+
+    @Test
+    public void testGetTopStockPage_InvalidCursor() throws Exception {
+        // Setup
+        when(inventoryService.getHighestStockPage(anyInt(), anyString()))
+            .thenThrow(new IllegalArgumentException("Invalid cursor: bad"));
+
+        // Execute & Verify
+        mockMvc.perform(get("/inv/v1/getTopStockPage").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testAddInventory_WithAllRequiredFields() throws Exception {
         // Setup - User Story 2: All required fields
@@ -1,6 +1,9 @@
 package com.biotech.lis.Controller;
 
+import com.biotech.lis.DTO.PurchaseOrderImportReportDTO;
+import com.biotech.lis.DTO.PurchaseOrderImportRowDTO;
 import com.biotech.lis.Entity.PurchaseOrder;
+import com.biotech.lis.Service.PurchaseOrderImportService;
 import com.biotech.lis.Service.PurchaseOrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -16,6 +19,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +33,9 @@ public class PurchaseOrderControllerTest {
     @MockBean
     private PurchaseOrderService purchaseOrderService;
 
+    @MockBean
+    private PurchaseOrderImportService purchaseOrderImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -204,4 +211,30 @@ public class PurchaseOrderControllerTest {
         verify(purchaseOrderService, times(1)).getPurchaseOrderByCode("NONEXISTENT");
         verify(purchaseOrderService, never()).deletePurchaseOrder(anyString());
     }
+
+    @Test
+    public void testImportPurchaseOrders_Csv() throws Exception {
+        PurchaseOrderImportReportDTO report = new PurchaseOrderImportReportDTO(1, 1, 0,
+            Collections.singletonList(new PurchaseOrderImportRowDTO(2, "CREATED", "TR0000", null)));
+        when(purchaseOrderImportService.importPurchaseOrders(any(), eq(PurchaseOrderImportService.Format.CSV)))
+            .thenReturn(report);
+
+        mockMvc.perform(post("/PO/v1/importPOs")
+                .contentType("text/csv")
+                .content("brandId,quantity,unitCost,poPireference\n1,5,100.0,REF123\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].itemCode").value("TR0000"));
+    }
+
+    @Test
+    public void testImportPurchaseOrders_UnreadableBody() throws Exception {
+        when(purchaseOrderImportService.importPurchaseOrders(any(), eq(PurchaseOrderImportService.Format.NDJSON)))
+            .thenThrow(new IllegalArgumentException("CSV body is empty"));
+
+        mockMvc.perform(post("/PO/v1/importPOs")
+                .contentType("application/x-ndjson")
+                .content(""))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDate;
@@ -272,4 +273,72 @@ public class InventoryRepositoryTest {
         assertTrue(exists);
         assertFalse(notExists);
     }
+
+    @Test
+    public void testQuantityKeysetPages_WalkAllRowsWithoutDuplicates() {
+        // Two rows share quantity 30 so the itemCode tie-breaker is exercised
+        entityManager.persistAndFlush(createSampleInventory("ITEM001", "PO-001", 50));
+        entityManager.persistAndFlush(createSampleInventory("ITEM002", "PO-002", 30));
+        entityManager.persistAndFlush(createSampleInventory("ITEM003", "PO-003", 30));
+        entityManager.persistAndFlush(createSampleInventory("ITEM004", "PO-004", 10));
+        entityManager.persistAndFlush(createSampleInventory("ITEM005", "PO-005", null));
+
+        List<Inventory> firstPage = inventoryRepository.findByQuantityNotNullOrderByQuantityDescItemCodeDesc(Limit.of(2));
+        assertEquals(2, firstPage.size());
+        assertEquals("ITEM001", firstPage.get(0).getItemCode());
+        assertEquals("ITEM003", firstPage.get(1).getItemCode());
+
+        Inventory last = firstPage.get(1);
+        List<Inventory> secondPage = inventoryRepository.findQuantityDescAfter(last.getQuantity(), last.getItemCode(), Limit.of(2));
+        assertEquals(2, secondPage.size());
+        assertEquals("ITEM002", secondPage.get(0).getItemCode());
+        assertEquals("ITEM004", secondPage.get(1).getItemCode());
+
+        last = secondPage.get(1);
+        assertTrue(inventoryRepository.findQuantityDescAfter(last.getQuantity(), last.getItemCode(), Limit.of(2)).isEmpty());
+
+        List<Inventory> lowest = inventoryRepository.findByQuantityNotNullOrderByQuantityAscItemCodeAsc(Limit.of(3));
+        assertEquals("ITEM004", lowest.get(0).getItemCode());
+        assertEquals("ITEM002", lowest.get(1).getItemCode());
+        assertEquals("ITEM003", lowest.get(2).getItemCode());
+
+        List<Inventory> afterLowest = inventoryRepository.findQuantityAscAfter(30, "ITEM003", Limit.of(3));
+        assertEquals(1, afterLowest.size());
+        assertEquals("ITEM001", afterLowest.get(0).getItemCode());
+    }
+
+    @Test
+    public void testItemCodeKeysetPages() {
+        entityManager.persistAndFlush(createSampleInventory("ITEM003", "PO-003", 30));
+        entityManager.persistAndFlush(createSampleInventory("ITEM001", "PO-001", 50));
+        entityManager.persistAndFlush(createSampleInventory("ITEM002", "PO-002", 30));
+
+        List<Inventory> firstPage = inventoryRepository.findAllByOrderByItemCodeAsc(Limit.of(2));
+        assertEquals(List.of("ITEM001", "ITEM002"), firstPage.stream().map(Inventory::getItemCode).toList());
+
+        List<Inventory> secondPage = inventoryRepository.findByItemCodeGreaterThanOrderByItemCodeAsc("ITEM002", Limit.of(2));
+        assertEquals(List.of("ITEM003"), secondPage.stream().map(Inventory::getItemCode).toList());
+    }
+
+    @Test
+    public void testItemCodeRanges_CoverEveryRowOnce() {
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(createSampleInventory("ITEM00" + i, "PO-00" + i, i * 10));
+        }
+        entityManager.flush();
+
+        List<String> firstCodes = inventoryRepository.findItemCodes(Limit.of(2));
+        assertEquals(List.of("ITEM001", "ITEM002"), firstCodes);
+        assertEquals(List.of("ITEM003", "ITEM004"), inventoryRepository.findItemCodesAfter("ITEM002", Limit.of(2)));
+
+        // (null, ITEM002], (ITEM002, ITEM004], (ITEM004, null]
+        List<Inventory> first = inventoryRepository.findItemCodeRange(null, "ITEM002");
+        List<Inventory> middle = inventoryRepository.findItemCodeRange("ITEM002", "ITEM004");
+        List<Inventory> last = inventoryRepository.findItemCodeRange("ITEM004", null);
+
+        assertEquals(List.of("ITEM001", "ITEM002"), first.stream().map(Inventory::getItemCode).toList());
+        assertEquals(List.of("ITEM003", "ITEM004"), middle.stream().map(Inventory::getItemCode).toList());
+        assertEquals(List.of("ITEM005"), last.stream().map(Inventory::getItemCode).toList());
+        assertEquals(5, inventoryRepository.findItemCodeRange(null, null).size());
+    }
 }
@@ -1,6 +1,7 @@
 package com.biotech.lis.Repository;
 
 import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.ItemLocId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -8,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.TestPropertySource;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,4 +180,21 @@ public class ItemLocRepositoryTest {
                 .sum();
         assertEquals(50, totalQty);
     }
+
+    @Test
+    public void testDeductQuantities_OnlyRowsWithEnoughStock() {
+        entityManager.persistAndFlush(createSampleItemLoc(1, "ITEM001", 30));
+        entityManager.persistAndFlush(createSampleItemLoc(2, "ITEM001", 5));
+        entityManager.persistAndFlush(createSampleItemLoc(3, "ITEM002", 40));
+
+        int updated = itemLocRepository.deductQuantities(Map.of(
+            "ITEM001", Map.of(1, 10, 2, 6),
+            "ITEM002", Map.of(3, 40)));
+
+        // location 2 holds only 5, so it is left alone and reported as not updated
+        assertEquals(2, updated);
+        assertEquals(20, itemLocRepository.findById(new ItemLocId("ITEM001", 1)).get().getQuantity());
+        assertEquals(5, itemLocRepository.findById(new ItemLocId("ITEM001", 2)).get().getQuantity());
+        assertEquals(0, itemLocRepository.findById(new ItemLocId("ITEM002", 3)).get().getQuantity());
+    }
 }
@@ -0,0 +1,59 @@
+package com.biotech.lis.Repository;
+
+import com.biotech.lis.Entity.LocationStock;
+import com.biotech.lis.Entity.LocationStockId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class LocationStockRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Test
+    public void testFindItemCodesByTotalQuantityDesc_SumsAcrossLocationsAndStopsAtLimit() {
+        entityManager.persist(new LocationStock("ITEM001", 1, 30));
+        entityManager.persist(new LocationStock("ITEM001", 2, 30));
+        entityManager.persist(new LocationStock("ITEM002", 1, 50));
+        entityManager.persist(new LocationStock("ITEM003", 3, 60));
+        entityManager.persist(new LocationStock("ITEM004", 2, 5));
+        entityManager.flush();
+
+        // ITEM001 leads on its two locations together, ties go to the lower item code
+        assertEquals(List.of("ITEM001", "ITEM003", "ITEM002"),
+            locationStockRepository.findItemCodesByTotalQuantityDesc(Limit.of(3)));
+        assertEquals(List.of("ITEM001"), locationStockRepository.findItemCodesByTotalQuantityDesc(Limit.of(1)));
+    }
+
+    @Test
+    public void testAddQuantity_ChangesTheRowInPlaceAndRefusesToGoBelowZero() {
+        entityManager.persist(new LocationStock("ITEM001", 1, 10));
+        entityManager.flush();
+
+        assertEquals(1, locationStockRepository.addQuantity("ITEM001", 1, 5));
+        assertEquals(1, locationStockRepository.addQuantity("ITEM001", 1, -15));
+        assertEquals(0, locationStockRepository.addQuantity("ITEM001", 1, -1));
+        assertEquals(0, locationStockRepository.addQuantity("ITEM001", 2, 5));
+
+        assertEquals(0, locationStockRepository.findById(new LocationStockId("ITEM001", 1)).orElseThrow().getQuantity());
+    }
+}
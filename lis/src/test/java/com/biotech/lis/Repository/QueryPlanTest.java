@@ -0,0 +1,214 @@
+package com.biotech.lis.Repository;
+
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs EXPLAIN on H2 for the SQL Hibernate generates for the filtered repository queries and
+// fails when one of them reads a table from start to end. Queries that are meant to read a
+// whole table (findAll, the dashboard aggregates, the legacy column copy) are not listed, nor
+// are the lookups on the small reference tables (brand, Location, stockLocatorSyncJob). The
+// stock locator lookups compare LOWER() of the columns, which no column index can serve.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.biotech.lis.Repository.QueryPlanTest$SqlRecorder",
+    "spring.datasource.url=jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class QueryPlanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemLocRepository itemLocRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private TransactionEntryRepository transactionEntryRepository;
+
+    @Autowired
+    private CustomerTransactionRepository customerTransactionRepository;
+
+    @Autowired
+    private StockLocatorSyncChunkRepository chunkRepository;
+
+    // Collects every statement Hibernate prepares; installed through the statement_inspector property
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        SqlRecorder.statements.clear();
+    }
+
+    // EXPLAIN of every SELECT recorded since the last call. The plans only depend on the SQL,
+    // so the parameters are bound to null.
+    private List<String> explainRecorded() {
+        List<String> selects = SqlRecorder.statements.stream()
+            .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+            .toList();
+        SqlRecorder.statements.clear();
+        assertFalse(selects.isEmpty(), "no query was run");
+
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            List<String> plans = new ArrayList<>();
+            for (String sql : selects) {
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                    int parameters = explain.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameters; i++) {
+                        explain.setObject(i, null);
+                    }
+                    try (ResultSet plan = explain.executeQuery()) {
+                        plan.next();
+                        plans.add(plan.getString(1));
+                    }
+                }
+            }
+            return plans;
+        });
+    }
+
+    private void assertNoTableScan() {
+        for (String plan : explainRecorded()) {
+            assertFalse(plan.contains(".tableScan"), "full table scan in:\n" + plan);
+        }
+    }
+
+    @Test
+    void testEntityIndexes_AreInTestSchema() {
+        Set<String> schemaIndexes = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT UPPER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class));
+
+        for (EntityType<?> entity : entityManager.getEntityManager().getMetamodel().getEntities()) {
+            Table table = entity.getJavaType().getAnnotation(Table.class);
+            if (table == null) continue;
+            for (Index index : table.indexes()) {
+                assertTrue(schemaIndexes.contains(index.name().toUpperCase(Locale.ROOT)),
+                    index.name() + " is declared on " + entity.getName() + " but missing from schema.sql");
+            }
+        }
+    }
+
+    @Test
+    void testItemLocLookups_UseItemCodeIndex() {
+        itemLocRepository.findByItemCode("ITEM001");
+        assertNoTableScan();
+
+        itemLocRepository.findByItemCodeIn(List.of("ITEM001", "ITEM002"));
+        assertNoTableScan();
+    }
+
+    @Test
+    void testLocationStockLookups_UsePrimaryKey() {
+        locationStockRepository.findByItemCode("ITEM001");
+        assertNoTableScan();
+
+        locationStockRepository.findByItemCodeIn(List.of("ITEM001", "ITEM002"));
+        assertNoTableScan();
+    }
+
+    @Test
+    void testInventoryRanges_UseIndexes() {
+        inventoryRepository.findByQuantityLessThanEqual(10);
+        assertNoTableScan();
+
+        inventoryRepository.findExpiriesFrom(LocalDate.now());
+        assertNoTableScan();
+
+        inventoryRepository.findByItemCodeGreaterThanOrderByItemCodeAsc("ITEM001", Limit.of(20));
+        assertNoTableScan();
+    }
+
+    @Test
+    void testPurchaseOrderLatestOfBrand_UsesBrandIndex() {
+        purchaseOrderRepository.findTopByBrandIdOrderByItemCodeDesc(1);
+        assertNoTableScan();
+    }
+
+    @Test
+    void testTransactionEntryLookups_UseIndexes() {
+        transactionEntryRepository.findByItemCode("ITEM001");
+        assertNoTableScan();
+
+        transactionEntryRepository.findByTransactionDateBetween(LocalDate.now().minusDays(7), LocalDate.now());
+        assertNoTableScan();
+
+        try (Stream<?> entries = transactionEntryRepository.streamEntries(
+                LocalDate.now().minusDays(7), LocalDate.now(), "DR-001")) {
+            entries.findFirst();
+        }
+        assertNoTableScan();
+    }
+
+    @Test
+    void testCustomerTransactionLookups_UseIndexes() {
+        customerTransactionRepository.existsByInvoiceReference("INV-001");
+        assertNoTableScan();
+
+        // the sold lines are reached through the transaction_id index, not a scan of sold_items
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<?> lines = customerTransactionRepository.streamSaleLines(now.minusDays(7), now, Long.MAX_VALUE)) {
+            lines.findFirst();
+        }
+        assertNoTableScan();
+    }
+
+    @Test
+    void testSyncChunkLookups_UseJobIndex() {
+        chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(1L, "DONE");
+        assertNoTableScan();
+
+        chunkRepository.countByJobIdAndStatus(1L, "FAILED");
+        assertNoTableScan();
+
+        chunkRepository.sumItemsSynced(1L);
+        assertNoTableScan();
+    }
+}
@@ -0,0 +1,65 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.Brand;
+import com.biotech.lis.Repository.BrandRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BrandServiceTest {
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private ItemCodeAllocator itemCodeAllocator;
+
+    @InjectMocks
+    private BrandService brandService;
+
+    @Test
+    void testGetBrandById_EachCallerGetsItsOwnCopy() {
+        when(brandRepository.findById(1)).thenReturn(Optional.of(new Brand(1, "Sigma", "Sa", 4)));
+
+        Brand first = brandService.getBrandById(1);
+        first.setBrandName("changed by a caller");
+        Brand second = brandService.getBrandById(1);
+
+        assertEquals("Sigma", second.getBrandName());
+        assertNotSame(first, second);
+        verify(brandRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void testUpdateBrand_EvictsOnlyAfterCommit() {
+        when(brandRepository.findById(1))
+            .thenReturn(Optional.of(new Brand(1, "Sigma", "Sa", 4)))
+            .thenReturn(Optional.of(new Brand(1, "Sigma-Aldrich", "Sa", 4)));
+        when(brandRepository.findByBrandName("Sigma")).thenReturn(Optional.of(new Brand(1, "Sigma", "Sa", 4)));
+        when(brandRepository.save(any(Brand.class))).thenAnswer(call -> call.getArgument(0));
+        brandService.getBrandById(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            brandService.updateBrand("Sigma", new Brand(null, "Sigma-Aldrich", null, null));
+            // still inside the write transaction: readers keep the committed row
+            assertEquals("Sigma", brandService.getBrandById(1).getBrandName());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("Sigma-Aldrich", brandService.getBrandById(1).getBrandName());
+    }
+}
@@ -0,0 +1,164 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.Location;
+import com.biotech.lis.Entity.Sold;
+import com.biotech.lis.Repository.CustomerTransactionRepository;
+import com.biotech.lis.Repository.InventoryRepository;
+import com.biotech.lis.Repository.ItemLocRepository;
+import com.biotech.lis.Repository.LocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sells the same stock from 32 threads at once, each sale in its own committed transaction
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CustomerTransactionService.class, DailySalesRollupService.class, FefoAllocator.class, LocationService.class})
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.datasource.url=jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.hikari.maximum-pool-size=16",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class CustomerTransactionServiceConcurrencyTest {
+
+    private static final int SELLERS = 32;
+
+    @Autowired
+    private CustomerTransactionService customerTransactionService;
+
+    @Autowired
+    private CustomerTransactionRepository customerTransactionRepository;
+
+    @Autowired
+    private ItemLocRepository itemLocRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private Location location;
+
+    @BeforeEach
+    void setUp() {
+        location = locationRepository.save(new Location(null, "Cebu"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerTransactionRepository.deleteAll();
+        itemLocRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        locationRepository.deleteAll();
+    }
+
+    private void stock(String itemCode, int quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setQuantity(quantity);
+        inventoryRepository.save(inventory);
+        itemLocRepository.save(new ItemLoc(location.getLocationId(), itemCode, quantity));
+    }
+
+    private CustomerTransaction sale(int seller, String itemCode, int quantity) {
+        Sold sold = new Sold();
+        sold.setItemId(itemCode);
+        sold.setItemDescription("Reagent");
+        sold.setQuantity(quantity);
+        sold.setLocation("Cebu");
+
+        CustomerTransaction transaction = new CustomerTransaction();
+        transaction.setInvoiceReference("INV-" + seller);
+        transaction.setTotalRetailPrice(10.0);
+        transaction.setItems(new ArrayList<>(List.of(sold)));
+        return transaction;
+    }
+
+    // runs every seller at the same moment and returns how many sales went through
+    private int sellConcurrently(String itemCode, int quantityEach) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SELLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> sellers = new ArrayList<>();
+        try {
+            for (int i = 0; i < SELLERS; i++) {
+                CustomerTransaction transaction = sale(i, itemCode, quantityEach);
+                sellers.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        customerTransactionService.createTransaction(transaction);
+                        sold.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> seller : sellers) {
+                seller.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(SELLERS, sold.get() + refused.get());
+        return sold.get();
+    }
+
+    private int itemLocQuantity(String itemCode) {
+        return itemLocRepository.findByItemCode(itemCode).get(0).getQuantity();
+    }
+
+    @Test
+    void testCreateTransaction_NoLostUpdatesUnderConcurrentSales() throws Exception {
+        stock("ITEM001", 100);
+
+        int sold = sellConcurrently("ITEM001", 2);
+
+        assertEquals(SELLERS, sold);
+        assertEquals(100 - SELLERS * 2, itemLocQuantity("ITEM001"));
+        assertEquals(100 - SELLERS * 2, inventoryRepository.findById("ITEM001").get().getQuantity());
+        assertEquals(SELLERS, customerTransactionRepository.count());
+    }
+
+    @Test
+    void testCreateTransaction_NeverOversellsContendedStock() throws Exception {
+        stock("ITEM002", 20);
+
+        int sold = sellConcurrently("ITEM002", 1);
+
+        // exactly the available stock is sold and every refused sale left nothing behind
+        assertEquals(20, sold);
+        assertEquals(0, itemLocQuantity("ITEM002"));
+        assertEquals(0, inventoryRepository.findById("ITEM002").get().getQuantity());
+        assertEquals(20, customerTransactionRepository.count());
+    }
+}
@@ -0,0 +1,261 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.Location;
+import com.biotech.lis.Entity.Sold;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sells invoices of different sizes against H2 and counts the JDBC statements Hibernate prepares
+@DataJpaTest
+@Import({CustomerTransactionService.class, DailySalesRollupService.class, FefoAllocator.class, LocationService.class})
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class CustomerTransactionServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CustomerTransactionService customerTransactionService;
+
+    @Autowired
+    private FefoAllocator fefoAllocator;
+
+    private Statistics statistics;
+
+    private int nextInvoice = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    // a location holding quantity of itemCode, with the same inventory total
+    private String stock(String itemCode, int quantity) {
+        Location location = entityManager.persist(new Location(null, "Shelf " + itemCode));
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setQuantity(quantity);
+        entityManager.persist(inventory);
+        entityManager.persist(new ItemLoc(location.getLocationId(), itemCode, quantity));
+        entityManager.flush();
+        return location.getLocationName();
+    }
+
+    // a lot of the same product as the other lots, stocked at a location of its own
+    private String lot(String itemCode, int lotNum, LocalDate expiry, int quantity) {
+        String shelf = stock(itemCode, quantity);
+        Inventory inventory = entityManager.find(Inventory.class, itemCode);
+        inventory.setBrandId(1);
+        inventory.setItemDescription("Buffer Solution");
+        inventory.setLotNum(lotNum);
+        inventory.setExpiry(expiry);
+        entityManager.flush();
+        return shelf;
+    }
+
+    private Sold line(String itemCode, String location, int quantity) {
+        Sold sold = new Sold();
+        sold.setItemId(itemCode);
+        sold.setItemDescription("Reagent " + itemCode);
+        sold.setQuantity(quantity);
+        sold.setLocation(location);
+        return sold;
+    }
+
+    private CustomerTransaction invoice(List<Sold> lines) {
+        CustomerTransaction transaction = new CustomerTransaction();
+        transaction.setInvoiceReference("INV-" + nextInvoice++);
+        transaction.setTotalRetailPrice(10.0);
+        transaction.setItems(new ArrayList<>(lines));
+        return transaction;
+    }
+
+    private List<Sold> stockedLines(String prefix, int count) {
+        List<Sold> lines = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            String itemCode = prefix + i;
+            lines.add(line(itemCode, stock(itemCode, 10), 3));
+        }
+        entityManager.clear();
+        return lines;
+    }
+
+    // statements spent on anything but inserting the invoice and its lines
+    private long statementsBesideInserts(CustomerTransaction transaction) {
+        statistics.clear();
+        customerTransactionService.createTransaction(transaction);
+        entityManager.flush();
+        return statistics.getPrepareStatementCount() - statistics.getEntityInsertCount();
+    }
+
+    private int itemLocQuantity(String itemCode) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT l.quantity FROM ItemLoc l WHERE l.itemCode = :itemCode", Integer.class)
+                .setParameter("itemCode", itemCode)
+                .getSingleResult();
+    }
+
+    private int inventoryQuantity(String itemCode) {
+        entityManager.clear();
+        return entityManager.find(Inventory.class, itemCode).getQuantity();
+    }
+
+    @Test
+    void testCreateTransaction_DeductionStatementsIndependentOfLineCount() {
+        long oneLine = statementsBesideInserts(invoice(stockedLines("ONE", 1)));
+        long fortyLines = statementsBesideInserts(invoice(stockedLines("FORTY", 40)));
+
+        // duplicate check, locations, item-locations, one UPDATE each for item-locations and
+        // inventory, and the batched update linking the lines to the invoice
+        assertTrue(oneLine <= 6, "statements: " + oneLine);
+        assertEquals(oneLine, fortyLines);
+        assertEquals(7, itemLocQuantity("FORTY40"));
+        assertEquals(7, inventoryQuantity("FORTY1"));
+    }
+
+    @Test
+    void testCreateTransaction_ShortLineRejectsWholeInvoice() {
+        List<Sold> lines = stockedLines("ITEM", 3);
+        lines.get(2).setQuantity(11);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(lines)));
+
+        assertEquals("Insufficient stock for item Reagent ITEM3 at Shelf ITEM3", e.getMessage());
+        assertEquals(10, itemLocQuantity("ITEM1"));
+        assertEquals(10, inventoryQuantity("ITEM1"));
+    }
+
+    @Test
+    void testCreateTransaction_AddsUpLinesOfTheSameStock() {
+        String shelf = stock("ITEM001", 10);
+
+        // 6 and 5 each fit, together they don't
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(List.of(
+                line("ITEM001", shelf, 6), line("ITEM001", shelf, 5)))));
+        assertTrue(e.getMessage().startsWith("Insufficient stock"));
+
+        customerTransactionService.createTransaction(invoice(List.of(
+            line("ITEM001", shelf, 6), line("ITEM001", shelf, 4))));
+        assertEquals(0, itemLocQuantity("ITEM001"));
+        assertEquals(0, inventoryQuantity("ITEM001"));
+    }
+
+    @Test
+    void testCreateTransaction_ItemsSharingALocationEachCheckTheirOwnStock() {
+        String shelf = stock("ITEM001", 10);
+        Location shared = entityManager.getEntityManager()
+                .createQuery("SELECT l FROM Location l WHERE l.locationName = :name", Location.class)
+                .setParameter("name", shelf)
+                .getSingleResult();
+        Inventory other = new Inventory();
+        other.setItemCode("ITEM002");
+        other.setQuantity(4);
+        entityManager.persist(other);
+        entityManager.persist(new ItemLoc(shared.getLocationId(), "ITEM002", 4));
+        entityManager.flush();
+        entityManager.clear();
+
+        // ITEM002 has only 4 on the shelf, however much ITEM001 has there
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(List.of(
+                line("ITEM001", shelf, 3), line("ITEM002", shelf, 5)))));
+        assertEquals("Insufficient stock for item Reagent ITEM002 at " + shelf, e.getMessage());
+
+        customerTransactionService.createTransaction(invoice(List.of(
+            line("ITEM001", shelf, 3), line("ITEM002", shelf, 4))));
+        entityManager.flush();
+        assertEquals(7, itemLocQuantity("ITEM001"));
+        assertEquals(0, itemLocQuantity("ITEM002"));
+        assertEquals(7, inventoryQuantity("ITEM001"));
+        assertEquals(0, inventoryQuantity("ITEM002"));
+    }
+
+    @Test
+    void testCreateTransaction_UnknownLocationOrItemRejected() {
+        String shelf = stock("ITEM001", 10);
+        stock("ITEM002", 10);
+
+        IllegalArgumentException noLocation = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(List.of(line("ITEM001", "Nowhere", 1)))));
+        assertEquals("Location not found: Nowhere", noLocation.getMessage());
+
+        IllegalArgumentException notThere = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(List.of(line("ITEM002", shelf, 1)))));
+        assertEquals("Item ITEM002 not found at location " + shelf, notThere.getMessage());
+    }
+
+    @Test
+    void testCreateTransaction_LineWithoutLocationTakesEarliestExpiryFirst() {
+        LocalDate today = LocalDate.now();
+        lot("LOT-LATE", 3, today.plusMonths(6), 10);
+        String soonShelf = lot("LOT-SOON", 2, today.plusDays(10), 4);
+        lot("LOT-EXPIRED", 1, today.minusDays(1), 10);
+        entityManager.clear();
+        fefoAllocator.loadIndex();
+
+        CustomerTransaction saved = customerTransactionService.createTransaction(
+            invoice(List.of(line("LOT-LATE", null, 6))), true);
+
+        // the expired lot is skipped, the one expiring soonest is emptied first
+        assertEquals(2, saved.getItems().size());
+        assertEquals("LOT-SOON", saved.getItems().get(0).getItemId());
+        assertEquals(soonShelf, saved.getItems().get(0).getLocation());
+        assertEquals("2", saved.getItems().get(0).getLotNumber());
+        assertEquals(4, saved.getItems().get(0).getQuantity());
+        assertEquals("LOT-LATE", saved.getItems().get(1).getItemId());
+        assertEquals(2, saved.getItems().get(1).getQuantity());
+        entityManager.flush();
+        assertEquals(0, itemLocQuantity("LOT-SOON"));
+        assertEquals(8, itemLocQuantity("LOT-LATE"));
+        assertEquals(10, itemLocQuantity("LOT-EXPIRED"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+            customerTransactionService.createTransaction(invoice(List.of(line("LOT-LATE", null, 20))), true));
+        assertTrue(e.getMessage().startsWith("Insufficient stock"));
+    }
+
+    @Test
+    void testCreateTransaction_LineWithoutLocationDeductsNothingUnlessAsked() {
+        lot("LOT-LATE", 3, LocalDate.now().plusMonths(6), 10);
+        entityManager.clear();
+
+        // not indexed and more than is in stock: the line is recorded as sold, as before FEFO picking
+        CustomerTransaction saved = customerTransactionService.createTransaction(
+            invoice(List.of(line("LOT-LATE", null, 20))));
+
+        assertEquals(1, saved.getItems().size());
+        assertNull(saved.getItems().get(0).getLocation());
+        entityManager.flush();
+        assertEquals(10, itemLocQuantity("LOT-LATE"));
+    }
+}
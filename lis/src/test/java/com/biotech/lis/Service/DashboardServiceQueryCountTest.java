@@ -0,0 +1,184 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.DTO.DashboardStatsDTO;
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.DailySalesRollup;
+import com.biotech.lis.Entity.Sold;
+import com.biotech.lis.Repository.DailySalesRollupRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs DashboardService and the daily sales rollup against H2 and counts the JDBC statements Hibernate prepares.
+// H2 runs in MySQL mode so the rollup's upsert is rendered and run as it is in production.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DashboardService.class, DailySalesRollupService.class, CustomerTransactionService.class, FefoAllocator.class,
+    LocationService.class})
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class DashboardServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private CustomerTransactionService customerTransactionService;
+
+    @Autowired
+    private DailySalesRollupService rollupService;
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    private Statistics statistics;
+
+    private int nextInvoice = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    // one transaction of two lines, quantities 1 and 2, worth 100, recorded through the service
+    private List<CustomerTransaction> seedTransactions(LocalDateTime date, int count) {
+        List<CustomerTransaction> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Sold> items = new ArrayList<>();
+            for (int quantity = 1; quantity <= 2; quantity++) {
+                Sold sold = new Sold();
+                sold.setItemId("ITEM" + quantity);
+                sold.setQuantity(quantity);
+                sold.setUnitRetailPrice(100.0 / 3);
+                items.add(sold);
+            }
+
+            CustomerTransaction transaction = new CustomerTransaction();
+            transaction.setInvoiceReference("INV" + nextInvoice++);
+            transaction.setTransactionDate(date);
+            transaction.setTotalRetailPrice(100.0);
+            transaction.setItems(items);
+            created.add(customerTransactionService.createTransaction(transaction));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    private List<DailySalesRollup> rollupRows() {
+        entityManager.clear();
+        return rollupRepository.findAll().stream()
+                .filter(day -> day.getTransactionCount() != 0)
+                .sorted((a, b) -> a.getSalesDate().compareTo(b.getSalesDate()))
+                .toList();
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testGetDashboardStats_SumsOnlyTheRequestedPeriod() {
+        seedTransactions(LocalDateTime.of(2024, 7, 1, 0, 0), 2);
+        seedTransactions(LocalDateTime.of(2024, 7, 31, 23, 59, 59), 1);
+        seedTransactions(LocalDateTime.of(2024, 6, 30, 23, 59, 59), 4);
+        seedTransactions(LocalDateTime.of(2024, 8, 1, 0, 0), 5);
+
+        DashboardStatsDTO stats = dashboardService.getDashboardStats("monthly", "2024-07");
+
+        assertEquals(3, stats.getTotalTransactions());
+        assertEquals(300.0, stats.getTotalTransactionValue(), 1e-9);
+        assertEquals(9, stats.getTotalQuantityTransacted());
+        assertEquals("monthly", stats.getPeriod());
+        assertEquals("2024-07", stats.getDateRange());
+    }
+
+    @Test
+    void testGetDashboardStats_EmptyPeriodIsZero() {
+        seedTransactions(LocalDateTime.of(2023, 1, 15, 12, 0), 3);
+
+        DashboardStatsDTO stats = dashboardService.getDashboardStats("daily", "2024-01-15");
+
+        assertEquals(0, stats.getTotalTransactions());
+        assertEquals(0.0, stats.getTotalTransactionValue());
+        assertEquals(0, stats.getTotalQuantityTransacted());
+    }
+
+    @Test
+    void testGetDashboardStats_CostIndependentOfHistoryLength() {
+        LocalDateTime today = LocalDateTime.of(2024, 7, 16, 10, 0);
+        seedTransactions(today, 2);
+        seedTransactions(today.minusYears(1), 3);
+        long shortHistory = countStatements(() -> dashboardService.getDashboardStats("daily", "2024-07-16"));
+        long shortLoads = statistics.getEntityLoadCount();
+
+        seedTransactions(today.minusYears(2), 200);
+        long longHistory = countStatements(() -> dashboardService.getDashboardStats("daily", "2024-07-16"));
+
+        // one sum over the rollup rows, and no transaction or item is ever loaded
+        assertEquals(1, shortHistory);
+        assertEquals(shortHistory, longHistory);
+        assertEquals(0, shortLoads);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testDeleteTransaction_TakesItBackOutOfItsDay() {
+        List<CustomerTransaction> created = seedTransactions(LocalDateTime.of(2024, 3, 5, 9, 30), 3);
+
+        customerTransactionService.deleteTransaction(created.get(0).getTransactionId());
+        entityManager.flush();
+
+        DashboardStatsDTO stats = dashboardService.getDashboardStats("daily", "2024-03-05");
+        assertEquals(2, stats.getTotalTransactions());
+        assertEquals(200.0, stats.getTotalTransactionValue(), 1e-9);
+        assertEquals(6, stats.getTotalQuantityTransacted());
+    }
+
+    @Test
+    void testRebuild_MatchesIncrementallyMaintainedRollup() {
+        seedTransactions(LocalDateTime.of(2022, 12, 31, 23, 0), 2);
+        seedTransactions(LocalDateTime.of(2023, 1, 1, 8, 0), 1);
+        List<CustomerTransaction> created = seedTransactions(LocalDateTime.of(2023, 1, 1, 17, 45), 2);
+        customerTransactionService.deleteTransaction(created.get(1).getTransactionId());
+        entityManager.flush();
+        List<DailySalesRollup> incremental = rollupRows();
+
+        int days = rollupService.rebuild();
+        entityManager.flush();
+
+        assertEquals(2, days);
+        assertEquals(incremental, rollupRows());
+        assertEquals(new DailySalesRollup(LocalDate.of(2023, 1, 1), 2L, 200.0, 6L), incremental.get(1));
+    }
+}
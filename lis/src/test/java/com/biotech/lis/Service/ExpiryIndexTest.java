@@ -0,0 +1,49 @@
+package com.biotech.lis.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiryIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 1);
+
+    private ExpiryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ExpiryIndex();
+        index.load(Map.of(
+            "ITEM003", DAY.plusDays(3),
+            "ITEM001", DAY,
+            "ITEM010", DAY.plusDays(10),
+            "ITEM003B", DAY.plusDays(3)));
+    }
+
+    @Test
+    void testExpiringBetween_InclusiveRangeSoonestFirst() {
+        assertEquals(List.of("ITEM001", "ITEM003", "ITEM003B"), index.expiringBetween(DAY, DAY.plusDays(3)));
+        assertEquals(List.of("ITEM010"), index.expiringBetween(DAY.plusDays(4), DAY.plusDays(30)));
+        assertTrue(index.expiringBetween(DAY.plusDays(11), DAY.plusDays(30)).isEmpty());
+        assertTrue(index.expiringBetween(DAY.plusDays(3), DAY).isEmpty());
+    }
+
+    @Test
+    void testPutAndRemove_MoveItemsBetweenDays() {
+        long loaded = index.version();
+
+        index.put("ITEM010", DAY.plusDays(1));
+        index.put("ITEM003", null);
+        index.remove("ITEM001");
+        index.put("ITEM002", DAY.plusDays(2));
+
+        assertEquals(List.of("ITEM010", "ITEM002", "ITEM003B"), index.expiringBetween(DAY, DAY.plusDays(30)));
+        assertEquals(3, index.size());
+        assertEquals(loaded + 4, index.version());
+    }
+}
@@ -0,0 +1,136 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.DTO.PickDTO;
+import com.biotech.lis.DTO.PickListDTO;
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Repository.InventoryRepository;
+import com.biotech.lis.Repository.ItemLocRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FefoAllocatorTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ItemLocRepository itemLocRepository;
+
+    @Mock
+    private LocationService locationService;
+
+    @InjectMocks
+    private FefoAllocator fefoAllocator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(locationService.getLocationNamesById()).thenReturn(Map.of(1, "Cebu", 2, "Limbaga", 3, "Gandia"));
+
+        // three lots of one product, one lot of another; BUF-OLD is past its expiry
+        when(inventoryRepository.findAll()).thenReturn(List.of(
+            lot("BUF-LATE", 7, TODAY.plusMonths(6)),
+            lot("BUF-SOON", 8, TODAY.plusDays(5)),
+            lot("BUF-OLD", 6, TODAY.minusDays(1)),
+            lot("BUF-NONE", null, null),
+            other("ETH-1", TODAY.plusDays(1))));
+        when(itemLocRepository.findAll()).thenReturn(List.of(
+            new ItemLoc(1, "BUF-LATE", 10),
+            new ItemLoc(2, "BUF-SOON", 3),
+            new ItemLoc(3, "BUF-SOON", 2),
+            new ItemLoc(1, "BUF-OLD", 50),
+            new ItemLoc(2, "BUF-NONE", 5),
+            new ItemLoc(1, "ETH-1", 50)));
+        fefoAllocator.loadIndex();
+    }
+
+    private Inventory lot(String itemCode, Integer lotNum, LocalDate expiry) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setBrandId(1);
+        inventory.setItemDescription(itemCode.startsWith("BUF-L") ? "Buffer Solution" : "buffer  solution");
+        inventory.setLotNum(lotNum);
+        inventory.setExpiry(expiry);
+        return inventory;
+    }
+
+    private Inventory other(String itemCode, LocalDate expiry) {
+        Inventory inventory = lot(itemCode, 1, expiry);
+        inventory.setItemDescription("Ethanol");
+        return inventory;
+    }
+
+    private List<String> picked(PickListDTO pickList) {
+        return pickList.getPicks().stream()
+            .map(pick -> pick.getItemCode() + "@" + pick.getLocationName() + "x" + pick.getQuantity())
+            .toList();
+    }
+
+    @Test
+    void testAllocate_TakesEarliestExpiryFirstAcrossLotsAndLocations() {
+        PickListDTO pickList = fefoAllocator.allocate("BUF-LATE", 7);
+
+        assertEquals(List.of("BUF-SOON@Limbagax3", "BUF-SOON@Gandiax2", "BUF-LATE@Cebux2"), picked(pickList));
+        assertEquals(0, pickList.getShortfall());
+        PickDTO first = pickList.getPicks().get(0);
+        assertEquals(8, first.getLotNum());
+        assertEquals(TODAY.plusDays(5), first.getExpiry());
+    }
+
+    @Test
+    void testAllocate_LotsWithoutExpiryLastAndExpiredNever() {
+        PickListDTO pickList = fefoAllocator.allocate("BUF-SOON", 30);
+
+        assertEquals(List.of("BUF-SOON@Limbagax3", "BUF-SOON@Gandiax2", "BUF-LATE@Cebux10", "BUF-NONE@Limbagax5"),
+            picked(pickList));
+        assertEquals(30, pickList.getRequested());
+        assertEquals(10, pickList.getShortfall());
+    }
+
+    @Test
+    void testAllocate_RejectsUnknownItemAndBadQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> fefoAllocator.allocate("MISSING", 1));
+        assertThrows(IllegalArgumentException.class, () -> fefoAllocator.allocate("BUF-LATE", 0));
+    }
+
+    @Test
+    void testAllocate_ReadsLotAddedSinceLoad() {
+        // saved on another node after this one loaded its index
+        when(inventoryRepository.findById("BUF-NEW")).thenReturn(Optional.of(lot("BUF-NEW", 9, TODAY.plusDays(1))));
+        when(itemLocRepository.findByItemCode("BUF-NEW")).thenReturn(List.of(new ItemLoc(3, "BUF-NEW", 4)));
+
+        assertEquals(List.of("BUF-NEW@Gandiax4", "BUF-SOON@Limbagax1"), picked(fefoAllocator.allocate("BUF-NEW", 5)));
+        assertEquals(List.of("BUF-NEW@Gandiax1"), picked(fefoAllocator.allocate("BUF-SOON", 1)));
+        verify(inventoryRepository, times(1)).findById("BUF-NEW");
+    }
+
+    @Test
+    void testDeductAndPutItem_KeepIndexInStepWithWrites() {
+        fefoAllocator.deduct(Map.of("BUF-SOON", Map.of(2, 3)));
+        assertEquals(List.of("BUF-SOON@Gandiax2", "BUF-LATE@Cebux1"), picked(fefoAllocator.allocate("BUF-LATE", 3)));
+
+        // BUF-LATE is relabelled as an earlier lot and moved to Gandia
+        Inventory relabelled = lot("BUF-LATE", 9, TODAY.plusDays(2));
+        fefoAllocator.putItem(relabelled, List.of(new ItemLoc(3, "BUF-LATE", 4)));
+        assertEquals(List.of("BUF-LATE@Gandiax4", "BUF-SOON@Gandiax1"), picked(fefoAllocator.allocate("BUF-SOON", 5)));
+
+        fefoAllocator.removeItem("BUF-SOON");
+        assertEquals(List.of("BUF-LATE@Gandiax4", "BUF-NONE@Limbagax1"), picked(fefoAllocator.allocate("BUF-LATE", 5)));
+        assertThrows(IllegalArgumentException.class, () -> fefoAllocator.allocate("BUF-SOON", 1));
+    }
+}
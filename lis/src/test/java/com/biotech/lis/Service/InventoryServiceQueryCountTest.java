@@ -0,0 +1,189 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.InventoryPayload;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Runs InventoryService against H2 and counts the JDBC statements Hibernate prepares
+@DataJpaTest
+@Import(InventoryService.class)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class InventoryServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private BrandService brandService;
+
+    @MockBean
+    private StockLocatorService stockLocatorService;
+
+    @MockBean
+    private PurchaseOrderService purchaseOrderService;
+
+    @MockBean
+    private FefoAllocator fefoAllocator;
+
+    private Statistics statistics;
+
+    // itemLoc is keyed by locationId, so every seeded row needs its own id
+    private int nextLocationId = 1;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void seedItems(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            Inventory inventory = new Inventory();
+            inventory.setItemCode(String.format("ITEM%04d", i));
+            inventory.setItemDescription("Item " + i);
+            inventory.setBrandId(1);
+            inventory.setQuantity(i);
+            entityManager.persist(inventory);
+
+            entityManager.persist(new ItemLoc(nextLocationId++, inventory.getItemCode(), i / 2));
+            entityManager.persist(new ItemLoc(nextLocationId++, inventory.getItemCode(), i - i / 2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testGetInventoriesWithLocations_StatementCountIndependentOfItemCount() {
+        seedItems(1, 3);
+        long fewItems = countStatements(() -> inventoryService.getInventoriesWithLocations());
+
+        seedItems(4, 47);
+        long manyItems = countStatements(() -> inventoryService.getInventoriesWithLocations());
+
+        assertEquals(2, fewItems);
+        assertEquals(fewItems, manyItems);
+    }
+
+    @Test
+    void testGetInventoriesWithLocations_GroupsLocationsPerItem() {
+        seedItems(1, 10);
+
+        List<InventoryPayload> result = inventoryService.getInventoriesWithLocations();
+
+        assertEquals(10, result.size());
+        for (InventoryPayload payload : result) {
+            String itemCode = payload.getInventory().getItemCode();
+            assertEquals(2, payload.getLocations().size());
+            assertTrue(payload.getLocations().stream().allMatch(loc -> itemCode.equals(loc.getItemCode())));
+            assertEquals(payload.getInventory().getQuantity(),
+                    payload.getLocations().stream().mapToInt(ItemLoc::getQuantity).sum());
+        }
+    }
+
+    @Test
+    void testGetStockAlerts_StatementCountIndependentOfItemCount() {
+        seedItems(1, 5);
+        long fewItems = countStatements(() -> inventoryService.getStockAlerts(1000));
+
+        seedItems(6, 45);
+        long manyItems = countStatements(() -> inventoryService.getStockAlerts(1000));
+
+        assertEquals(2, fewItems);
+        assertEquals(fewItems, manyItems);
+    }
+
+    private void authenticateAs(long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        when(userService.getSignedInUser(userId)).thenReturn(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(String.valueOf(userId), null, List.of()));
+    }
+
+    private InventoryPayload newItemPayload(String itemCode, int locationCount) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setItemDescription("New " + itemCode);
+        inventory.setBrandId(1);
+        inventory.setQuantity(locationCount * 10);
+
+        List<ItemLoc> locations = new ArrayList<>();
+        for (int i = 0; i < locationCount; i++) {
+            locations.add(new ItemLoc(nextLocationId++, null, 10));
+        }
+        return new InventoryPayload(inventory, locations);
+    }
+
+    @Test
+    void testAddInventory_LocationInsertsAreBatched() {
+        authenticateAs(1L);
+        InventoryPayload oneLocation = newItemPayload("NEW0001", 1);
+        InventoryPayload sevenLocations = newItemPayload("NEW0002", 7);
+
+        long single = countStatements(() -> {
+            inventoryService.addInventory(oneLocation);
+            entityManager.flush();
+        });
+        long many = countStatements(() -> {
+            inventoryService.addInventory(sevenLocations);
+            entityManager.flush();
+        });
+
+        // SELECT + INSERT for the inventory row, then one batched INSERT for every location
+        assertEquals(8, statistics.getEntityInsertCount());
+        assertTrue(many <= 3, "expected at most 3 statements but got " + many);
+        assertEquals(single, many);
+        entityManager.clear();
+        assertEquals(7L, entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(l) FROM ItemLoc l WHERE l.itemCode = 'NEW0002'", Long.class)
+                .getSingleResult());
+    }
+}
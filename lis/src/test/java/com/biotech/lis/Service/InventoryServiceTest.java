@@ -1,5 +1,6 @@
 package com.biotech.lis.Service;
 
+import com.biotech.lis.DTO.InventoryPageDTO;
 import com.biotech.lis.Entity.*;
 import com.biotech.lis.Repository.InventoryRepository;
 import com.biotech.lis.Repository.ItemLocRepository;
@@ -11,18 +12,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -53,6 +61,9 @@ public class InventoryServiceTest {
     @Mock
     private TransactionEntryRepository transactionEntryRepository;
 
+    @Mock
+    private FefoAllocator fefoAllocator;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -77,7 +88,7 @@ public class InventoryServiceTest {
         // Use lenient() to avoid unnecessary errors for tests that don't need auth
         lenient().when(authentication.getName()).thenReturn("1");
         lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
-        lenient().when(userService.getUserById(1L)).thenReturn(mockUser);
+        lenient().when(userService.getSignedInUser(1L)).thenReturn(mockUser);
 
         // Create sample inventory
         sampleInventory = new Inventory();
@@ -129,7 +140,6 @@ public class InventoryServiceTest {
         savedInventory.setDateTimeAdded(LocalDateTime.now());
 
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(savedInventory);
-        when(itemLocRepository.save(any(ItemLoc.class))).thenAnswer(i -> i.getArgument(0));
 
         // Execute
         Inventory result = inventoryService.addInventory(payload);
@@ -141,8 +151,9 @@ public class InventoryServiceTest {
         assertNotNull(result.getDateTimeAdded());
         
         // Verify repository interactions
-        verify(inventoryRepository, times(2)).save(any(Inventory.class));
-        verify(itemLocRepository, times(2)).save(any(ItemLoc.class));
+        verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(itemLocRepository, times(1)).saveAll(argThat(locs -> ((List<ItemLoc>) locs).size() == 2));
+        verify(itemLocRepository, never()).save(any(ItemLoc.class));
     }
 
     @Test
@@ -157,21 +168,23 @@ public class InventoryServiceTest {
         InventoryPayload payload = new InventoryPayload(sampleInventory, multipleLocations);
         
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(sampleInventory);
-        when(itemLocRepository.save(any(ItemLoc.class))).thenAnswer(i -> i.getArgument(0));
 
         // Execute
         Inventory result = inventoryService.addInventory(payload);
 
-        // Verify
+        // Verify - all three locations go to the repository in a single saveAll call
         assertNotNull(result);
-        verify(itemLocRepository, times(3)).save(any(ItemLoc.class));
+        verify(itemLocRepository, times(1)).saveAll(anyList());
+        verify(itemLocRepository, never()).save(any(ItemLoc.class));
         
         // Verify each location was saved with correct itemCode and quantity
-        // Note: There are TWO locations with quantity 30, so we verify at least once
-        verify(itemLocRepository, atLeastOnce()).save(argThat(loc -> 
-            loc.getItemCode().equals("ITEM001") && loc.getQuantity() == 30));
-        verify(itemLocRepository, times(1)).save(argThat(loc -> 
-            loc.getItemCode().equals("ITEM001") && loc.getQuantity() == 40));
+        verify(itemLocRepository).saveAll(argThat(locs -> {
+            List<ItemLoc> saved = (List<ItemLoc>) locs;
+            return saved.size() == 3
+                && saved.stream().allMatch(loc -> "ITEM001".equals(loc.getItemCode()))
+                && saved.stream().filter(loc -> loc.getQuantity() == 30).count() == 2
+                && saved.stream().filter(loc -> loc.getQuantity() == 40).count() == 1;
+        }));
     }
 
     @Test
@@ -184,14 +197,14 @@ public class InventoryServiceTest {
         InventoryPayload payload = new InventoryPayload(sampleInventory, singleLocation);
         
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(sampleInventory);
-        when(itemLocRepository.save(any(ItemLoc.class))).thenReturn(singleLoc);
 
         // Execute
         Inventory result = inventoryService.addInventory(payload);
 
         // Verify
         assertNotNull(result);
-        verify(itemLocRepository, times(1)).save(any(ItemLoc.class));
+        assertEquals(sampleInventory.getItemCode(), singleLoc.getItemCode());
+        verify(itemLocRepository, times(1)).saveAll(singleLocation);
     }
 
     @Test
@@ -212,8 +225,7 @@ public class InventoryServiceTest {
         ItemLoc loc3 = new ItemLoc(1, "ITEM002", 80);
 
         when(inventoryRepository.findAll()).thenReturn(inventories);
-        when(itemLocRepository.findByItemCode("ITEM001")).thenReturn(Arrays.asList(loc1, loc2));
-        when(itemLocRepository.findByItemCode("ITEM002")).thenReturn(Collections.singletonList(loc3));
+        when(itemLocRepository.findAll()).thenReturn(Arrays.asList(loc1, loc2, loc3));
 
         // Execute
         List<InventoryPayload> result = inventoryService.getInventoriesWithLocations();
@@ -227,8 +239,8 @@ public class InventoryServiceTest {
         assertEquals(1, result.get(1).getLocations().size());
 
         verify(inventoryRepository, times(1)).findAll();
-        verify(itemLocRepository, times(1)).findByItemCode("ITEM001");
-        verify(itemLocRepository, times(1)).findByItemCode("ITEM002");
+        verify(itemLocRepository, times(1)).findAll();
+        verify(itemLocRepository, never()).findByItemCode(anyString());
     }
 
     @Test
@@ -275,14 +287,13 @@ public class InventoryServiceTest {
         inv3.setItemCode("ITEM003");
         inv3.setQuantity(25);
 
-        List<Inventory> inventories = Arrays.asList(inv1, inv2, inv3);
-        when(inventoryRepository.findAll()).thenReturn(inventories);
-        when(itemLocRepository.findByItemCode(anyString())).thenReturn(Collections.emptyList());
+        when(inventoryRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(inv2, inv1, inv3));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(Collections.emptyList());
 
         // Execute
         List<InventoryPayload> result = inventoryService.getHighestStock();
 
-        // Verify - Should be sorted in descending order
+        // Verify - Should keep the order the database returned
         assertNotNull(result);
         assertEquals(3, result.size());
         assertEquals(100, result.get(0).getInventory().getQuantity());
@@ -305,14 +316,13 @@ public class InventoryServiceTest {
         inv3.setItemCode("ITEM003");
         inv3.setQuantity(25);
 
-        List<Inventory> inventories = Arrays.asList(inv1, inv2, inv3);
-        when(inventoryRepository.findAll()).thenReturn(inventories);
-        when(itemLocRepository.findByItemCode(anyString())).thenReturn(Collections.emptyList());
+        when(inventoryRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(inv3, inv1, inv2));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(Collections.emptyList());
 
         // Execute
         List<InventoryPayload> result = inventoryService.getLowestStock();
 
-        // Verify - Should be sorted in ascending order
+        // Verify - Should keep the order the database returned
         assertNotNull(result);
         assertEquals(3, result.size());
         assertEquals(25, result.get(0).getInventory().getQuantity());
@@ -320,6 +330,55 @@ public class InventoryServiceTest {
         assertEquals(100, result.get(2).getInventory().getQuantity());
     }
 
+    @Test
+    void testGetHighestStockPage_ReturnsCursorWhenMoreRowsExist() {
+        // Setup - page size 2, repository returns the extra lookahead row
+        Inventory inv1 = new Inventory();
+        inv1.setItemCode("ITEM002");
+        inv1.setQuantity(100);
+
+        Inventory inv2 = new Inventory();
+        inv2.setItemCode("ITEM001");
+        inv2.setQuantity(50);
+
+        Inventory inv3 = new Inventory();
+        inv3.setItemCode("ITEM003");
+        inv3.setQuantity(25);
+
+        when(inventoryRepository.findByQuantityNotNullOrderByQuantityDescItemCodeDesc(any(Limit.class)))
+            .thenReturn(Arrays.asList(inv1, inv2, inv3));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(Collections.emptyList());
+
+        // Execute
+        InventoryPageDTO firstPage = inventoryService.getHighestStockPage(2, null);
+
+        // Verify
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals("ITEM002", firstPage.getItems().get(0).getInventory().getItemCode());
+        assertEquals("ITEM001", firstPage.getItems().get(1).getInventory().getItemCode());
+        assertNotNull(firstPage.getNextCursor());
+
+        // The cursor seeks past the last row of the previous page
+        when(inventoryRepository.findQuantityDescAfter(eq(50), eq("ITEM001"), any(Limit.class)))
+            .thenReturn(Collections.singletonList(inv3));
+
+        InventoryPageDTO secondPage = inventoryService.getHighestStockPage(2, firstPage.getNextCursor());
+
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals("ITEM003", secondPage.getItems().get(0).getInventory().getItemCode());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testGetInventoryPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () ->
+            inventoryService.getHighestStockPage(10, "not a cursor!")
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            inventoryService.getInventoryPage(0, null)
+        );
+    }
+
     @Test
     void testUpdateInventory_Success() {
         // Setup
@@ -350,9 +409,8 @@ public class InventoryServiceTest {
 
         when(inventoryRepository.getReferenceById("ITEM001")).thenReturn(existingInventory);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(existingInventory);
-        when(itemLocRepository.findByItemCode("ITEM001")).thenReturn(newLocations);
         doNothing().when(itemLocRepository).deleteByItemCode("ITEM001");
-        when(itemLocRepository.save(any(ItemLoc.class))).thenAnswer(i -> i.getArgument(0));
+        when(itemLocRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
 
         // Execute
         InventoryPayload result = inventoryService.updateInventory(payload);
@@ -365,7 +423,38 @@ public class InventoryServiceTest {
         verify(inventoryRepository, times(1)).getReferenceById("ITEM001");
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
         verify(itemLocRepository, times(1)).deleteByItemCode("ITEM001");
-        verify(itemLocRepository, times(2)).save(any(ItemLoc.class));
+        verify(itemLocRepository, times(1)).saveAll(newLocations);
+        verify(itemLocRepository, times(1)).findByItemCode("ITEM001");
+    }
+
+    @Test
+    void testUpdateInventory_PassesOldAndNewLocationsToStockLocator() {
+        // Setup
+        setupAuthentication();
+        Inventory existingInventory = new Inventory();
+        existingInventory.setItemCode("ITEM001");
+        existingInventory.setBrandId(1);
+
+        Brand brand = new Brand();
+        brand.setBrandName("Sigma");
+
+        ItemLoc newLoc = new ItemLoc(1, null, 75);
+        InventoryPayload payload = new InventoryPayload(sampleInventory, Collections.singletonList(newLoc));
+
+        when(inventoryRepository.getReferenceById("ITEM001")).thenReturn(existingInventory);
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(i -> i.getArgument(0));
+        when(itemLocRepository.findByItemCode("ITEM001")).thenReturn(sampleLocations);
+        when(itemLocRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        when(brandService.getBrandById(1)).thenReturn(brand);
+
+        // Execute
+        inventoryService.updateInventory(payload);
+
+        // Verify - only the before/after quantities per locationId go to the projection, no full rewrite
+        verify(stockLocatorService, times(1)).applyInventoryChange(
+            "ITEM001", "Sigma", "Test Chemical Reagent",
+            Map.of(1, 60, 2, 40),
+            Map.of(1, 75));
     }
 
     @Test
@@ -383,7 +472,7 @@ public class InventoryServiceTest {
 
         verify(inventoryRepository, times(1)).getReferenceById("ITEM001");
         verify(inventoryRepository, never()).save(any(Inventory.class));
-        verify(itemLocRepository, never()).save(any(ItemLoc.class));
+        verify(itemLocRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -412,13 +501,156 @@ public class InventoryServiceTest {
             assertNotNull(saved.getDateTimeAdded());
             return saved;
         });
-        when(itemLocRepository.save(any(ItemLoc.class))).thenAnswer(i -> i.getArgument(0));
 
         // Execute
         inventoryService.addInventory(payload);
 
         // Verify
-        verify(userService, times(1)).getUserById(1L);
-        verify(inventoryRepository, times(2)).save(any(Inventory.class));
+        verify(userService, times(1)).getSignedInUser(1L);
+        verify(inventoryRepository, times(1)).save(any(Inventory.class));
+    }
+
+    @Test
+    void testSyncStockLocatorRange_RebuildsItemsInRange() {
+        // Setup
+        Inventory first = new Inventory();
+        first.setItemCode("ITEM001");
+        Inventory second = new Inventory();
+        second.setItemCode("ITEM002");
+        Map<Integer, String> brandNames = Map.of(1, "Sigma");
+        Map<Integer, String> locationNames = Map.of(1, "Cebu");
+
+        when(inventoryRepository.findItemCodeRange(null, "ITEM002")).thenReturn(Arrays.asList(first, second));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(Collections.emptyList());
+        when(stockLocatorService.rebuildFromInventory(anyList(), eq(brandNames), eq(locationNames))).thenReturn(2);
+
+        // Execute
+        int synced = inventoryService.syncStockLocatorRange(null, "ITEM002", brandNames, locationNames);
+
+        // Verify - one location query for the whole range, no per-item brand lookups
+        assertEquals(2, synced);
+        verify(itemLocRepository, times(1)).findByItemCodeIn(anyList());
+        verify(brandService, never()).getBrandById(any());
+    }
+
+    @Test
+    void testSyncStockLocatorRange_EmptyRange() {
+        when(inventoryRepository.findItemCodeRange("ITEM009", null)).thenReturn(Collections.emptyList());
+
+        assertEquals(0, inventoryService.syncStockLocatorRange("ITEM009", null, Map.of(), Map.of()));
+        verify(stockLocatorService, never()).rebuildFromInventory(anyList(), anyMap(), anyMap());
+    }
+
+    private Inventory expiring(String itemCode, int inDays) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setExpiry(LocalDate.now().plusDays(inDays));
+        inventory.setQuantity(10);
+        return inventory;
+    }
+
+    // the daily pass over three items expiring in 20, 2 and 5 days
+    private void refreshExpiryAlerts() {
+        LocalDate today = LocalDate.now();
+        ReflectionTestUtils.setField(inventoryService, "expiryAlertDays", 30);
+        when(inventoryRepository.findExpiriesFrom(today)).thenReturn(List.of(
+            new Object[] {"ITEM020", today.plusDays(20)},
+            new Object[] {"ITEM002", today.plusDays(2)},
+            new Object[] {"ITEM005", today.plusDays(5)}));
+        inventoryService.refreshExpiryAlerts();
+    }
+
+    @Test
+    void testGetExpiryAlerts_SoonestFirstWithinDays() {
+        refreshExpiryAlerts();
+        when(inventoryRepository.findAllById(List.of("ITEM002", "ITEM005")))
+            .thenReturn(List.of(expiring("ITEM005", 5), expiring("ITEM002", 2)));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(List.of(new ItemLoc(1, "ITEM002", 4)));
+
+        List<InventoryPayload> alerts = inventoryService.getExpiryAlerts(7);
+
+        assertEquals(List.of("ITEM002", "ITEM005"), alerts.stream().map(p -> p.getInventory().getItemCode()).toList());
+        assertEquals(1, alerts.get(0).getLocations().size());
+        assertTrue(alerts.get(1).getLocations().isEmpty());
+    }
+
+    @Test
+    void testGetExpiryAlerts_PrecomputedListFollowsDeletes() {
+        refreshExpiryAlerts();
+        when(inventoryRepository.findAllById(anyList())).thenAnswer(call -> {
+            List<String> itemCodes = call.getArgument(0);
+            return itemCodes.stream().map(itemCode -> expiring(itemCode, 1)).toList();
+        });
+
+        assertEquals(3, inventoryService.getExpiryAlerts(null).size());
+
+        inventoryService.deleteByInventoryId("ITEM005");
+
+        List<InventoryPayload> alerts = inventoryService.getExpiryAlerts(null);
+        assertEquals(List.of("ITEM002", "ITEM020"), alerts.stream().map(p -> p.getInventory().getItemCode()).toList());
+        // only the day's pass reads the expiry column
+        verify(inventoryRepository, times(1)).findExpiriesFrom(any());
+    }
+
+    @Test
+    void testGetExpiryAlerts_SkipsLotsWithoutStock() {
+        refreshExpiryAlerts();
+        Inventory soldOut = expiring("ITEM005", 5);
+        soldOut.setQuantity(0);
+        when(inventoryRepository.findAllById(List.of("ITEM002", "ITEM005")))
+            .thenReturn(List.of(soldOut, expiring("ITEM002", 2)));
+        when(itemLocRepository.findByItemCodeIn(anyList())).thenReturn(List.of());
+
+        // sold out by a sale after the day's pass
+        List<InventoryPayload> alerts = inventoryService.getExpiryAlerts(7);
+
+        assertEquals(List.of("ITEM002"), alerts.stream().map(p -> p.getInventory().getItemCode()).toList());
+    }
+
+    @Test
+    void testGetExpiryAlerts_RejectsBadDays() {
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.getExpiryAlerts(-1));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.getExpiryAlerts(InventoryService.MAX_EXPIRY_DAYS + 1));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    private Inventory item(String itemCode, Integer brandId, String description) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setBrandId(brandId);
+        inventory.setItemDescription(description);
+        return inventory;
+    }
+
+    @Test
+    void testSearchInventory_OnlyExactDescriptionMatches() {
+        Inventory agar = item("ITEM010", 1, "Agar");
+        Inventory agarPlates = item("ITEM011", 1, "Agar Plates");
+        when(inventoryRepository.findAll()).thenReturn(List.of(agar, agarPlates));
+        inventoryService.loadSearchIndex();
+        when(brandService.getBrandbyName("Sigma")).thenReturn(new Brand(1, "Sigma", "Sa", 0));
+        when(inventoryRepository.findAllById(anyList())).thenAnswer(call -> {
+            List<String> itemCodes = call.getArgument(0);
+            return List.of(agar, agarPlates).stream().filter(i -> itemCodes.contains(i.getItemCode())).toList();
+        });
+        when(inventoryRepository.findFirstByBrandIdAndItemDescriptionIgnoreCaseOrderByItemCodeAsc(1, "agar plate"))
+            .thenReturn(Optional.empty());
+
+        assertSame(agar, inventoryService.searchInventory("Sigma", "AGAR"));
+        // the index ranks "Agar Plates" first, but it is not the description asked for
+        assertNull(inventoryService.searchInventory("Sigma", "agar plate"));
+        verify(inventoryRepository, never())
+            .findFirstByBrandIdAndItemDescriptionIgnoreCaseOrderByItemCodeAsc(1, "AGAR");
+    }
+
+    @Test
+    void testSearchInventory_FallsBackToTableWhenIndexMissesRow() {
+        // written on another node, so this node never indexed it
+        Inventory agar = item("ITEM010", 1, "Agar");
+        when(brandService.getBrandbyName("Sigma")).thenReturn(new Brand(1, "Sigma", "Sa", 0));
+        when(inventoryRepository.findFirstByBrandIdAndItemDescriptionIgnoreCaseOrderByItemCodeAsc(1, "agar"))
+            .thenReturn(Optional.of(agar));
+
+        assertSame(agar, inventoryService.searchInventory("Sigma", "agar"));
     }
 }
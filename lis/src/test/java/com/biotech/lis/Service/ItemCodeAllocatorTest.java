@@ -0,0 +1,170 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.Brand;
+import com.biotech.lis.Repository.BrandRepository;
+import com.biotech.lis.Repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Allocates item codes against H2 with committed transactions; every allocator built here stands
+// in for one server
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:itemcodes;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.hikari.maximum-pool-size=16",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class ItemCodeAllocatorTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbc;
+
+    private Brand brand;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO `brand` (brandId, brandName, abbreviation, latestSequence) VALUES (1, 'Tester', 'TR', 0)");
+        brand = new Brand(1, "Tester", "TR", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM purchaseOrder");
+        jdbc.update("DELETE FROM `brand`");
+    }
+
+    private ItemCodeAllocator newServer() {
+        return new ItemCodeAllocator(brandRepository, purchaseOrderRepository, transactionManager, BLOCK_SIZE);
+    }
+
+    private int latestSequence() {
+        return jdbc.queryForObject("SELECT latestSequence FROM `brand` WHERE brandId = 1", Integer.class);
+    }
+
+    @Test
+    void testNextItemCode_NewBrandStartsAtZero() {
+        ItemCodeAllocator allocator = newServer();
+
+        assertEquals("TR0000", allocator.nextItemCode(brand));
+        assertEquals("TR0001", allocator.nextItemCode(brand));
+        assertEquals(BLOCK_SIZE, latestSequence());
+    }
+
+    @Test
+    void testNextItemCode_ContinuesAfterExistingPurchaseOrders() {
+        jdbc.update("INSERT INTO purchaseOrder (itemCode, brandId) VALUES ('TR0041', 1)");
+
+        assertEquals("TR0042", newServer().nextItemCode(brand));
+        assertEquals(42 + BLOCK_SIZE, latestSequence());
+    }
+
+    @Test
+    void testNextItemCode_DatabaseOnlyWhenBlockRunsOut() {
+        ItemCodeAllocator allocator = newServer();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        allocator.nextItemCode(brand);
+
+        statistics.clear();
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            allocator.nextItemCode(brand);
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // the next block: one UPDATE to reserve it and one SELECT to read where it ends
+        assertEquals("TR0010", allocator.nextItemCode(brand));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testNextItemCode_RefusedInsideATransaction() {
+        ItemCodeAllocator allocator = newServer();
+
+        assertThrows(IllegalStateException.class, () ->
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> allocator.nextItemCode(brand)));
+        assertEquals(0, latestSequence());
+    }
+
+    @Test
+    void testNextItemCode_NeverDuplicatesAcrossThreadsAndServers() throws Exception {
+        List<ItemCodeAllocator> servers = List.of(newServer(), newServer());
+        int threads = 16;
+        int codesEach = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                ItemCodeAllocator server = servers.get(t % servers.size());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<String> codes = new ArrayList<>();
+                    for (int i = 0; i < codesEach; i++) {
+                        codes.add(server.nextItemCode(brand));
+                    }
+                    return codes;
+                }));
+            }
+            start.countDown();
+
+            Set<String> codes = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                codes.addAll(result.get(60, TimeUnit.SECONDS));
+            }
+            assertEquals(threads * codesEach, codes.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        // each server wastes at most the rest of its current block
+        assertTrue(latestSequence() <= threads * codesEach + servers.size() * BLOCK_SIZE);
+    }
+}
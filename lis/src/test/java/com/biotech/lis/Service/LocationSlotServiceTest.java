@@ -0,0 +1,73 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LocationSlotServiceTest {
+
+    @Mock
+    private LocationService locationService;
+
+    private LocationSlotService locationSlotService;
+
+    private final List<Location> locations = List.of(
+        new Location(1, "Lazcano (Ref 1)"),
+        new Location(2, "Cebu"),
+        new Location(3, "Fridge 1"),
+        new Location(4, "Davao Warehouse"));
+
+    @BeforeEach
+    void setUp() {
+        locationSlotService = new LocationSlotService(locationService);
+    }
+
+    @Test
+    void testFindLocationId_ByNameLegacyKeyAndFallbackRules() {
+        when(locationService.getAllLocations()).thenReturn(locations);
+
+        assertEquals(1, locationSlotService.findLocationId("Lazcano (Ref 1)"));
+        assertEquals(1, locationSlotService.findLocationId("lazcanoRef1"));
+        assertEquals(2, locationSlotService.findLocationId("CEBU"));
+        assertEquals(3, locationSlotService.findLocationId("gandiaColdStorage"));
+        assertEquals(3, locationSlotService.findLocationId("Gandia Cold Storage"));
+        assertEquals(4, locationSlotService.findLocationId("davao warehouse"));
+        assertNull(locationSlotService.findLocationId("Limbaga"));
+        assertNull(locationSlotService.findLocationId(null));
+    }
+
+    @Test
+    void testToLegacyColumns_AllKeysPresentAndUnmappedLocationsLeftOut() {
+        when(locationService.getAllLocations()).thenReturn(locations);
+
+        Map<String, Integer> columns = locationSlotService.toLegacyColumns(Map.of(1, 5, 2, 7, 4, 100));
+
+        assertEquals(LocationSlotService.LEGACY_COLUMNS, new ArrayList<>(columns.keySet()));
+        assertEquals(5, columns.get("lazcanoRef1"));
+        assertEquals(7, columns.get("cebu"));
+        assertEquals(0, columns.get("gandiaColdStorage"));
+        assertEquals(12, columns.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(100, locationSlotService.toNamedQuantities(Map.of(4, 100)).get("Davao Warehouse"));
+    }
+
+    @Test
+    void testSlots_RebuiltWhenLocationListChanges() {
+        List<Location> renamed = List.of(new Location(2, "Cebu"), new Location(5, "Limbaga Annex"));
+        when(locationService.getAllLocations()).thenReturn(locations, renamed);
+
+        assertNull(locationSlotService.getLegacyColumn(5));
+        assertEquals("limbaga", locationSlotService.getLegacyColumn(5));
+        assertEquals(5, locationSlotService.findLocationId("limbaga"));
+    }
+}
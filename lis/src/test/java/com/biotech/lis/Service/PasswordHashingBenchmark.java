@@ -0,0 +1,98 @@
+package com.biotech.lis.Service;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Login throughput through PasswordHashingService at each BCrypt cost, to choose
+// security.password.bcrypt-cost and the hashing pool settings. More callers than hashing threads
+// log in at once, so the numbers include the time spent queued, and with a short queue the
+// logins it turns away: "logins" totals the checks that ran, "rejected" those refused with a
+// RejectedExecutionException (a refusal returns at once, so read the score next to them).
+// Not part of the test run; start it with main() on the test classpath.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(PasswordHashingBenchmark.CALLERS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    static final int CALLERS = 16;
+    static final int HASHING_THREADS = 4;
+
+    @Param({"10", "11", "12"})
+    private int cost;
+
+    // 64 is the default and never fills with 16 callers; 4 does, so rejections show
+    @Param({"64", "4"})
+    private int queueSize;
+
+    private PasswordHashingService passwordHashing;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        passwordHashing = new PasswordHashingService(encoder, HASHING_THREADS, queueSize);
+        hash = encoder.encode("secret1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashing.shutdown();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long logins;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            logins = 0;
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean logIn(Outcomes outcomes) {
+        try {
+            boolean matches = passwordHashing.verify("secret1", hash).join().matches();
+            outcomes.logins++;
+            return matches;
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof RejectedExecutionException)) {
+                throw e;
+            }
+            outcomes.rejected++;
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordHashingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.biotech.lis.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private final List<PasswordHashingService> services = new ArrayList<>();
+
+    private PasswordHashingService newService(PasswordEncoder encoder, int threads, int queueSize) {
+        PasswordHashingService service = new PasswordHashingService(encoder, threads, queueSize);
+        services.add(service);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(PasswordHashingService::shutdown);
+    }
+
+    @Test
+    void testEncodeAndVerify_MatchesOnlyTheRightPassword() {
+        PasswordHashingService service = newService(new BCryptPasswordEncoder(4), 2, 8);
+
+        String hash = service.encode("secret1").join();
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        PasswordHashingService.Verification right = service.verify("secret1", hash).join();
+        assertTrue(right.matches());
+        assertNull(right.upgradedHash());
+        assertFalse(service.verify("secret2", hash).join().matches());
+    }
+
+    @Test
+    void testVerify_RehashesWhenStoredCostIsLower() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret1");
+        PasswordHashingService service = newService(new BCryptPasswordEncoder(5), 1, 8);
+
+        PasswordHashingService.Verification verification = service.verify("secret1", oldHash).join();
+
+        assertTrue(verification.matches());
+        assertNotNull(verification.upgradedHash());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+        assertTrue(service.verify("secret1", verification.upgradedHash()).join().matches());
+        // a wrong password is never rehashed
+        assertNull(service.verify("secret2", oldHash).join().upgradedHash());
+    }
+
+    @Test
+    void testEncode_RefusesWorkOnceTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService service = newService(blocking, 1, 1);
+
+        CompletableFuture<String> running = service.encode("one");
+        started.await();
+        CompletableFuture<String> queued = service.encode("two");
+        CompletableFuture<String> refused = service.encode("three");
+
+        CompletionException e = assertThrows(CompletionException.class, refused::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        release.countDown();
+        assertNotNull(running.join());
+        assertNotNull(queued.join());
+    }
+}
@@ -0,0 +1,185 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.DTO.PurchaseOrderImportReportDTO;
+import com.biotech.lis.DTO.PurchaseOrderImportRowDTO;
+import com.biotech.lis.Entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Imports purchase orders into H2 with every chunk committed, the way the endpoint runs them
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PurchaseOrderImportService.class, PurchaseOrderService.class, BrandService.class, ItemCodeAllocator.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.datasource.url=jdbc:h2:mem:poimport;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class PurchaseOrderImportServiceTest {
+
+    private static final String HEADER = "brandId,productDescription,packSize,quantity,unitCost,poPireference\n";
+
+    @Autowired
+    private PurchaseOrderImportService importService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private StockLocatorService stockLocatorService;
+
+    private JdbcTemplate jdbc;
+
+    // the allocator keeps its blocks between tests, so every test gets a brand of its own
+    private static int nextBrandId = 1;
+
+    private int brandId;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        brandId = nextBrandId++;
+        jdbc.update("INSERT INTO `brand` (brandId, brandName, abbreviation, latestSequence) VALUES (?, 'Tester', 'TR', 0)", brandId);
+
+        User user = new User();
+        user.setUserId(7L);
+        when(userService.getSignedInUser(7L)).thenReturn(user);
+        // a fresh context, in case an earlier test on this thread left a mocked one installed
+        SecurityContextHolder.setContext(SecurityContextHolder.createEmptyContext());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("7", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbc.update("DELETE FROM transactionEntry");
+        jdbc.update("DELETE FROM purchaseOrder");
+        jdbc.update("DELETE FROM `brand`");
+    }
+
+    private PurchaseOrderImportReportDTO importBody(String body, PurchaseOrderImportService.Format format) throws Exception {
+        return importService.importPurchaseOrders(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    @Test
+    void testImportCsv_ReportsEveryRow() throws Exception {
+        String body = HEADER
+                + brandId + ",\"Buffer, pH 7.4\",10,5,12.5,DR-100\r\n"
+                + "\n"
+                + "999,Pipette tips,1,3,4.0,DR-101\n"
+                + brandId + ",Gloves,100,,2.0,DR-102\n"
+                + brandId + ",\"Ethanol \"\"absolute\"\"\",1,2,abc,DR-103\n"
+                + brandId + ",Ethanol,1,2,8.0,DR-100\n";
+
+        PurchaseOrderImportReportDTO report = importBody(body, PurchaseOrderImportService.Format.CSV);
+
+        assertEquals(5, report.getTotal());
+        assertEquals(2, report.getCreated());
+        assertEquals(3, report.getRejected());
+
+        List<PurchaseOrderImportRowDTO> rows = report.getRows();
+        assertEquals(List.of(2, 4, 5, 6, 7), rows.stream().map(PurchaseOrderImportRowDTO::getLine).toList());
+        assertEquals("TR0000", rows.get(0).getItemCode());
+        assertEquals("Brand not found with id: 999", rows.get(1).getMessage());
+        assertEquals("quantity must be a positive number", rows.get(2).getMessage());
+        assertTrue(rows.get(3).getMessage().startsWith("Invalid number"));
+        assertEquals("TR0001", rows.get(4).getItemCode());
+
+        assertEquals("Buffer, pH 7.4", jdbc.queryForObject(
+                "SELECT productDescription FROM purchaseOrder WHERE itemCode = 'TR0000'", String.class));
+        assertEquals(7, jdbc.queryForObject(
+                "SELECT addedBy FROM purchaseOrder WHERE itemCode = 'TR0001'", Integer.class));
+        // both rows of DR-100 keep one transaction entry, the later one
+        assertEquals(1, count("transactionEntry"));
+        assertEquals("TR0001", jdbc.queryForObject(
+                "SELECT itemCode FROM transactionEntry WHERE drSIReferenceNum = 'DR-100'", String.class));
+    }
+
+    @Test
+    void testImportCsv_MissingColumnRejectsWholeBody() {
+        assertThrows(IllegalArgumentException.class, () ->
+                importBody("brandId,quantity,unitCost\n" + brandId + ",2,3.0\n", PurchaseOrderImportService.Format.CSV));
+        assertEquals(0, count("purchaseOrder"));
+    }
+
+    @Test
+    void testImportNdjson_ReportsBadLines() throws Exception {
+        String body = "{\"brandId\":" + brandId + ",\"productDescription\":\"Agar\",\"quantity\":4,\"unitCost\":3.5,\"poPireference\":\"DR-200\"}\n"
+                + "{\"brandId\":" + brandId + ",\"quantity\":\n"
+                + "\n"
+                + "{\"brandId\":" + brandId + ",\"quantity\":1,\"unitCost\":1.0}\n";
+
+        PurchaseOrderImportReportDTO report = importBody(body, PurchaseOrderImportService.Format.NDJSON);
+
+        assertEquals(3, report.getTotal());
+        assertEquals(1, report.getCreated());
+        assertEquals("TR0000", report.getRows().get(0).getItemCode());
+        assertTrue(report.getRows().get(1).getMessage().startsWith("Invalid JSON"));
+        assertEquals(4, report.getRows().get(2).getLine());
+        assertEquals("poPireference is required", report.getRows().get(2).getMessage());
+    }
+
+    @Test
+    void testImportCsv_LargeBodyWrittenInBatchedChunks() throws Exception {
+        int rows = 1200;
+        StringBuilder body = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            body.append(brandId).append(",Item ").append(i).append(",1,1,1.0,DR-").append(i).append('\n');
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        PurchaseOrderImportReportDTO report = importBody(body.toString(), PurchaseOrderImportService.Format.CSV);
+
+        assertEquals(rows, report.getCreated());
+        assertEquals(rows, count("purchaseOrder"));
+        assertEquals(rows, count("transactionEntry"));
+        assertEquals("TR1199", report.getRows().get(rows - 1).getItemCode());
+        // per chunk: one code reservation, one read of existing references, then inserts of 50 at a time
+        assertTrue(statistics.getPrepareStatementCount() < 100, "statements: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -10,10 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -39,6 +42,13 @@ public class PurchaseOrderServiceTest {
     @Mock
     private TransactionEntryRepository transactionEntryRepository; // Add this mock
 
+    @Mock
+    private ItemCodeAllocator itemCodeAllocator;
+
+    // the save runs inline, inside a no-op transaction
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private PurchaseOrderService purchaseOrderService;
 
@@ -66,7 +76,7 @@ public class PurchaseOrderServiceTest {
         
         // Mock brand service uses getBrandById instead of getBrandbyName
         when(brandService.getBrandById(1)).thenReturn(mockBrand);
-        when(purchaseOrderRepository.findTopByBrandIdOrderByItemCodeDesc(1)).thenReturn(Optional.empty());
+        when(itemCodeAllocator.nextItemCode(mockBrand)).thenReturn("TST0000");
         
         // Mock security context
         mockSecurityContext();
@@ -226,6 +236,6 @@ public class PurchaseOrderServiceTest {
         // Mock user service
         User mockUser = new User();
         mockUser.setUserId(1L); // Set the user ID
-        when(userService.getUserById(1L)).thenReturn(mockUser);
+        when(userService.getSignedInUser(1L)).thenReturn(mockUser);
     }
 }
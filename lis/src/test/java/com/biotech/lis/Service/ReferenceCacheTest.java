@@ -0,0 +1,156 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.DTO.CacheStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private ReferenceCache<Integer, String> newCache(int maxSize) {
+        return new ReferenceCache<>("test", maxSize, Duration.ofMinutes(10), now::get);
+    }
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1, k -> { loads.incrementAndGet(); return "v" + k; }));
+        assertEquals("v1", cache.get(1, k -> { loads.incrementAndGet(); return "v" + k; }));
+        assertEquals("v1", cache.get(1, k -> { loads.incrementAndGet(); return "v" + k; }));
+
+        assertEquals(1, loads.get());
+        CacheStatsDTO stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2.0 / 3.0, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testGet_ReloadsAfterTtl() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, k -> "v" + loads.incrementAndGet());
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertEquals("v2", cache.get(1, k -> "v" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_ForcesReload() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+
+        cache.get(1, k -> "old");
+        cache.invalidate(1);
+
+        assertEquals("new", cache.get(1, k -> "new"));
+    }
+
+    @Test
+    void testGet_NullIsNotCached() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+
+        assertNull(cache.get(1, k -> null));
+        assertEquals(0, cache.size());
+        assertEquals("found", cache.get(1, k -> "found"));
+    }
+
+    @Test
+    void testGet_NeverExceedsMaxSize() {
+        ReferenceCache<Integer, String> cache = newCache(3);
+
+        for (int i = 0; i < 10; i++) {
+            now.incrementAndGet();
+            cache.get(i, k -> "v" + k);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.stats().getEvictions());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        ReferenceCache<Integer, String> cache = newCache(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, k -> "v" + loads.incrementAndGet());
+        now.incrementAndGet();
+        cache.get(2, k -> "v" + loads.incrementAndGet());
+        now.incrementAndGet();
+        cache.get(1, k -> "v" + loads.incrementAndGet()); // 1 is now the most recently used
+        now.incrementAndGet();
+        cache.get(3, k -> "v" + loads.incrementAndGet());
+
+        assertEquals("v1", cache.get(1, k -> "v" + loads.incrementAndGet()));
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void testGet_LoadRacingWithInvalidateIsNotCached() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+
+        // a writer invalidates while the loader is still reading the old row
+        cache.get(1, k -> {
+            cache.invalidate(1);
+            return "stale";
+        });
+
+        assertEquals(0, cache.size());
+        assertEquals("fresh", cache.get(1, k -> "fresh"));
+    }
+
+    @Test
+    void testGet_LifetimeOfValueCappedByTtl() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, k -> "v" + loads.incrementAndGet(), v -> Duration.ofMinutes(2));
+        cache.get(2, k -> "v" + loads.incrementAndGet(), v -> Duration.ofHours(1));
+        now.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        // the first expired with its own lifetime, the second is still within the 10 minute TTL
+        assertEquals("v3", cache.get(1, k -> "v" + loads.incrementAndGet(), v -> Duration.ofMinutes(2)));
+        assertEquals("v2", cache.get(2, k -> "v" + loads.incrementAndGet(), v -> Duration.ofHours(1)));
+
+        now.addAndGet(Duration.ofMinutes(8).toNanos());
+        assertEquals("v4", cache.get(2, k -> "v" + loads.incrementAndGet(), v -> Duration.ofHours(1)));
+    }
+
+    @Test
+    void testGet_ExpiredValueIsNotCached() {
+        ReferenceCache<Integer, String> cache = newCache(10);
+
+        assertEquals("gone", cache.get(1, k -> "gone", v -> Duration.ofSeconds(-1)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_FullCacheEvictsInBatches() {
+        ReferenceCache<Integer, String> cache = newCache(20);
+
+        for (int i = 0; i < 20; i++) {
+            now.incrementAndGet();
+            cache.get(i, k -> "v" + k);
+        }
+        now.incrementAndGet();
+        cache.get(20, k -> "v" + k);
+
+        // one slot for the new entry plus a tenth of the cache, oldest first
+        assertEquals(18, cache.size());
+        assertEquals(3, cache.stats().getEvictions());
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(3, k -> "v" + loads.incrementAndGet());
+        cache.get(2, k -> "v" + loads.incrementAndGet());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.biotech.lis.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        index.put("SIG0001", "Sigma", "Ethanol Absolute 500mL", "Sigma");
+        index.put("SIG0002", "Sigma", "Ethanol", "Sigma");
+        index.put("SIG0003", "Sigma", "Ethanolamine 1L", "Sigma");
+        index.put("SIG0004", "Sigma", "Denatured Ethanol 1L", "Sigma");
+        index.put("MER0001", "Merck", "Ethanol 96% 2.5L", "Merck");
+        index.put("MER0002", "Merck", "Methylene Blue", "Merck");
+    }
+
+    @Test
+    void testSearch_RanksExactThenPrefixThenSubstring() {
+        List<String> keys = index.search("ethanol", null, 10);
+
+        assertEquals("SIG0002", keys.get(0));
+        // prefixes, shorter descriptions first, then the substring match
+        assertEquals(List.of("SIG0003", "MER0001", "SIG0001"), keys.subList(1, 4));
+        assertEquals("SIG0004", keys.get(4));
+        assertFalse(keys.contains("MER0002"));
+    }
+
+    @Test
+    void testSearch_IgnoresCaseAndExtraSpaces() {
+        assertEquals("SIG0001", index.search("  ETHANOL   absolute ", null, 10).get(0));
+    }
+
+    @Test
+    void testSearch_ToleratesTypos() {
+        // equally close spellings come shortest first
+        assertEquals(List.of("SIG0002", "SIG0003", "MER0001", "SIG0004", "SIG0001"), index.search("ethanl", null, 10));
+        assertTrue(index.search("methylen blu", null, 10).contains("MER0002"));
+        assertTrue(index.search("acetone", null, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_FiltersByGroupAndMatchesOtherFields() {
+        assertEquals(List.of("MER0001"), index.search("ethanol", "MERCK", 10));
+        // the brand is indexed as a field too
+        assertEquals(4, index.search("sigma", null, 10).size());
+    }
+
+    @Test
+    void testSearch_ShortQueriesMatchSubstrings() {
+        assertEquals(List.of("MER0002"), index.search("bl", null, 10));
+        assertTrue(index.search(" ", null, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_HonoursLimit() {
+        assertEquals(List.of("SIG0002", "SIG0003"), index.search("ethanol", null, 2));
+    }
+
+    @Test
+    void testPutAndRemove_KeepPostingsInStep() {
+        index.put("SIG0002", "Sigma", "Acetone", "Sigma");
+        assertFalse(index.search("ethanol", null, 10).contains("SIG0002"));
+        assertEquals(List.of("SIG0002"), index.search("acetone", null, 10));
+
+        index.remove("SIG0002");
+        assertTrue(index.search("acetone", null, 10).isEmpty());
+        assertEquals(5, index.size());
+    }
+}
@@ -0,0 +1,392 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.Inventory;
+import com.biotech.lis.Entity.InventoryPayload;
+import com.biotech.lis.Entity.ItemLoc;
+import com.biotech.lis.Entity.Location;
+import com.biotech.lis.Entity.LocationStock;
+import com.biotech.lis.Entity.LocationStockId;
+import com.biotech.lis.Entity.StockLocator;
+import com.biotech.lis.Entity.TransactionEntry;
+import com.biotech.lis.Entity.SchemaMigration;
+import com.biotech.lis.Repository.LocationStockRepository;
+import com.biotech.lis.Repository.SchemaMigrationRepository;
+import com.biotech.lis.Repository.StockLocatorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockLocatorServiceTest {
+
+    @Mock
+    private StockLocatorRepository stockLocatorRepository;
+
+    @Mock
+    private LocationStockRepository locationStockRepository;
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private SchemaMigrationRepository schemaMigrationRepository;
+
+    @InjectMocks
+    private StockLocatorService stockLocatorService;
+
+    @BeforeEach
+    void setUp() {
+        // Davao has no legacy column, Ref 1 shares Lazcano Ref 1's
+        List<Location> locations = List.of(
+            new Location(1, "Lazcano (Ref 1)"),
+            new Location(2, "Cebu"),
+            new Location(3, "Limbaga"),
+            new Location(4, "Gandia (Cold Storage)"),
+            new Location(5, "Ref 1"),
+            new Location(6, "Davao Warehouse"));
+        lenient().when(locationService.getAllLocations()).thenReturn(locations);
+        ReflectionTestUtils.setField(stockLocatorService, "locationSlotService", new LocationSlotService(locationService));
+    }
+
+    // a header as loaded from the table, i.e. not new
+    private StockLocator existingRow(String itemCode) {
+        StockLocator row = new StockLocator();
+        row.setItemCode(itemCode);
+        row.setBrand("Sigma");
+        row.setProductDescription("Reagent");
+        return row;
+    }
+
+    private InventoryPayload payload(String itemCode, Integer brandId, ItemLoc... locations) {
+        Inventory inventory = new Inventory();
+        inventory.setItemCode(itemCode);
+        inventory.setBrandId(brandId);
+        inventory.setItemDescription("Reagent " + itemCode);
+        return new InventoryPayload(inventory, Arrays.asList(locations));
+    }
+
+    private TransactionEntry transaction(String stockLocation, int quantity) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setItemCode("ITEM001");
+        entry.setBrand("Sigma");
+        entry.setProductDescription("Reagent");
+        entry.setStockLocation(stockLocation);
+        entry.setQuantity(quantity);
+        return entry;
+    }
+
+    @Test
+    void testGetAllStockLocations_GeneratesWideView() {
+        // Setup
+        when(stockLocatorRepository.findAll()).thenReturn(List.of(existingRow("ITEM001"), existingRow("ITEM002")));
+        when(locationStockRepository.findAll()).thenReturn(List.of(
+            new LocationStock("ITEM001", 1, 7),
+            new LocationStock("ITEM001", 5, 3),
+            new LocationStock("ITEM001", 6, 2),
+            new LocationStock("ITEM002", 2, 9)));
+
+        // Execute
+        List<StockLocator> result = stockLocatorService.getAllStockLocations();
+
+        // Verify - every legacy key is present, locations sharing one are summed
+        StockLocator first = result.get(0);
+        assertEquals(LocationSlotService.LEGACY_COLUMNS, new ArrayList<>(first.getLocationColumns().keySet()));
+        assertEquals(10, first.getLocationColumns().get("lazcanoRef1"));
+        assertEquals(0, first.getLocationColumns().get("cebu"));
+        assertEquals(2, first.getStockByLocation().get("Davao Warehouse"));
+        assertEquals(12, first.getTotalStock());
+
+        assertEquals(9, result.get(1).getLocationColumns().get("cebu"));
+        assertEquals(9, result.get(1).getTotalStock());
+        verify(locationStockRepository, never()).findByItemCode(any());
+    }
+
+    @Test
+    void testGetTopStockLocators_LoadsOnlyTheRankedItems() {
+        // Setup - the database has already ranked the items by total stock
+        when(locationStockRepository.findItemCodesByTotalQuantityDesc(Limit.of(2))).thenReturn(List.of("ITEM002", "ITEM001"));
+        when(stockLocatorRepository.findAllById(List.of("ITEM002", "ITEM001")))
+            .thenReturn(List.of(existingRow("ITEM001"), existingRow("ITEM002")));
+        when(locationStockRepository.findByItemCodeIn(List.of("ITEM002", "ITEM001"))).thenReturn(List.of(
+            new LocationStock("ITEM001", 1, 4),
+            new LocationStock("ITEM002", 2, 9)));
+
+        // Execute
+        List<StockLocator> result = stockLocatorService.getTopStockLocators(2);
+
+        // Verify - in the database's order, with their stock, and nothing else read
+        assertEquals(List.of("ITEM002", "ITEM001"), result.stream().map(StockLocator::getItemCode).toList());
+        assertEquals(9, result.get(0).getTotalStock());
+        assertEquals(4, result.get(1).getTotalStock());
+        verify(stockLocatorRepository, never()).findAll();
+        verify(locationStockRepository, never()).findAll();
+    }
+
+    @Test
+    void testSearchStockLocators_ReturnsEveryMatch() {
+        // Setup - more matches than any one page of the old capped search
+        List<StockLocator> rows = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            rows.add(existingRow(String.format("ITEM%03d", i)));
+        }
+        when(stockLocatorRepository.findAll()).thenReturn(rows);
+        when(stockLocatorRepository.findAllById(anyList())).thenReturn(rows);
+        when(locationStockRepository.findByItemCodeIn(anyList())).thenReturn(Collections.emptyList());
+        stockLocatorService.loadSearchIndex();
+
+        // Execute
+        List<StockLocator> result = stockLocatorService.searchStockLocators(null, "reagent");
+
+        // Verify
+        assertEquals(150, result.size());
+    }
+
+    @Test
+    void testLoadSearchIndex_ReloadPicksUpRowsWrittenElsewhere() {
+        StockLocator written = existingRow("ITEM002");
+        written.setProductDescription("Ethanol");
+        when(stockLocatorRepository.findAll())
+            .thenReturn(List.of(existingRow("ITEM001")))
+            .thenReturn(List.of(existingRow("ITEM001"), written));
+        when(stockLocatorRepository.findAllById(List.of())).thenReturn(List.of());
+        when(stockLocatorRepository.findAllById(List.of("ITEM002"))).thenReturn(List.of(written));
+        when(locationStockRepository.findByItemCodeIn(List.of("ITEM002"))).thenReturn(Collections.emptyList());
+
+        stockLocatorService.loadSearchIndex();
+        assertTrue(stockLocatorService.searchStockLocators(null, "ethanol").isEmpty());
+
+        // another node added ITEM002; the next reload brings it in
+        stockLocatorService.loadSearchIndex();
+        assertEquals(List.of(written), stockLocatorService.searchStockLocators(null, "ethanol"));
+    }
+
+    @Test
+    void testLoadSuggestionIndex_ReloadPicksUpRowsWrittenElsewhere() {
+        StockLocator written = existingRow("ITEM002");
+        written.setProductDescription("Ethanol");
+        when(stockLocatorRepository.findAll())
+            .thenReturn(List.of(existingRow("ITEM001")))
+            .thenReturn(List.of(existingRow("ITEM001"), written));
+
+        stockLocatorService.loadSuggestionIndex();
+        assertEquals(List.of("Reagent"), stockLocatorService.suggestDescriptions("", "Sigma", 10));
+
+        // another node added ITEM002; the next reload brings it in
+        stockLocatorService.loadSuggestionIndex();
+        assertEquals(List.of("Ethanol", "Reagent"), stockLocatorService.suggestDescriptions("", "Sigma", 10));
+    }
+
+    @Test
+    void testApplyInventoryChange_ExistingItemOnlyMovesChangedLocations() {
+        // Setup - 10 extra units at Cebu were booked through a transaction, not through itemLoc
+        LocationStock cebu = new LocationStock("ITEM001", 2, 40);
+        LocationStock limbaga = new LocationStock("ITEM001", 3, 5);
+        when(stockLocatorRepository.findById("ITEM001")).thenReturn(Optional.of(existingRow("ITEM001")));
+        when(stockLocatorRepository.save(any(StockLocator.class))).thenAnswer(i -> i.getArgument(0));
+        when(locationStockRepository.findByItemCode("ITEM001")).thenReturn(List.of(cebu, limbaga));
+
+        // Execute
+        StockLocator result = stockLocatorService.applyInventoryChange("ITEM001", "Sigma", "Reagent",
+            Map.of(2, 30, 3, 5),
+            Map.of(2, 50, 3, 5));
+
+        // Verify
+        assertEquals(60, cebu.getQuantity());
+        assertEquals(5, limbaga.getQuantity());
+        verify(locationStockRepository, times(1)).saveAll(List.of(cebu));
+        assertEquals(60, result.getLocationColumns().get("cebu"));
+        assertEquals(0, result.getLocationColumns().get("lazcanoRef1"));
+        verify(stockLocatorRepository, never()).flush();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApplyInventoryChange_NewItemSeededFromCurrentQuantities() {
+        // Setup
+        when(stockLocatorRepository.findById("ITEM002")).thenReturn(Optional.empty());
+        when(stockLocatorRepository.save(any(StockLocator.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Execute - location 99 does not exist
+        StockLocator result = stockLocatorService.applyInventoryChange("ITEM002", "Sigma", "Reagent",
+            Map.of(2, 99),
+            Map.of(1, 7, 5, 3, 99, 4));
+
+        // Verify
+        ArgumentCaptor<List<LocationStock>> saved = ArgumentCaptor.forClass(List.class);
+        verify(locationStockRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertTrue(saved.getValue().stream().allMatch(LocationStock::isNew));
+        assertEquals(10, result.getLocationColumns().get("lazcanoRef1"));
+        assertEquals(10, result.getTotalStock());
+        assertTrue(result.isNew());
+        verify(locationStockRepository, never()).findByItemCode(any());
+    }
+
+    @Test
+    void testUpdateStockFromTransaction_AddsToSlotResolvedFromName() {
+        // Setup
+        StockLocator header = existingRow("ITEM001");
+        when(stockLocatorRepository.findByBrandAndProductDescription("Sigma", "Reagent")).thenReturn(Optional.of(header));
+        when(locationStockRepository.addQuantity("ITEM001", 1, 25)).thenReturn(0);
+
+        // Execute
+        stockLocatorService.updateStockFromTransaction(transaction("lazcano (ref 1)", 25), true);
+
+        // Verify
+        verify(locationStockRepository).save(argThat(stock ->
+            stock.getLocationId() == 1 && stock.getQuantity() == 25 && "ITEM001".equals(stock.getItemCode())));
+    }
+
+    @Test
+    void testUpdateStockFromTransaction_ExistingSlotChangedInTheDatabase() {
+        // Setup
+        StockLocator header = existingRow("ITEM001");
+        when(stockLocatorRepository.findByBrandAndProductDescription("Sigma", "Reagent")).thenReturn(Optional.of(header));
+        when(locationStockRepository.addQuantity("ITEM001", 2, -5)).thenReturn(1);
+
+        // Execute
+        stockLocatorService.updateStockFromTransaction(transaction("Cebu", 5), false);
+
+        // Verify - no read-modify-write of the row
+        verify(locationStockRepository, never()).findById(any());
+        verify(locationStockRepository, never()).save(any(LocationStock.class));
+    }
+
+    @Test
+    void testUpdateStockFromTransaction_InsufficientStock() {
+        StockLocator header = existingRow("ITEM001");
+        when(stockLocatorRepository.findByBrandAndProductDescription("Sigma", "Reagent")).thenReturn(Optional.of(header));
+        when(locationStockRepository.addQuantity("ITEM001", 2, -5)).thenReturn(0);
+        when(locationStockRepository.findById(new LocationStockId("ITEM001", 2)))
+            .thenReturn(Optional.of(new LocationStock("ITEM001", 2, 4)));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () ->
+            stockLocatorService.updateStockFromTransaction(transaction("Cebu", 5), false));
+
+        assertTrue(error.getMessage().contains("Insufficient stock at Cebu. Available: 4"));
+        verify(locationStockRepository, never()).save(any(LocationStock.class));
+    }
+
+    @Test
+    void testUpdateStockFromTransaction_UnknownLocation() {
+        assertThrows(IllegalArgumentException.class, () ->
+            stockLocatorService.updateStockFromTransaction(transaction("Moon Base", 5), true));
+
+        verify(stockLocatorRepository, never()).findByBrandAndProductDescription(any(), any());
+    }
+
+    @Test
+    void testUpdateStockLocator_AcceptsWideBody() {
+        // Setup - the body a client built from the wide JSON, plus a location without a legacy key
+        StockLocator body = existingRow("ITEM001");
+        body.setLocationColumn("cebu", 12);
+        body.setLocationColumn("limbaga", 0);
+        body.setStockByLocation(Map.of("Davao Warehouse", 3));
+        LocationStock cebu = new LocationStock("ITEM001", 2, 40);
+
+        when(stockLocatorRepository.save(body)).thenReturn(body);
+        when(locationStockRepository.findByItemCode("ITEM001")).thenReturn(List.of(cebu));
+
+        // Execute
+        StockLocator result = stockLocatorService.updateStockLocator(body);
+
+        // Verify
+        assertEquals(12, cebu.getQuantity());
+        assertEquals(12, result.getLocationColumns().get("cebu"));
+        assertEquals(3, result.getStockByLocation().get("Davao Warehouse"));
+        assertEquals(15, result.getTotalStock());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildFromInventory_BulkDeleteAndOneBatchedInsert() {
+        // Setup - ITEM001 has a header, ITEM002 has none yet
+        StockLocator stale = existingRow("ITEM001");
+        when(stockLocatorRepository.findAllById(anyList())).thenReturn(Collections.singletonList(stale));
+
+        List<InventoryPayload> payloads = Arrays.asList(
+            payload("ITEM001", 1, new ItemLoc(1, "ITEM001", 20), new ItemLoc(2, "ITEM001", 4)),
+            payload("ITEM002", 2, new ItemLoc(3, "ITEM002", 8), new ItemLoc(9, "ITEM002", 100)));
+        Map<Integer, String> brandNames = Map.of(1, "Sigma");
+        Map<Integer, String> locationNames = Map.of(1, "Lazcano (Ref 1)", 2, "Cebu", 3, "Limbaga");
+
+        // Execute
+        int rebuilt = stockLocatorService.rebuildFromInventory(payloads, brandNames, locationNames);
+
+        // Verify
+        assertEquals(2, rebuilt);
+        verify(locationStockRepository, times(1)).deleteByItemCodeIn(List.of("ITEM001", "ITEM002"));
+        verify(stockLocatorRepository, times(1)).findAllById(anyList());
+
+        ArgumentCaptor<List<StockLocator>> headers = ArgumentCaptor.forClass(List.class);
+        verify(stockLocatorRepository, times(1)).saveAll(headers.capture());
+        assertSame(stale, headers.getValue().get(0));
+        assertEquals("Reagent ITEM001", stale.getProductDescription());
+        assertEquals("Unknown", headers.getValue().get(1).getBrand());
+
+        // unknown location id 9 is skipped
+        ArgumentCaptor<List<LocationStock>> stocks = ArgumentCaptor.forClass(List.class);
+        verify(locationStockRepository, times(1)).saveAll(stocks.capture());
+        assertEquals(3, stocks.getValue().size());
+        assertTrue(stocks.getValue().stream().noneMatch(stock -> stock.getLocationId() == 9));
+        verify(stockLocatorRepository, never()).flush();
+    }
+
+    @Test
+    void testMigrateLegacyColumns_CopiesOnceAndRecordsIt() {
+        when(schemaMigrationRepository.existsById(StockLocatorService.LEGACY_COLUMNS_MIGRATION)).thenReturn(false);
+        when(locationStockRepository.count()).thenReturn(0L);
+        List<Object[]> legacyRows = new ArrayList<>();
+        legacyRows.add(new Object[] {"ITEM001", 5, 0, 0, 0, 0, 0, 2});
+        when(stockLocatorRepository.findLegacyLocationColumns()).thenReturn(legacyRows);
+
+        stockLocatorService.migrateLegacyColumns();
+
+        ArgumentCaptor<List<LocationStock>> saved = ArgumentCaptor.forClass(List.class);
+        verify(locationStockRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        ArgumentCaptor<SchemaMigration> marker = ArgumentCaptor.forClass(SchemaMigration.class);
+        verify(schemaMigrationRepository).save(marker.capture());
+        assertEquals(StockLocatorService.LEGACY_COLUMNS_MIGRATION, marker.getValue().getName());
+    }
+
+    @Test
+    void testMigrateLegacyColumns_NeverRunsAgainOnceRecorded() {
+        // locationStock was emptied on purpose after the migration ran
+        when(schemaMigrationRepository.existsById(StockLocatorService.LEGACY_COLUMNS_MIGRATION)).thenReturn(true);
+
+        stockLocatorService.migrateLegacyColumns();
+
+        verify(stockLocatorRepository, never()).findLegacyLocationColumns();
+        verify(locationStockRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testMigrateLegacyColumns_AlreadyMigratedDatabaseIsOnlyMarked() {
+        when(schemaMigrationRepository.existsById(StockLocatorService.LEGACY_COLUMNS_MIGRATION)).thenReturn(false);
+        when(locationStockRepository.count()).thenReturn(12L);
+
+        stockLocatorService.migrateLegacyColumns();
+
+        verify(stockLocatorRepository, never()).findLegacyLocationColumns();
+        verify(schemaMigrationRepository).save(any(SchemaMigration.class));
+    }
+}
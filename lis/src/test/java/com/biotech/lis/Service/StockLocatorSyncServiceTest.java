@@ -0,0 +1,226 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.DTO.StockLocatorSyncStatusDTO;
+import com.biotech.lis.Entity.StockLocatorSyncChunk;
+import com.biotech.lis.Entity.StockLocatorSyncJob;
+import com.biotech.lis.Repository.InventoryRepository;
+import com.biotech.lis.Repository.StockLocatorSyncChunkRepository;
+import com.biotech.lis.Repository.StockLocatorSyncJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockLocatorSyncServiceTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private BrandService brandService;
+
+    @Mock
+    private LocationService locationService;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private StockLocatorSyncJobRepository jobRepository;
+
+    @Mock
+    private StockLocatorSyncChunkRepository chunkRepository;
+
+    // chunks run inline on the test thread, inside a no-op transaction
+    @Spy
+    private TaskExecutor syncExecutor = new SyncTaskExecutor();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private StockLocatorSyncService stockLocatorSyncService;
+
+    private StockLocatorSyncJob job(Long jobId, String status) {
+        StockLocatorSyncJob job = new StockLocatorSyncJob();
+        job.setJobId(jobId);
+        job.setStatus(status);
+        job.setTotalChunks(2);
+        job.setTotalItems(1001);
+        return job;
+    }
+
+    private StockLocatorSyncChunk chunk(Long jobId, int index, String after, String upTo, String status) {
+        StockLocatorSyncChunk chunk = new StockLocatorSyncChunk();
+        chunk.setJobId(jobId);
+        chunk.setChunkIndex(index);
+        chunk.setAfterItemCode(after);
+        chunk.setUpToItemCode(upTo);
+        chunk.setStatus(status);
+        return chunk;
+    }
+
+    @Test
+    void testStartSync_PlansRangesAndRunsEachChunk() {
+        // Setup - one full page of codes followed by a single trailing code
+        List<String> firstPage = new ArrayList<>();
+        for (int i = 0; i < StockLocatorSyncService.CHUNK_SIZE; i++) {
+            firstPage.add(String.format("ITEM%05d", i));
+        }
+        StockLocatorSyncJob[] saved = new StockLocatorSyncJob[1];
+        List<StockLocatorSyncChunk> planned = new ArrayList<>();
+
+        when(jobRepository.findByStatus(StockLocatorSyncService.RUNNING)).thenReturn(Collections.emptyList());
+        when(jobRepository.save(any(StockLocatorSyncJob.class))).thenAnswer(i -> {
+            StockLocatorSyncJob job = i.getArgument(0);
+            if (job.getJobId() == null) job.setJobId(7L);
+            saved[0] = job;
+            return job;
+        });
+        when(jobRepository.findById(7L)).thenAnswer(i -> Optional.of(saved[0]));
+        when(inventoryRepository.findItemCodes(any(Limit.class))).thenReturn(firstPage);
+        when(inventoryRepository.findItemCodesAfter(eq("ITEM00999"), any(Limit.class))).thenReturn(List.of("ITEM99999"));
+        when(chunkRepository.saveAll(anyList())).thenAnswer(i -> {
+            planned.addAll(i.getArgument(0));
+            return i.getArgument(0);
+        });
+        when(chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(7L, StockLocatorSyncService.DONE))
+            .thenAnswer(i -> new ArrayList<>(planned));
+        when(brandService.getBrandNamesById()).thenReturn(Map.of(1, "Sigma"));
+        when(locationService.getLocationNamesById()).thenReturn(Map.of(1, "Cebu"));
+        when(inventoryService.syncStockLocatorRange(isNull(), eq("ITEM00999"), anyMap(), anyMap())).thenReturn(1000);
+        when(inventoryService.syncStockLocatorRange(eq("ITEM00999"), isNull(), anyMap(), anyMap())).thenReturn(1);
+        when(chunkRepository.countByJobIdAndStatusNot(7L, StockLocatorSyncService.DONE)).thenReturn(0L);
+        when(chunkRepository.countByJobIdAndStatus(7L, StockLocatorSyncService.DONE)).thenReturn(2L);
+        when(chunkRepository.countByJobIdAndStatus(7L, StockLocatorSyncService.FAILED)).thenReturn(0L);
+        when(chunkRepository.sumItemsSynced(7L)).thenReturn(1001L);
+
+        // Execute
+        StockLocatorSyncStatusDTO status = stockLocatorSyncService.startSync();
+
+        // Verify - two ranges, the last one left open for items added mid-run
+        assertEquals(2, planned.size());
+        assertNull(planned.get(0).getAfterItemCode());
+        assertEquals("ITEM00999", planned.get(0).getUpToItemCode());
+        assertEquals("ITEM00999", planned.get(1).getAfterItemCode());
+        assertNull(planned.get(1).getUpToItemCode());
+        assertTrue(planned.stream().allMatch(c -> StockLocatorSyncService.DONE.equals(c.getStatus())));
+        assertEquals(1000, planned.get(0).getItemsSynced());
+
+        assertEquals(StockLocatorSyncService.COMPLETED, status.getStatus());
+        assertEquals(2, status.getTotalChunks());
+        assertEquals(2, status.getCompletedChunks());
+        assertEquals(1001, status.getTotalItems());
+        assertEquals(1001, status.getItemsSynced());
+        assertEquals(100.0, status.getPercentComplete());
+        assertNotNull(status.getFinishedAt());
+
+        // reference data is read once per run, not per chunk
+        verify(brandService, times(1)).getBrandNamesById();
+        verify(locationService, times(1)).getLocationNamesById();
+    }
+
+    @Test
+    void testStartSync_ReturnsRunningJobInsteadOfStartingAnother() {
+        StockLocatorSyncJob running = job(3L, StockLocatorSyncService.RUNNING);
+        when(jobRepository.findByStatus(StockLocatorSyncService.RUNNING)).thenReturn(List.of(running));
+        when(jobRepository.findById(3L)).thenReturn(Optional.of(running));
+
+        StockLocatorSyncStatusDTO status = stockLocatorSyncService.startSync();
+
+        assertEquals(3L, status.getJobId());
+        assertEquals(StockLocatorSyncService.RUNNING, status.getStatus());
+        verify(inventoryRepository, never()).findItemCodes(any(Limit.class));
+        verify(inventoryService, never()).syncStockLocatorRange(any(), any(), anyMap(), anyMap());
+    }
+
+    @Test
+    void testResumeSync_FailedChunkLeavesJobFailed() {
+        StockLocatorSyncJob job = job(5L, StockLocatorSyncService.RUNNING);
+        StockLocatorSyncChunk pending = chunk(5L, 1, "ITEM00999", null, StockLocatorSyncService.PENDING);
+
+        when(jobRepository.findById(5L)).thenReturn(Optional.of(job));
+        when(chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(5L, StockLocatorSyncService.DONE))
+            .thenReturn(List.of(pending));
+        when(inventoryService.syncStockLocatorRange(eq("ITEM00999"), isNull(), anyMap(), anyMap()))
+            .thenThrow(new RuntimeException("connection reset"));
+        when(chunkRepository.countByJobIdAndStatusNot(5L, StockLocatorSyncService.DONE)).thenReturn(1L);
+        when(chunkRepository.countByJobIdAndStatus(5L, StockLocatorSyncService.DONE)).thenReturn(0L);
+        when(chunkRepository.countByJobIdAndStatus(5L, StockLocatorSyncService.FAILED)).thenReturn(1L);
+
+        StockLocatorSyncStatusDTO status = stockLocatorSyncService.resumeSync(5L);
+
+        assertEquals(StockLocatorSyncService.FAILED, pending.getStatus());
+        assertEquals("connection reset", pending.getError());
+        assertEquals(StockLocatorSyncService.FAILED, status.getStatus());
+        assertEquals(1, status.getFailedChunks());
+        assertNotNull(job.getError());
+    }
+
+    @Test
+    void testResumeSync_LongErrorFitsColumnAndUnsavedFailureStillFailsJob() {
+        StockLocatorSyncJob job = job(6L, StockLocatorSyncService.RUNNING);
+        StockLocatorSyncChunk first = chunk(6L, 0, null, "ITEM00999", StockLocatorSyncService.PENDING);
+        StockLocatorSyncChunk second = chunk(6L, 1, "ITEM00999", null, StockLocatorSyncService.PENDING);
+
+        when(jobRepository.findById(6L)).thenReturn(Optional.of(job));
+        when(chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(6L, StockLocatorSyncService.DONE))
+            .thenReturn(List.of(first, second));
+        when(inventoryService.syncStockLocatorRange(any(), any(), anyMap(), anyMap()))
+            .thenThrow(new RuntimeException("x".repeat(1000)));
+        // recording the second failure fails as well, so that chunk stays PENDING in the table
+        when(chunkRepository.save(any(StockLocatorSyncChunk.class)))
+            .thenAnswer(i -> i.getArgument(0))
+            .thenThrow(new RuntimeException("connection lost"));
+        when(chunkRepository.countByJobIdAndStatusNot(6L, StockLocatorSyncService.DONE)).thenReturn(2L);
+
+        assertThrows(RuntimeException.class, () -> stockLocatorSyncService.resumeSync(6L));
+
+        assertEquals(StockLocatorSyncService.MAX_ERROR_LENGTH, first.getError().length());
+        assertEquals(StockLocatorSyncService.FAILED, job.getStatus());
+        assertTrue(job.getError().startsWith("2 chunk(s)"));
+    }
+
+    @Test
+    void testResumeInterruptedJobs_OnlyRedoesUnfinishedChunks() {
+        // Setup - chunk 0 committed before the crash, chunk 1 did not
+        StockLocatorSyncJob interrupted = job(9L, StockLocatorSyncService.RUNNING);
+        StockLocatorSyncChunk unfinished = chunk(9L, 1, "ITEM00999", null, StockLocatorSyncService.PENDING);
+
+        when(jobRepository.findByStatus(StockLocatorSyncService.RUNNING)).thenReturn(List.of(interrupted));
+        when(jobRepository.findById(9L)).thenReturn(Optional.of(interrupted));
+        when(chunkRepository.findByJobIdAndStatusNotOrderByChunkIndexAsc(9L, StockLocatorSyncService.DONE))
+            .thenReturn(List.of(unfinished));
+        when(inventoryService.syncStockLocatorRange(eq("ITEM00999"), isNull(), anyMap(), anyMap())).thenReturn(1);
+
+        // Execute
+        stockLocatorSyncService.resumeInterruptedJobs();
+
+        // Verify
+        verify(inventoryService, times(1)).syncStockLocatorRange(any(), any(), anyMap(), anyMap());
+        assertEquals(StockLocatorSyncService.DONE, unfinished.getStatus());
+        assertEquals(StockLocatorSyncService.COMPLETED, interrupted.getStatus());
+        assertNotNull(interrupted.getFinishedAt());
+    }
+}
@@ -0,0 +1,56 @@
+package com.biotech.lis.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.put("SIG0001", "Sigma", "Ethanol Absolute");
+        index.put("SIG0002", "Sigma", "Ethanol");
+        index.put("SIG0003", "Sigma", "Acetone");
+        index.put("SIG0004", "Sigma", "ethanol");
+        index.put("MER0001", "Merck", "Ethanol 96%");
+        index.put("MER0002", "Merck", "Ethanol");
+    }
+
+    @Test
+    void testSuggest_CompletesPrefixWithinBrandInOrder() {
+        assertEquals(List.of("Ethanol", "Ethanol Absolute"), index.suggest("eth", "SIGMA", 10));
+        assertEquals(List.of("Acetone", "Ethanol", "Ethanol Absolute"), index.suggest("", "Sigma", 10));
+        assertTrue(index.suggest("eth", "Unknown", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggest_MergesBrandsWithoutDuplicates() {
+        assertEquals(List.of("Ethanol", "Ethanol 96%", "Ethanol Absolute"), index.suggest("ETHANOL", null, 10));
+    }
+
+    @Test
+    void testSuggest_HonoursLimit() {
+        assertEquals(List.of("Ethanol", "Ethanol 96%"), index.suggest("e", null, 2));
+        assertTrue(index.suggest("e", null, 0).isEmpty());
+    }
+
+    @Test
+    void testPutAndRemove_KeepDescriptionWhileAnItemUsesIt() {
+        // two Sigma items share "Ethanol"
+        index.remove("SIG0002");
+        assertEquals(List.of("Ethanol", "Ethanol Absolute"), index.suggest("eth", "Sigma", 10));
+
+        index.put("SIG0004", "Sigma", "Methanol");
+        assertEquals(List.of("Ethanol Absolute"), index.suggest("eth", "Sigma", 10));
+        assertEquals(List.of("Methanol"), index.suggest("meth", "Sigma", 10));
+
+        index.put("SIG0001", "Sigma", null);
+        assertTrue(index.suggest("eth", "Sigma", 10).isEmpty());
+    }
+}
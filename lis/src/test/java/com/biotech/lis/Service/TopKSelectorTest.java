@@ -0,0 +1,67 @@
+package com.biotech.lis.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKSelectorTest {
+
+    @Test
+    void testTop_ReturnsLargestFirst() {
+        List<Integer> source = Arrays.asList(5, 1, 9, 3, 7, 9, 2);
+
+        List<Integer> result = TopKSelector.top(source, 3, Comparator.naturalOrder());
+
+        assertEquals(Arrays.asList(9, 9, 7), result);
+    }
+
+    @Test
+    void testBottom_ReturnsSmallestFirst() {
+        List<Integer> source = Arrays.asList(5, 1, 9, 3, 7, 9, 2);
+
+        List<Integer> result = TopKSelector.bottom(source, 3, Comparator.naturalOrder());
+
+        assertEquals(Arrays.asList(1, 2, 3), result);
+    }
+
+    @Test
+    void testTop_KLargerThanSource() {
+        List<Integer> result = TopKSelector.top(Arrays.asList(2, 3, 1), 10, Comparator.naturalOrder());
+
+        assertEquals(Arrays.asList(3, 2, 1), result);
+    }
+
+    @Test
+    void testTop_HugeKSizedBySource() {
+        List<Integer> result = TopKSelector.top(Arrays.asList(2, 3, 1), Integer.MAX_VALUE, Comparator.naturalOrder());
+
+        assertEquals(Arrays.asList(3, 2, 1), result);
+    }
+
+    @Test
+    void testTop_ZeroOrEmpty() {
+        assertTrue(TopKSelector.top(Arrays.asList(2, 3, 1), 0, Comparator.<Integer>naturalOrder()).isEmpty());
+        assertTrue(TopKSelector.top(Collections.<Integer>emptyList(), 5, Comparator.<Integer>naturalOrder()).isEmpty());
+    }
+
+    @Test
+    void testTop_MatchesFullSort() {
+        Random random = new Random(42);
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            source.add(random.nextInt(1_000));
+        }
+
+        List<Integer> sorted = new ArrayList<>(source);
+        sorted.sort(Comparator.reverseOrder());
+
+        assertEquals(sorted.subList(0, 25), TopKSelector.top(source, 25, Comparator.naturalOrder()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.CustomerTransaction;
+import com.biotech.lis.Entity.Sold;
+import com.biotech.lis.Entity.TransactionEntry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Streams the merged history from H2 and checks order, paging and that nothing is held in the session
+@DataJpaTest
+@Import(TransactionHistoryService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.show-sql=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1",
+    "spring.sql.init.mode=embedded",
+    "spring.sql.init.schema-locations=classpath:schema.sql"
+})
+public class TransactionHistoryServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    private void legacyEntry(String reference, LocalDate date) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setDrSIReferenceNum(reference);
+        entry.setTransactionDate(date);
+        entry.setBrand("Legacy");
+        entry.setQuantity(1);
+        entityManager.persist(entry);
+    }
+
+    private void sale(String invoice, LocalDateTime date, int lines) {
+        List<Sold> items = new ArrayList<>();
+        for (int i = 1; i <= lines; i++) {
+            Sold sold = new Sold();
+            sold.setItemId(invoice + "-" + i);
+            sold.setQuantity(i);
+            sold.setBrandName("Sigma");
+            items.add(sold);
+        }
+        CustomerTransaction transaction = new CustomerTransaction();
+        transaction.setInvoiceReference(invoice);
+        transaction.setTransactionDate(date);
+        transaction.setTotalRetailPrice(10.0);
+        transaction.setItems(items);
+        entityManager.persist(transaction);
+    }
+
+    private void seedHistory() {
+        legacyEntry("DR-1", LocalDate.of(2024, 1, 10));
+        legacyEntry("DR-2", LocalDate.of(2024, 1, 12));
+        legacyEntry("DR-3", LocalDate.of(2024, 1, 12));
+        legacyEntry("DR-4", null);
+        sale("INV-1", LocalDateTime.of(2024, 1, 11, 9, 0), 2);
+        sale("INV-2", LocalDateTime.of(2024, 1, 12, 15, 30), 1);
+        sale("INV-3", LocalDateTime.of(2024, 1, 13, 8, 0), 3);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private JsonNode write(LocalDate from, LocalDate to, String cursor, Integer limit) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionHistoryService.writeHistory(transactionHistoryService.query(from, to, cursor, limit), out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private List<String> keys(JsonNode entries) {
+        List<String> keys = new ArrayList<>();
+        entries.forEach(entry -> keys.add(entry.get("drSIReferenceNum").asText() + "/" + entry.get("itemCode").asText()));
+        return keys;
+    }
+
+    @Test
+    void testWriteHistory_MergesBothTablesNewestFirst() throws Exception {
+        seedHistory();
+
+        JsonNode history = write(null, null, null, null);
+
+        assertTrue(history.isArray());
+        assertEquals(List.of(
+            "INV-3/INV-3-3", "INV-3/INV-3-2", "INV-3/INV-3-1",
+            "DR-3/null", "DR-2/null", "INV-2/INV-2-1",
+            "INV-1/INV-1-2", "INV-1/INV-1-1",
+            "DR-1/null", "DR-4/null"), keys(history));
+        assertEquals("2024-01-13", history.get(0).get("transactionDate").asText());
+        assertEquals("Sigma", history.get(0).get("brand").asText());
+    }
+
+    @Test
+    void testWriteHistory_DateRangeIsInclusive() throws Exception {
+        seedHistory();
+
+        JsonNode history = write(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 12), null, null);
+
+        assertEquals(List.of("DR-3/null", "DR-2/null", "INV-2/INV-2-1", "INV-1/INV-1-2", "INV-1/INV-1-1"), keys(history));
+    }
+
+    @Test
+    void testWriteHistory_UndatedRowsFollowTheDatedHistory() throws Exception {
+        seedHistory();
+        legacyEntry("DR-5", null);
+        sale("INV-4", null, 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> full = keys(write(null, null, null, null));
+
+        assertEquals(List.of("DR-1/null", "DR-5/null", "DR-4/null", "INV-4/INV-4-2", "INV-4/INV-4-1"),
+            full.subList(full.size() - 5, full.size()));
+        assertTrue(full.containsAll(keys(write(LocalDate.of(2024, 1, 1), null, null, null))));
+        assertFalse(keys(write(LocalDate.of(2024, 1, 1), null, null, null)).contains("DR-4/null"));
+
+        // single-row pages cross from the dated rows into both undated segments
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = write(null, null, cursor, 1);
+            paged.addAll(keys(page.get("entries")));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(full, paged);
+    }
+
+    @Test
+    void testWriteHistory_CursorPagesConcatenateToFullHistory() throws Exception {
+        seedHistory();
+        List<String> full = keys(write(null, null, null, null));
+
+        // page sizes of 2 put page breaks after legacy and after sale rows, inside one day and across days
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = write(null, null, cursor, 2);
+            paged.addAll(keys(page.get("entries")));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(full, paged);
+        assertEquals(5, pages);
+    }
+
+    @Test
+    void testWriteHistory_StreamsWithoutLoadingEntities() throws Exception {
+        seedHistory();
+
+        statistics.clear();
+        write(null, null, null, null);
+
+        // a cursor per table for dated and one for undated rows, no per-sale item loads, and no
+        // rows left in the session
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testQuery_RejectsBadParameters() {
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionHistoryService.query(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, null));
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionHistoryService.query(null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () ->
+            transactionHistoryService.query(null, null, "not-a-cursor", 10));
+    }
+}
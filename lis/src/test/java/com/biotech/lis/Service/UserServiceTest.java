@@ -0,0 +1,125 @@
+package com.biotech.lis.Service;
+
+import com.biotech.lis.Entity.User;
+import com.biotech.lis.Exception.InvalidUserDataException;
+import com.biotech.lis.Exception.UserNotFoundException;
+import com.biotech.lis.Repository.UserRepository;
+import com.biotech.lis.config.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PasswordHashingService passwordHashing;
+
+    @InjectMocks
+    private UserService userService;
+
+    private User storedUser() {
+        return new User(7L, "Ana", "Reyes", "ana@example.com", "$2a$10$hash".toCharArray());
+    }
+
+    @Test
+    void testGetSignedInUser_CachedWithoutPassword() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(storedUser()));
+
+        User first = userService.getSignedInUser(7L);
+        User second = userService.getSignedInUser(7L);
+
+        assertEquals(7L, second.getUserId());
+        assertEquals("ana@example.com", second.getEmail());
+        assertNull(first.getPassword());
+        assertNull(second.getPassword());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void testGetSignedInUser_NotFound() {
+        when(userRepository.findById(8L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getSignedInUser(8L));
+    }
+
+    @Test
+    void testGetUserById_ReadsRepositoryEachTime() {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(storedUser()));
+
+        userService.getSignedInUser(7L);
+        User user = userService.getUserById(7L);
+
+        assertNotNull(user.getPassword());
+        verify(userRepository, times(2)).findById(7L);
+    }
+
+    private User newUser(String password) {
+        return new User(null, "Ana", "Reyes", "ana@example.com", password.toCharArray());
+    }
+
+    @Test
+    void testAddUser_SavesOnceTheHashIsReady() throws Exception {
+        CompletableFuture<String> hash = new CompletableFuture<>();
+        when(passwordHashing.encode("secret1")).thenReturn(hash);
+        when(userRepository.save(any(User.class))).thenAnswer(call -> call.getArgument(0));
+
+        CompletableFuture<User> saved = userService.addUser(newUser("secret1"));
+
+        // the caller is not held while the password is hashed
+        assertFalse(saved.isDone());
+        verify(userRepository, never()).save(any(User.class));
+
+        hash.complete("$2a$10$hash");
+        assertEquals("$2a$10$hash", String.valueOf(saved.get().getPassword()));
+    }
+
+    @Test
+    void testAddUser_SaturatedPoolFailsWithRejection() {
+        when(passwordHashing.encode("secret1"))
+            .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> userService.addUser(newUser("secret1")).get());
+
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testAddUser_BadInputFailsWithoutHashing() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> userService.addUser(newUser("short")).get());
+
+        assertInstanceOf(InvalidUserDataException.class, failure.getCause());
+        verifyNoInteractions(passwordHashing);
+    }
+
+    @Test
+    void testUpdateUser_WithoutPasswordSkipsHashing() throws Exception {
+        when(userRepository.findById(7L)).thenReturn(Optional.of(storedUser()));
+        when(userRepository.save(any(User.class))).thenAnswer(call -> call.getArgument(0));
+
+        User updated = userService.updateUser(new User(7L, "Anna", null, null, null)).get();
+
+        assertEquals("Anna", updated.getFirstName());
+        verifyNoInteractions(passwordHashing);
+    }
+}
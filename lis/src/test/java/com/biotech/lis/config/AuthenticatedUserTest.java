@@ -0,0 +1,76 @@
+package com.biotech.lis.config;
+
+import com.biotech.lis.Entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthenticatedUserTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final Function<Long, User> lookup = id -> {
+        lookups.incrementAndGet();
+        User user = new User();
+        user.setUserId(id);
+        return user;
+    };
+
+    private void signIn(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testCurrent_LooksUpOncePerRequest() {
+        signIn(new AuthenticatedUser(42L));
+
+        User first = AuthenticatedUser.current(lookup);
+        User second = AuthenticatedUser.current(lookup);
+
+        assertEquals(42L, first.getUserId());
+        assertSame(first, second);
+        assertEquals(1, lookups.get());
+        assertEquals("42", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void testCurrent_NewRequestLooksUpAgain() {
+        signIn(new AuthenticatedUser(42L));
+        AuthenticatedUser.current(lookup);
+
+        signIn(new AuthenticatedUser(42L));
+        AuthenticatedUser.current(lookup);
+
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testCurrent_PlainNamePrincipal() {
+        signIn("7");
+
+        assertEquals(7L, AuthenticatedUser.current(lookup).getUserId());
+        AuthenticatedUser.current(lookup);
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testCurrent_RequiresAuthenticatedUser() {
+        assertThrows(IllegalArgumentException.class, () -> AuthenticatedUser.current(lookup));
+
+        signIn("not-an-id");
+        assertThrows(IllegalArgumentException.class, () -> AuthenticatedUser.current(lookup));
+    }
+}
@@ -0,0 +1,85 @@
+package com.biotech.lis.config;
+
+import com.biotech.lis.DTO.CacheStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private JwtService jwtService;
+
+    private JwtService newService(String secret) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        service.init();
+        return service;
+    }
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(SECRET);
+    }
+
+    @Test
+    void testVerifiedSubject_ValidToken() {
+        String token = jwtService.generateToken(42L);
+
+        assertEquals(Optional.of("42"), jwtService.verifiedSubject(token));
+        assertTrue(jwtService.validateToken(token));
+        assertEquals("42", jwtService.extractId(token));
+    }
+
+    @Test
+    void testVerifiedSubject_ValidBeforeAnyLogin() {
+        // tokens issued before a restart are accepted without anyone logging in first
+        String token = jwtService.generateToken(42L);
+
+        assertEquals(Optional.of("42"), newService(SECRET).verifiedSubject(token));
+    }
+
+    @Test
+    void testVerifiedSubject_RejectsBadTokens() {
+        String token = jwtService.generateToken(42L);
+        String otherSecret = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+        assertEquals(Optional.empty(), newService(otherSecret).verifiedSubject(token));
+        assertEquals(Optional.empty(), jwtService.verifiedSubject(token.substring(0, token.length() - 2) + "xx"));
+        assertEquals(Optional.empty(), jwtService.verifiedSubject("not-a-token"));
+        assertEquals(Optional.empty(), jwtService.verifiedSubject(""));
+        assertFalse(jwtService.validateToken("not-a-token"));
+    }
+
+    @Test
+    void testVerifiedSubject_RejectsExpiredToken() {
+        ReflectionTestUtils.setField(jwtService, "expirationMs", -1000L);
+        String token = jwtService.generateToken(42L);
+
+        assertEquals(Optional.empty(), jwtService.verifiedSubject(token));
+    }
+
+    @Test
+    void testVerifiedSubject_RepeatedTokenAnsweredFromCache() {
+        String token = jwtService.generateToken(42L);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of("42"), jwtService.verifiedSubject(token));
+        }
+        jwtService.verifiedSubject("not-a-token");
+        jwtService.verifiedSubject("not-a-token");
+
+        // bad tokens are checked every time and never cached
+        CacheStatsDTO stats = jwtService.getCacheStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(4, stats.getHits());
+        assertEquals(3, stats.getMisses());
+    }
+}
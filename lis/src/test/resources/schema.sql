@@ -30,6 +30,8 @@ CREATE TABLE purchaseOrder (
     dateTimeAdded TIMESTAMP
 );
 
+CREATE INDEX idx_purchase_order_brand ON purchaseOrder (brandId, itemCode);
+
 CREATE TABLE `inventory` (
     itemCode VARCHAR(255) PRIMARY KEY,
     poPireference VARCHAR(255),
@@ -46,12 +48,18 @@ CREATE TABLE `inventory` (
     dateTimeAdded TIMESTAMP
 );
 
+CREATE INDEX idx_inventory_expiry ON `inventory` (expiry);
+CREATE INDEX idx_inventory_quantity ON `inventory` (quantity, itemCode);
+
 CREATE TABLE itemLoc (
-    locationId INT PRIMARY KEY,
+    locationId INT,
     itemCode VARCHAR(255),
-    quantity INT
+    quantity INT,
+    PRIMARY KEY (itemCode, locationId)
 );
 
+CREATE INDEX idx_item_loc_item_code ON itemLoc (itemCode);
+
 CREATE TABLE transactionEntry (
     drSIReferenceNum VARCHAR(64) PRIMARY KEY,
     transactionDate DATE,
@@ -67,6 +75,9 @@ CREATE TABLE transactionEntry (
     dateTimeAdded TIMESTAMP
 );
 
+CREATE INDEX idx_transaction_entry_date ON transactionEntry (transactionDate, drSIReferenceNum);
+CREATE INDEX idx_transaction_entry_item_code ON transactionEntry (itemCode);
+
 CREATE TABLE stockLocator (
     itemCode VARCHAR(64) PRIMARY KEY,
     brand VARCHAR(255),
@@ -80,4 +91,75 @@ CREATE TABLE stockLocator (
     cebu INT,
     addedBy VARCHAR(255),
     dateTimeAdded TIMESTAMP
+);
+
+CREATE INDEX idx_stock_locator_brand_product ON stockLocator (brand, productDescription);
+
+CREATE TABLE stockLocatorSyncJob (
+    jobId BIGINT PRIMARY KEY AUTO_INCREMENT,
+    status VARCHAR(32),
+    totalChunks INT,
+    totalItems INT,
+    startedAt TIMESTAMP,
+    finishedAt TIMESTAMP,
+    error VARCHAR(255)
+);
+
+CREATE TABLE stockLocatorSyncChunk (
+    chunkId BIGINT PRIMARY KEY AUTO_INCREMENT,
+    jobId BIGINT,
+    chunkIndex INT,
+    afterItemCode VARCHAR(255),
+    upToItemCode VARCHAR(255),
+    status VARCHAR(32),
+    itemsSynced INT,
+    completedAt TIMESTAMP,
+    error VARCHAR(255)
+);
+
+CREATE INDEX idx_sync_chunk_job_status ON stockLocatorSyncChunk (jobId, status);
+
+CREATE TABLE schemaMigration (
+    name VARCHAR(255) PRIMARY KEY,
+    appliedAt TIMESTAMP
+);
+
+CREATE TABLE locationStock (
+    itemCode VARCHAR(64),
+    locationId INT,
+    quantity INT,
+    PRIMARY KEY (itemCode, locationId)
+);
+
+CREATE TABLE customer_transaction (
+    transactionId BIGINT AUTO_INCREMENT PRIMARY KEY,
+    invoiceReference VARCHAR(64),
+    transactionDate TIMESTAMP,
+    customerId VARCHAR(64),
+    customerName VARCHAR(255),
+    totalRetailPrice DOUBLE
+);
+
+CREATE INDEX idx_customer_transaction_date ON customer_transaction (transactionDate);
+CREATE INDEX idx_customer_transaction_invoice ON customer_transaction (invoiceReference);
+
+CREATE TABLE sold_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    itemId VARCHAR(64),
+    lotNumber VARCHAR(64),
+    quantity INT,
+    unitRetailPrice DOUBLE,
+    brandName VARCHAR(255),
+    itemDescription VARCHAR(255),
+    location VARCHAR(255),
+    transaction_id BIGINT
+);
+
+CREATE INDEX idx_sold_items_transaction ON sold_items (transaction_id);
+
+CREATE TABLE daily_sales_rollup (
+    salesDate DATE PRIMARY KEY,
+    transactionCount BIGINT,
+    totalRetailValue DOUBLE,
+    totalQuantity BIGINT
 );
\ No newline at end of file